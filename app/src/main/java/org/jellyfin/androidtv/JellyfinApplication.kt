@@ -21,6 +21,7 @@ import org.jellyfin.androidtv.preference.UserPreferences
 import org.jellyfin.androidtv.preference.constant.AppLanguage
 import org.jellyfin.androidtv.telemetry.TelemetryService
 import org.jellyfin.androidtv.util.LocaleHelper
+import org.jellyfin.androidtv.util.profile.DeviceProfileProvider
 import org.koin.android.ext.android.get
 import org.koin.android.ext.android.inject
 import org.koin.android.ext.koin.androidContext
@@ -137,6 +138,7 @@ class JellyfinApplication : Application() {
 	suspend fun onSessionStart() = withContext(Dispatchers.IO) {
 		val workManager by inject<WorkManager>()
 		val socketListener by inject<SocketHandler>()
+		val deviceProfileProvider by inject<DeviceProfileProvider>()
 
 		// Update background worker
 		launch {
@@ -155,6 +157,9 @@ class JellyfinApplication : Application() {
 
 		// Update WebSockets
 		launch { socketListener.updateSession() }
+
+		// Probe codecs before the first playback needs the device profile
+		launch { deviceProfileProvider.getProfile() }
 	}
 
 	override fun attachBaseContext(base: Context) {
@@ -11,12 +11,14 @@ import kotlinx.coroutines.flow.onEach
 import kotlinx.coroutines.runBlocking
 import kotlinx.coroutines.withContext
 import org.jellyfin.androidtv.data.model.DataRefreshService
+import org.jellyfin.androidtv.data.repository.ItemCacheRepository
 import org.jellyfin.androidtv.ui.itemhandling.ItemLauncher
 import org.jellyfin.androidtv.ui.navigation.Destinations
 import org.jellyfin.androidtv.ui.navigation.NavigationRepository
 import org.jellyfin.androidtv.ui.playback.MediaManager
 import org.jellyfin.androidtv.ui.playback.PlaybackControllerContainer
 import org.jellyfin.androidtv.ui.playback.setSubtitleIndex
+import org.jellyfin.androidtv.ui.search.SearchIndex
 import org.jellyfin.androidtv.util.PlaybackHelper
 import org.jellyfin.sdk.api.client.ApiClient
 import org.jellyfin.sdk.api.client.exception.ApiClientException
@@ -51,6 +53,8 @@ class SocketHandler(
 	private val audioManager: AudioManager,
 	private val itemLauncher: ItemLauncher,
 	private val playbackHelper: PlaybackHelper,
+	private val searchIndex: SearchIndex,
+	private val itemCacheRepository: ItemCacheRepository,
 ) {
 	private val coroutineScope = CoroutineScope(Dispatchers.IO)
 
@@ -195,6 +199,9 @@ class SocketHandler(
 
 		if (info.itemsAdded.any() || info.itemsRemoved.any())
 			dataRefreshService.lastLibraryChange = Instant.now()
+
+		searchIndex.onLibraryChanged(info)
+		itemCacheRepository.invalidateItems((info.itemsRemoved + info.itemsUpdated).mapNotNull { it.toUUIDOrNull() })
 	}
 
 	private fun onPlayMessage(message: PlayMessage) {
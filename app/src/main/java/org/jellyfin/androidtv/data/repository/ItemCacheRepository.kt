@@ -0,0 +1,164 @@
+package org.jellyfin.androidtv.data.repository
+
+import android.content.Context
+import kotlinx.serialization.SerializationException
+import kotlinx.serialization.builtins.ListSerializer
+import kotlinx.serialization.json.Json
+import kotlinx.serialization.json.JsonObject
+import kotlinx.serialization.json.JsonPrimitive
+import kotlinx.serialization.json.intOrNull
+import kotlinx.serialization.json.jsonObject
+import kotlinx.serialization.json.jsonPrimitive
+import kotlinx.serialization.json.longOrNull
+import org.jellyfin.androidtv.auth.repository.UserRepository
+import org.jellyfin.androidtv.data.model.DataRefreshService
+import org.jellyfin.sdk.model.api.BaseItemDto
+import timber.log.Timber
+import java.io.File
+import java.io.IOException
+import java.security.MessageDigest
+import java.time.Instant
+import java.util.UUID
+
+/**
+ * Persistent cache of item lists keyed by the query that produced them. Used to show rows
+ * immediately while fresh data is requested from the server (stale-while-revalidate).
+ */
+interface ItemCacheRepository {
+	/**
+	 * Get the cached items for [query] of the current user. Returns null when there is no entry or
+	 * when the entry is older than the last change known to the [DataRefreshService].
+	 */
+	fun get(query: Any): List<BaseItemDto>?
+
+	fun put(query: Any, items: List<BaseItemDto>)
+
+	/**
+	 * Remove all entries containing one of the items in [ids].
+	 */
+	fun invalidateItems(ids: Collection<UUID>)
+}
+
+/**
+ * The data is stored as one JSON file per query in the applications cache directory.
+ */
+class ItemCacheRepositoryImpl(
+	private val context: Context,
+	private val userRepository: UserRepository,
+	private val dataRefreshService: DataRefreshService,
+) : ItemCacheRepository {
+	companion object {
+		private const val STORE_VERSION = 1
+		private const val MAX_ENTRIES = 100
+	}
+
+	private val json = Json {
+		ignoreUnknownKeys = true
+	}
+
+	private val itemsSerializer = ListSerializer(BaseItemDto.serializer())
+
+	private val storeDirectory
+		get() = context.cacheDir.resolve("item_cache")
+
+	private val lastChange: Instant?
+		get() = with(dataRefreshService) {
+			listOfNotNull(lastPlayback, lastMoviePlayback, lastTvPlayback, lastLibraryChange, lastFavoriteUpdate).maxOrNull()
+		}
+
+	private fun storePath(query: Any): File? {
+		val userId = userRepository.currentUser.value?.id ?: return null
+		val key = "$userId/${query::class.simpleName}/$query"
+		val hash = MessageDigest.getInstance("SHA-1")
+			.digest(key.toByteArray())
+			.joinToString("") { "%02x".format(it) }
+
+		return storeDirectory.resolve("$hash.json")
+	}
+
+	@Synchronized
+	override fun get(query: Any): List<BaseItemDto>? {
+		val path = storePath(query) ?: return null
+		val entry = read(path) ?: return null
+
+		val lastChange = lastChange
+		if (lastChange != null && entry.created.isBefore(lastChange)) return null
+
+		return entry.items
+	}
+
+	@Synchronized
+	override fun put(query: Any, items: List<BaseItemDto>) {
+		val path = storePath(query) ?: return
+
+		// Skip fields that are only needed by the detail and playback screens
+		val strippedItems = items.map { item ->
+			item.copy(
+				mediaSources = null,
+				mediaStreams = null,
+				chapters = null,
+				people = null,
+				trickplay = null,
+			)
+		}
+
+		val root = JsonObject(mapOf(
+			"version" to JsonPrimitive(STORE_VERSION),
+			"created" to JsonPrimitive(Instant.now().toEpochMilli()),
+			"items" to json.encodeToJsonElement(itemsSerializer, strippedItems),
+		))
+
+		try {
+			path.parentFile?.mkdirs()
+			path.writeText(json.encodeToString(JsonObject.serializer(), root))
+			prune()
+		} catch (err: IOException) {
+			Timber.e(err, "Unable to write item cache")
+		}
+	}
+
+	@Synchronized
+	override fun invalidateItems(ids: Collection<UUID>) {
+		if (ids.isEmpty()) return
+
+		val idSet = ids.toSet()
+		storeDirectory.listFiles()?.forEach { path ->
+			val entry = read(path)
+			if (entry == null || entry.items.any { it.id in idSet }) path.delete()
+		}
+	}
+
+	private fun read(path: File): Entry? {
+		if (!path.exists()) return null
+
+		return try {
+			val root = json.parseToJsonElement(path.readText()).jsonObject
+			if (root["version"]?.jsonPrimitive?.intOrNull != STORE_VERSION) return null
+
+			Entry(
+				created = Instant.ofEpochMilli(root["created"]?.jsonPrimitive?.longOrNull ?: 0),
+				items = json.decodeFromJsonElement(itemsSerializer, root["items"]!!),
+			)
+		} catch (err: SerializationException) {
+			Timber.w(err, "Unable to read item cache entry")
+			null
+		} catch (err: IOException) {
+			Timber.w(err, "Unable to read item cache entry")
+			null
+		}
+	}
+
+	private fun prune() {
+		val files = storeDirectory.listFiles() ?: return
+		if (files.size <= MAX_ENTRIES) return
+
+		files.sortedBy { it.lastModified() }
+			.take(files.size - MAX_ENTRIES)
+			.forEach { it.delete() }
+	}
+
+	private data class Entry(
+		val created: Instant,
+		val items: List<BaseItemDto>,
+	)
+}
@@ -3,7 +3,11 @@ package org.jellyfin.androidtv.data.repository
 import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.withContext
 import org.jellyfin.androidtv.data.model.DataRefreshService
+import org.jellyfin.androidtv.util.apiclient.Report
+import org.jellyfin.androidtv.util.apiclient.ReportOutbox
 import org.jellyfin.sdk.api.client.ApiClient
+import org.jellyfin.sdk.api.client.exception.ApiClientException
+import org.jellyfin.sdk.api.client.exception.InvalidStatusException
 import org.jellyfin.sdk.api.client.extensions.playStateApi
 import org.jellyfin.sdk.api.client.extensions.userLibraryApi
 import org.jellyfin.sdk.model.UUID
@@ -18,11 +22,27 @@ interface ItemMutationRepository {
 class ItemMutationRepositoryImpl(
 	private val api: ApiClient,
 	private val dataRefreshService: DataRefreshService,
+	private val reportOutbox: ReportOutbox,
 ) : ItemMutationRepository {
+	/**
+	 * Run the [request], when the server is unreachable the [report] is queued so the change is applied once the
+	 * connection returns. The error is still thrown as the updated user data is unknown until then.
+	 */
+	private suspend fun <T> queueOnNetworkError(report: Report, request: suspend () -> T): T = try {
+		withContext(Dispatchers.IO) { request() }
+	} catch (err: InvalidStatusException) {
+		throw err
+	} catch (err: ApiClientException) {
+		reportOutbox.enqueue(report)
+		throw err
+	}
+
 	override suspend fun setFavorite(item: UUID, favorite: Boolean): UserItemDataDto {
-		val response by when {
-			favorite -> withContext(Dispatchers.IO) { api.userLibraryApi.markFavoriteItem(itemId = item) }
-			else -> withContext(Dispatchers.IO) { api.userLibraryApi.unmarkFavoriteItem(itemId = item) }
+		val response by queueOnNetworkError(Report.Favorite(item, favorite)) {
+			when {
+				favorite -> api.userLibraryApi.markFavoriteItem(itemId = item)
+				else -> api.userLibraryApi.unmarkFavoriteItem(itemId = item)
+			}
 		}
 
 		dataRefreshService.lastFavoriteUpdate = Instant.now()
@@ -30,9 +50,11 @@ class ItemMutationRepositoryImpl(
 	}
 
 	override suspend fun setPlayed(item: UUID, played: Boolean): UserItemDataDto {
-		val response by when {
-			played -> withContext(Dispatchers.IO) { api.playStateApi.markPlayedItem(itemId = item) }
-			else -> withContext(Dispatchers.IO) { api.playStateApi.markUnplayedItem(itemId = item) }
+		val response by queueOnNetworkError(Report.Played(item, played)) {
+			when {
+				played -> api.playStateApi.markPlayedItem(itemId = item)
+				else -> api.playStateApi.markUnplayedItem(itemId = item)
+			}
 		}
 
 		return response
@@ -22,4 +22,12 @@ object ItemRepository {
 		ItemFields.TAGLINES,
 		ItemFields.TRICKPLAY,
 	)
+
+	/**
+	 * Minimal set of fields for items that are only shown as a card. The name, image tags and
+	 * blurhashes are always included.
+	 */
+	val cardFields = setOf(
+		ItemFields.PRIMARY_IMAGE_ASPECT_RATIO,
+	)
 }
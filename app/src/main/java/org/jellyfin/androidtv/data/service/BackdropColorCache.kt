@@ -0,0 +1,111 @@
+package org.jellyfin.androidtv.data.service
+
+import android.content.Context
+import androidx.compose.ui.graphics.Color
+import androidx.compose.ui.graphics.toArgb
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.launch
+import kotlinx.serialization.Serializable
+import kotlinx.serialization.SerializationException
+import kotlinx.serialization.json.Json
+import timber.log.Timber
+import java.io.IOException
+import kotlin.time.Duration.Companion.seconds
+
+/**
+ * Stores the colors extracted from backdrops by image tag. The colors are written to disk so backdrops that were shown
+ * before get their colors without extracting them again, also after a restart of the app.
+ */
+class BackdropColorCache(
+	private val context: Context,
+) {
+	companion object {
+		private const val STORE_VERSION = 1
+		private const val MAX_ENTRIES = 500
+		private val WRITE_DELAY = 5.seconds
+	}
+
+	@Serializable
+	private data class Store(
+		val version: Int,
+		val colors: Map<String, StoredColors>,
+	)
+
+	@Serializable
+	private data class StoredColors(
+		val primary: Int,
+		val secondary: Int,
+		val tertiary: Int,
+	)
+
+	private val json = Json {
+		ignoreUnknownKeys = true
+	}
+
+	private val storePath
+		get() = context.cacheDir.resolve("backdrop_colors.json")
+
+	private val scope = CoroutineScope(SupervisorJob() + Dispatchers.IO)
+	private var writeJob: Job? = null
+
+	private val entries by lazy {
+		object : LinkedHashMap<String, StoredColors>(16, 0.75f, true) {
+			override fun removeEldestEntry(eldest: MutableMap.MutableEntry<String, StoredColors>) = size > MAX_ENTRIES
+		}.apply { putAll(read()) }
+	}
+
+	init {
+		// Read the stored colors early so the first backdrop doesn't wait for the disk
+		scope.launch { synchronized(this@BackdropColorCache) { entries } }
+	}
+
+	@Synchronized
+	operator fun get(key: String): ExtractedColors? = entries[key]?.let { colors ->
+		ExtractedColors(Color(colors.primary), Color(colors.secondary), Color(colors.tertiary))
+	}
+
+	@Synchronized
+	operator fun set(key: String, colors: ExtractedColors) {
+		entries[key] = StoredColors(colors.primary.toArgb(), colors.secondary.toArgb(), colors.tertiary.toArgb())
+
+		// Batch the writes of backdrops shown in quick succession
+		writeJob?.cancel()
+		writeJob = scope.launch {
+			delay(WRITE_DELAY)
+			write()
+		}
+	}
+
+	private fun read(): Map<String, StoredColors> {
+		if (!storePath.exists()) return emptyMap()
+
+		return try {
+			val store = json.decodeFromString<Store>(storePath.readText())
+			if (store.version == STORE_VERSION) store.colors
+			else emptyMap()
+		} catch (err: IOException) {
+			Timber.w(err, "Unable to read backdrop colors")
+			emptyMap()
+		} catch (err: SerializationException) {
+			Timber.w(err, "Unable to read backdrop colors")
+			emptyMap()
+		} catch (err: IllegalArgumentException) {
+			Timber.w(err, "Unable to read backdrop colors")
+			emptyMap()
+		}
+	}
+
+	private fun write() {
+		val store = synchronized(this) { Store(STORE_VERSION, entries.toMap()) }
+
+		try {
+			storePath.writeText(json.encodeToString(Store.serializer(), store))
+		} catch (err: IOException) {
+			Timber.w(err, "Unable to write backdrop colors")
+		}
+	}
+}
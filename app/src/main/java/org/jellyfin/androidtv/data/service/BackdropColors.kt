@@ -0,0 +1,79 @@
+package org.jellyfin.androidtv.data.service
+
+import android.graphics.Bitmap
+import android.os.Build
+import androidx.compose.ui.graphics.Color
+import androidx.core.graphics.scale
+import androidx.palette.graphics.Palette
+import timber.log.Timber
+
+data class ExtractedColors(
+	val primary: Color,
+	val secondary: Color,
+	val tertiary: Color,
+) {
+	companion object {
+		val None = ExtractedColors(Color.Transparent, Color.Transparent, Color.Transparent)
+	}
+}
+
+private const val PALETTE_SIZE = 200
+
+/**
+ * Extract the colors used to tint the app background from a backdrop [bitmap]. This is slow and should not be called
+ * from the main thread.
+ */
+fun extractBackdropColors(bitmap: Bitmap): ExtractedColors = try {
+	// Palette needs to read the pixels which is not possible for hardware bitmaps
+	val readableBitmap = when {
+		Build.VERSION.SDK_INT >= Build.VERSION_CODES.O && bitmap.config == Bitmap.Config.HARDWARE ->
+			bitmap.copy(Bitmap.Config.ARGB_8888, false)
+
+		else -> bitmap
+	}
+
+	val scaledBitmap = if (readableBitmap.width > PALETTE_SIZE || readableBitmap.height > PALETTE_SIZE)
+		readableBitmap.scale(PALETTE_SIZE, PALETTE_SIZE, false)
+	else readableBitmap
+
+	val palette = Palette.from(scaledBitmap).generate()
+	if (scaledBitmap !== bitmap) scaledBitmap.recycle()
+	if (readableBitmap !== bitmap && readableBitmap !== scaledBitmap) readableBitmap.recycle()
+
+	palette.toExtractedColors()
+} catch (e: Exception) {
+	Timber.e(e, "Error extracting palette colors")
+	ExtractedColors.None
+}
+
+private fun Palette.toExtractedColors(): ExtractedColors {
+	val vibrant = vibrantSwatch
+	val darkVibrant = darkVibrantSwatch
+	val lightVibrant = lightVibrantSwatch
+	val muted = mutedSwatch
+	val darkMuted = darkMutedSwatch
+
+	fun Palette.Swatch?.isCoolColor(): Boolean {
+		if (this == null) return false
+		val r = (rgb shr 16) and 0xFF
+		val g = (rgb shr 8) and 0xFF
+		val b = rgb and 0xFF
+		return b > r && (b + g) > (r * 1.5f)
+	}
+
+	fun toColor(swatch: Palette.Swatch?, alpha: Float): Color {
+		return swatch?.rgb?.let { Color(it).copy(alpha = alpha) } ?: Color.Transparent
+	}
+
+	val primaryColor = toColor(darkVibrant ?: darkMuted, 0.4f)
+	val secondaryColor = when {
+		vibrant != null && vibrant.isCoolColor() -> toColor(vibrant, 0.4f)
+		muted != null && muted.isCoolColor() -> toColor(muted, 0.4f)
+		vibrant != null -> toColor(vibrant, 0.4f)
+		muted != null -> toColor(muted, 0.4f)
+		else -> Color.Transparent
+	}
+	val tertiaryColor = toColor(vibrant ?: lightVibrant, 0.35f)
+
+	return ExtractedColors(primaryColor, secondaryColor, tertiaryColor)
+}
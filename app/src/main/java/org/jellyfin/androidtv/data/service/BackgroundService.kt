@@ -1,11 +1,16 @@
 package org.jellyfin.androidtv.data.service
 
 import android.content.Context
+import android.util.LruCache
 import androidx.compose.ui.graphics.ImageBitmap
+import androidx.compose.ui.graphics.asAndroidBitmap
 import androidx.compose.ui.graphics.asImageBitmap
 import coil3.ImageLoader
 import coil3.request.ImageRequest
+import coil3.request.allowHardware
+import coil3.size.Precision
 import coil3.toBitmap
+import kotlinx.coroutines.CancellationException
 import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.Job
 import kotlinx.coroutines.MainScope
@@ -13,6 +18,7 @@ import kotlinx.coroutines.delay
 import kotlinx.coroutines.flow.MutableStateFlow
 import kotlinx.coroutines.flow.asStateFlow
 import kotlinx.coroutines.launch
+import kotlinx.coroutines.withContext
 import org.jellyfin.androidtv.auth.model.Server
 import org.jellyfin.androidtv.preference.UserPreferences
 import org.jellyfin.androidtv.util.apiclient.getUrl
@@ -23,6 +29,7 @@ import org.jellyfin.sdk.Jellyfin
 import org.jellyfin.sdk.api.client.ApiClient
 import org.jellyfin.sdk.api.client.extensions.imageApi
 import org.jellyfin.sdk.model.api.BaseItemDto
+import timber.log.Timber
 import java.time.Instant
 import kotlin.time.Duration
 import kotlin.time.Duration.Companion.milliseconds
@@ -35,26 +42,54 @@ class BackgroundService(
 	private val userPreferences: UserPreferences,
 	private val imageLoader: ImageLoader,
 	private val imageHelper: ImageHelper,
+	private val colorCache: BackdropColorCache,
 ) {
 	companion object {
 		val SLIDESHOW_DURATION = 30.seconds
 		val TRANSITION_DURATION = 800.milliseconds
+
+		// Focus needs to stay on an item this long before its backdrop is decoded
+		val FOCUS_DWELL_DURATION = 250.milliseconds
+
+		private const val MAX_RESIDENT_BACKDROP_BYTES = 32 * 1024 * 1024
+
+		// Size of the image used to extract the colors, the palette does not need more detail
+		private const val COLOR_EXTRACTION_SIZE = 200
 	}
 
+	/**
+	 * A backdrop to show, the [key] identifies the image content and is the image tag when available.
+	 */
+	private data class Backdrop(
+		val key: String,
+		val url: String,
+	)
+
 	// Async
 	private val scope = MainScope()
 	private var loadBackgroundsJob: Job? = null
 	private var updateBackgroundTimerJob: Job? = null
 	private var lastBackgroundTimerUpdate = 0L
 
+	// Decoded backdrops are limited in size, only the shown backdrop and the next one are loaded
+	private val residentBackdrops = object : LruCache<String, ImageBitmap>(MAX_RESIDENT_BACKDROP_BYTES) {
+		override fun sizeOf(key: String, value: ImageBitmap) = value.asAndroidBitmap().allocationByteCount
+	}
+
+	// Backdrops are requested at screen size, the server scales them down before sending
+	private val backdropWidth get() = context.resources.displayMetrics.widthPixels
+	private val backdropHeight get() = context.resources.displayMetrics.heightPixels
+
 	// Current background data
-	private var _backgrounds = emptyList<ImageBitmap>()
+	private var _backgrounds = emptyList<Backdrop>()
 	private var _currentIndex = 0
 	private var _currentBackground = MutableStateFlow<ImageBitmap?>(null)
+	private var _currentColors = MutableStateFlow<ExtractedColors?>(null)
 	private var _enabled = MutableStateFlow(true)
 	private var _preventLoginBackgroundOverride = MutableStateFlow(false)
 	private var _blockAllBackgrounds = MutableStateFlow(false)
 	val currentBackground get() = _currentBackground.asStateFlow()
+	val currentColors get() = _currentColors.asStateFlow()
 	val enabled get() = _enabled.asStateFlow()
 	val blockAllBackgrounds get() = _blockAllBackgrounds.asStateFlow()
 	private var _fadingIntensity = MutableStateFlow(0.7f)
@@ -83,7 +118,7 @@ class BackgroundService(
 		val api = jellyfin.createApi(baseUrl = server.address)
 		val splashscreenUrl = api.imageApi.getSplashscreenUrl()
 
-		loadBackgrounds(setOf(splashscreenUrl))
+		loadBackgrounds(listOf(Backdrop(key = splashscreenUrl, url = splashscreenUrl)))
 	}
 
 
@@ -99,14 +134,16 @@ class BackgroundService(
 			return clearBackgrounds()
 
 		_fadingIntensity.value = userPreferences[UserPreferences.backdropFadingIntensity]
+		_dynamicColors.value = userPreferences[UserPreferences.backdropDynamicColors]
 
-		// Get all backdrop URLs
-		val backdropUrls = (baseItem.itemBackdropImages + baseItem.parentBackdropImages)
-			.map { it.getUrl(api) }
-			.toMutableSet()
+		// Get all backdrops
+		val backdrops = (baseItem.itemBackdropImages + baseItem.parentBackdropImages)
+			.map { Backdrop(key = it.tag, url = it.getUrl(api, maxWidth = backdropWidth, maxHeight = backdropHeight)) }
+			.distinctBy { it.key }
+			.toMutableList()
 
 		// If no backdrops are available, use the primary image as fallback
-		if (backdropUrls.isEmpty()) {
+		if (backdrops.isEmpty()) {
 			val primaryImageUrl = imageHelper.getPrimaryImageUrl(
 				item = baseItem,
 				width = 1920,
@@ -114,38 +151,88 @@ class BackgroundService(
 			)
 
 			if (primaryImageUrl != null) {
-				backdropUrls.add(primaryImageUrl)
+				backdrops.add(Backdrop(key = primaryImageUrl, url = primaryImageUrl))
 			}
 		}
 
-		loadBackgrounds(backdropUrls)
+		loadBackgrounds(backdrops)
 	}
 
-	private fun loadBackgrounds(backdropUrls: Set<String>) {
-		if (backdropUrls.isEmpty()) return clearBackgrounds()
+	private fun loadBackgrounds(backdrops: List<Backdrop>) {
+		if (backdrops.isEmpty()) return clearBackgrounds()
 
 		// Re-enable backgrounds if disabled
 		_enabled.value = true
 
+		// Keep the slideshow running when the same backdrops are set again
+		if (backdrops == _backgrounds && (loadBackgroundsJob?.isActive == true || _currentBackground.value != null)) return
+
 		// Cancel current loading job
 		loadBackgroundsJob?.cancel()
-		loadBackgroundsJob = scope.launch(Dispatchers.IO) {
-			_backgrounds = backdropUrls.mapNotNull { url ->
-				try {
-					imageLoader.execute(
-						request = ImageRequest.Builder(context).data(url).build()
-					).image?.toBitmap()?.asImageBitmap()
-				} catch (e: Exception) {
-					null
-				}
-			}
+		_backgrounds = backdrops
+		_currentIndex = 0
+
+		// Only the first backdrop is loaded, the others are loaded when the slideshow reaches them
+		loadBackgroundsJob = scope.launch {
+			val first = backdrops.first()
+
+			// Scrolling through items cancels this job before the backdrop of each item is decoded
+			if (residentBackdrops[first.key] == null) delay(FOCUS_DWELL_DURATION)
+			loadBackdrop(first)
 
 			// Go to first background
-			_currentIndex = 0
 			update()
 		}
 	}
 
+	private suspend fun loadBackdrop(backdrop: Backdrop) {
+		if (residentBackdrops[backdrop.key] != null) return
+
+		val bitmap = withContext(Dispatchers.IO) {
+			try {
+				imageLoader.execute(
+					request = ImageRequest.Builder(context).apply {
+						data(backdrop.url)
+						size(backdropWidth, backdropHeight)
+						precision(Precision.INEXACT)
+					}.build()
+				).image?.toBitmap()
+			} catch (e: CancellationException) {
+				throw e
+			} catch (e: Exception) {
+				null
+			}
+		} ?: return
+
+		if (_dynamicColors.value && colorCache[backdrop.key] == null) {
+			extractColors(backdrop)?.let { colors -> colorCache[backdrop.key] = colors }
+		}
+
+		residentBackdrops.put(backdrop.key, bitmap.asImageBitmap())
+	}
+
+	/**
+	 * Extract the colors from a small version of the backdrop, it is decoded from the image in the disk cache.
+	 */
+	private suspend fun extractColors(backdrop: Backdrop): ExtractedColors? = withContext(Dispatchers.Default) {
+		try {
+			val bitmap = imageLoader.execute(
+				request = ImageRequest.Builder(context).apply {
+					data(backdrop.url)
+					size(COLOR_EXTRACTION_SIZE, COLOR_EXTRACTION_SIZE)
+					allowHardware(false)
+				}.build()
+			).image?.toBitmap() ?: return@withContext null
+
+			extractBackdropColors(bitmap)
+		} catch (e: CancellationException) {
+			throw e
+		} catch (e: Exception) {
+			Timber.w(e, "Unable to extract backdrop colors")
+			null
+		}
+	}
+
 	fun clearBackgrounds() {
 		_preventLoginBackgroundOverride.value = false
 		loadBackgroundsJob?.cancel()
@@ -202,9 +289,11 @@ class BackgroundService(
 
 		// Get next background to show
 		if (_currentIndex >= _backgrounds.size) _currentIndex = 0
+		val backdrop = _backgrounds.getOrNull(_currentIndex)
 
-		// Set background
-		_currentBackground.value = _backgrounds.getOrNull(_currentIndex)
+		// Set background, the colors are set first so they are available when the background changes
+		_currentColors.value = backdrop?.let { colorCache[it.key] }
+		_currentBackground.value = backdrop?.let { residentBackdrops[it.key] }
 
 		// Set timer for next background
 		if (_backgrounds.size > 1) setTimer()
@@ -216,7 +305,10 @@ class BackgroundService(
 		updateBackgroundTimerJob = scope.launch {
 			delay(updateDelay)
 
-			if (increaseIndex) _currentIndex++
+			if (increaseIndex && _backgrounds.isNotEmpty()) {
+				_currentIndex = (_currentIndex + 1) % _backgrounds.size
+				loadBackdrop(_backgrounds[_currentIndex])
+			}
 
 			update()
 		}
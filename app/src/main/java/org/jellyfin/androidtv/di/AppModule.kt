@@ -20,15 +20,19 @@ import org.jellyfin.androidtv.data.eventhandling.SocketHandler
 import org.jellyfin.androidtv.data.model.DataRefreshService
 import org.jellyfin.androidtv.data.repository.CustomMessageRepository
 import org.jellyfin.androidtv.data.repository.CustomMessageRepositoryImpl
+import org.jellyfin.androidtv.data.repository.ItemCacheRepository
+import org.jellyfin.androidtv.data.repository.ItemCacheRepositoryImpl
 import org.jellyfin.androidtv.data.repository.ItemMutationRepository
 import org.jellyfin.androidtv.data.repository.ItemMutationRepositoryImpl
 import org.jellyfin.androidtv.data.repository.NotificationsRepository
 import org.jellyfin.androidtv.data.repository.NotificationsRepositoryImpl
 import org.jellyfin.androidtv.data.repository.UserViewsRepository
 import org.jellyfin.androidtv.data.repository.UserViewsRepositoryImpl
+import org.jellyfin.androidtv.data.service.BackdropColorCache
 import org.jellyfin.androidtv.data.service.BackgroundService
 import org.jellyfin.androidtv.integration.dream.DreamViewModel
 import org.jellyfin.androidtv.preference.UserPreferences
+import org.jellyfin.androidtv.telemetry.PlaybackSessionRepository
 import org.jellyfin.androidtv.ui.ScreensaverViewModel
 import org.jellyfin.androidtv.ui.itemhandling.ItemLauncher
 import org.jellyfin.androidtv.ui.navigation.Destinations
@@ -39,7 +43,9 @@ import org.jellyfin.androidtv.ui.playback.PlaybackControllerContainer
 import org.jellyfin.androidtv.ui.playback.nextup.NextUpViewModel
 import org.jellyfin.androidtv.ui.playback.segment.MediaSegmentRepository
 import org.jellyfin.androidtv.ui.playback.segment.MediaSegmentRepositoryImpl
+import org.jellyfin.androidtv.ui.search.LocalSearchRepository
 import org.jellyfin.androidtv.ui.search.SearchFragmentDelegate
+import org.jellyfin.androidtv.ui.search.SearchIndex
 import org.jellyfin.androidtv.ui.search.SearchRepository
 import org.jellyfin.androidtv.ui.search.SearchRepositoryImpl
 import org.jellyfin.androidtv.ui.search.SearchViewModel
@@ -50,9 +56,12 @@ import org.jellyfin.androidtv.ui.home.carousel.CarouselViewModel
 import org.jellyfin.androidtv.util.KeyProcessor
 import org.jellyfin.androidtv.util.MarkdownRenderer
 import org.jellyfin.androidtv.util.PlaybackHelper
+import org.jellyfin.androidtv.util.apiclient.ReportOutbox
 import org.jellyfin.androidtv.util.apiclient.ReportingHelper
 import org.jellyfin.androidtv.util.coil.CoilTimberLogger
 import org.jellyfin.androidtv.util.coil.createCoilConnectivityChecker
+import org.jellyfin.androidtv.util.profile.DeviceProfileProvider
+import org.jellyfin.androidtv.util.sdk.ApiRequestCoalescer
 import org.jellyfin.androidtv.util.sdk.SdkPlaybackHelper
 import org.jellyfin.sdk.android.androidDevice
 import org.jellyfin.sdk.api.client.HttpClientOptions
@@ -104,7 +113,7 @@ val appModule = module {
 	}
 
 	single {
-		SocketHandler(get(), get(), get(), get(), get(), get(), get(), get(), get())
+		SocketHandler(get(), get(), get(), get(), get(), get(), get(), get(), get(), get(), get())
 	}
 
 	// Coil (images)
@@ -165,10 +174,14 @@ val appModule = module {
 	single<UserRepository> { UserRepositoryImpl() }
 	single<UserViewsRepository> { UserViewsRepositoryImpl(get()) }
 	single<NotificationsRepository> { NotificationsRepositoryImpl(get(), get()) }
-	single<ItemMutationRepository> { ItemMutationRepositoryImpl(get(), get()) }
+	single<ItemMutationRepository> { ItemMutationRepositoryImpl(get(), get(), get()) }
+	single<ItemCacheRepository> { ItemCacheRepositoryImpl(androidContext(), get(), get()) }
 	single<CustomMessageRepository> { CustomMessageRepositoryImpl() }
 	single<NavigationRepository> { NavigationRepositoryImpl(Destinations.home) }
-	single<SearchRepository> { SearchRepositoryImpl(get()) }
+	single { SearchIndex(androidContext(), get(), get()) }
+	single { DeviceProfileProvider(androidContext(), get()) }
+	single { ApiRequestCoalescer(get(), get()) }
+	single<SearchRepository> { LocalSearchRepository(get(), get(), SearchRepositoryImpl(get())) }
 	single<MediaSegmentRepository> { MediaSegmentRepositoryImpl(get(), get()) }
 	single { org.jellyfin.androidtv.ui.itemdetail.ThemeSongs(androidContext()) }
 
@@ -180,8 +193,10 @@ val appModule = module {
 	viewModel { ScreensaverViewModel(get()) }
 	viewModel { SearchViewModel(get()) }
 	viewModel { DreamViewModel(get(), get(), get(), get(), get()) }
-	viewModel { CarouselViewModel(get(), get(), get()) }
+	viewModel { CarouselViewModel(get(), get(), get(), get()) }
 
+	single { PlaybackSessionRepository(androidContext()) }
+	single { BackdropColorCache(androidContext()) }
 	single {
 		BackgroundService(
 			context = get(),
@@ -189,13 +204,15 @@ val appModule = module {
 			api = get(),
 			userPreferences = get(),
 			imageLoader = get(),
-			imageHelper = get()
+			imageHelper = get(),
+			colorCache = get(),
 		)
 	}
 
 	single { MarkdownRenderer(get()) }
 	single { ItemLauncher() }
 	single { KeyProcessor() }
+	single { ReportOutbox(androidContext(), get(), get()) }
 	single { ReportingHelper(get(), get()) }
 	single<PlaybackHelper> { SdkPlaybackHelper(get(), get(), get(), get()) }
 
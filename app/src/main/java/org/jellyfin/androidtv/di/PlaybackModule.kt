@@ -11,13 +11,15 @@ import androidx.media3.datasource.okhttp.OkHttpDataSource
 import okhttp3.OkHttpClient
 import org.jellyfin.androidtv.R
 import org.jellyfin.androidtv.preference.UserPreferences
+import org.jellyfin.androidtv.telemetry.PlaybackSessionRepository
 import org.jellyfin.androidtv.preference.UserSettingPreferences
 import org.jellyfin.androidtv.ui.browsing.MainActivity
 import org.jellyfin.androidtv.ui.playback.MediaManager
 import org.jellyfin.androidtv.ui.playback.PlaybackLauncher
 import org.jellyfin.androidtv.ui.playback.VideoQueueManager
 import org.jellyfin.androidtv.ui.playback.rewrite.RewriteMediaManager
-import org.jellyfin.androidtv.util.profile.createDeviceProfile
+import org.jellyfin.androidtv.util.DeviceMemoryUtils
+import org.jellyfin.androidtv.util.profile.DeviceProfileProvider
 import org.jellyfin.playback.core.playbackManager
 import org.jellyfin.playback.jellyfin.jellyfinPlugin
 import org.jellyfin.playback.media3.exoplayer.ExoPlayerOptions
@@ -76,6 +78,9 @@ fun Scope.createPlaybackManager() = playbackManager(androidContext()) {
 		preferFfmpeg = userPreferences[UserPreferences.preferExoPlayerFfmpeg],
 		enableDebugLogging = userPreferences[UserPreferences.debuggingEnabled],
 		baseDataSourceFactory = get<HttpDataSource.Factory>(),
+		bufferProfile = userPreferences[UserPreferences.bufferProfile].profile,
+		isLowMemoryDevice = DeviceMemoryUtils.isLowEndDevice(get()),
+		onPlaybackSessionFinished = get<PlaybackSessionRepository>()::add,
 	)
 	install(exoPlayerPlugin(get(), exoPlayerOptions))
 
@@ -87,7 +92,8 @@ fun Scope.createPlaybackManager() = playbackManager(androidContext()) {
 	)
 	install(media3SessionPlugin(get(), mediaSessionOptions))
 
-	val deviceProfileBuilder = { createDeviceProfile(userPreferences, false) }
+	val deviceProfileProvider = get<DeviceProfileProvider>()
+	val deviceProfileBuilder = { deviceProfileProvider.getProfile() }
 	install(jellyfinPlugin(get(), deviceProfileBuilder))
 
 	// Options
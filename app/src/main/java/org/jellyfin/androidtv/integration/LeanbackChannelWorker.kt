@@ -1,12 +1,15 @@
 package org.jellyfin.androidtv.integration
 
 import android.annotation.SuppressLint
+import android.content.ContentProviderOperation
 import android.content.ContentUris
 import android.content.ContentValues
 import android.content.Context
 import android.content.Intent
+import android.content.OperationApplicationException
 import android.net.Uri
 import android.os.Build
+import android.os.RemoteException
 import androidx.core.content.edit
 import androidx.core.content.res.ResourcesCompat
 import androidx.core.graphics.drawable.toBitmap
@@ -21,6 +24,7 @@ import androidx.work.CoroutineWorker
 import androidx.work.WorkerParameters
 import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.async
+import kotlinx.coroutines.coroutineScope
 import kotlinx.coroutines.withContext
 import org.jellyfin.androidtv.R
 import org.jellyfin.androidtv.data.repository.ItemRepository
@@ -50,10 +54,13 @@ import org.jellyfin.sdk.model.extensions.ticks
 import org.koin.core.component.KoinComponent
 import org.koin.core.component.inject
 import timber.log.Timber
+import java.nio.ByteBuffer
+import java.security.MessageDigest
 import java.time.Instant
 import java.time.ZoneId
 import java.time.format.DateTimeFormatter
 import kotlin.time.Duration
+import kotlin.time.TimeSource
 
 /**
  * Manages channels on the android tv home screen.
@@ -66,6 +73,9 @@ class LeanbackChannelWorker(
 ) : CoroutineWorker(context, workerParams), KoinComponent {
 	companion object {
 		const val PERIODIC_UPDATE_REQUEST_NAME = "LeanbackChannelPeriodicUpdateRequest"
+
+		// Largest side of the images shown on the launcher cards
+		private const val IMAGE_MAX_SIZE = 600
 	}
 
 	private val api by inject<ApiClient>()
@@ -98,16 +108,25 @@ class LeanbackChannelWorker(
 			Result.success()
 		}
 		else -> try {
-			// Get next up episodes
-			val (resumeItems, nextUpItems) = getNextUpItems()
-			// Get latest media
-			val (latestEpisodes, latestMovies, latestMedia) = getLatestMedia()
-			val myMedia = getMyMedia()
-			val movies = getMovies()
-			val movieCollections = getMovieCollections()
-			val shows = getShows()
-			// Delete current items from the channels
-			context.contentResolver.delete(TvContractCompat.PreviewPrograms.CONTENT_URI, null, null)
+			val start = TimeSource.Monotonic.markNow()
+
+			// Fetch all sources at the same time
+			val (nextUp, latest, library) = coroutineScope {
+				val nextUp = async { getNextUpItems() }
+				val latest = async { getLatestMedia() }
+				val library = async {
+					val myMedia = async { getMyMedia() }
+					val movies = async { getMovies() }
+					val movieCollections = async { getMovieCollections() }
+					val shows = async { getShows() }
+					listOf(myMedia.await(), movies.await(), movieCollections.await(), shows.await())
+				}
+				Triple(nextUp.await(), latest.await(), library.await())
+			}
+			val (resumeItems, nextUpItems) = nextUp
+			val (latestEpisodes, latestMovies, latestMedia) = latest
+			val (myMedia, movies, movieCollections, shows) = library
+			val fetched = start.elapsedNow()
 
 			// Get channel URIs
 			val latestMediaChannel = getChannelUri(
@@ -171,8 +190,8 @@ class LeanbackChannelWorker(
 			val preferLauncherThumb = userPreferences[UserPreferences.launcherThumbnailsEnabled]
 
 
-			// Add new items
-			arrayOf(
+			// Create the programs for each channel
+			val programs = arrayOf(
 				nextUpItems to nextUpChannel,
 				latestMedia to latestMediaChannel,
 				latestMovies to latestMoviesChannel,
@@ -181,27 +200,30 @@ class LeanbackChannelWorker(
 				movies to moviesChannel,
 				movieCollections to movieCollectionsChannel,
 				shows to showsChannel
-			).forEach { (items, channel) ->
+			).flatMap { (items, channel) ->
 				if (channel == null) {
 					Timber.e("Skipping channel because it was not available")
+					emptyList()
 				} else {
-					items.map { item ->
+					items.distinctBy { it.id }.mapIndexed { index, item ->
 						createPreviewProgram(
 							channel,
 							item,
 							preferParentThumb,
-							preferLauncherThumb
-						)
-					}.let {
-						context.contentResolver.bulkInsert(
-							TvContractCompat.PreviewPrograms.CONTENT_URI,
-							it.toTypedArray()
+							preferLauncherThumb,
+							// Keep the order of the items, a higher weight is shown first
+							weight = items.size - index,
 						)
 					}
 				}
 			}
+
+			// Only write the programs that changed
+			val result = syncPreviewPrograms(programs)
 			updateWatchNext(resumeItems + nextUpItems, preferLauncherThumb)
 
+			Timber.i("Synced launcher channels in ${start.elapsedNow()} (fetching took $fetched): $result")
+
 			// Success!
 			Result.success()
 		} catch (err: TimeoutException) {
@@ -302,7 +324,12 @@ class LeanbackChannelWorker(
 			}
 			else -> itemImages[ImageType.PRIMARY]
 		}
-		return ImageProvider.getImageUri(image?.getUrl(api) ?: imageHelper.getResourceUrl(context, R.drawable.tile_land_tv))
+		return ImageProvider.getImageUri(
+			src = image?.getUrl(api, maxWidth = IMAGE_MAX_SIZE, maxHeight = IMAGE_MAX_SIZE)
+				?: imageHelper.getResourceUrl(context, R.drawable.tile_land_tv),
+			maxWidth = IMAGE_MAX_SIZE,
+			maxHeight = IMAGE_MAX_SIZE,
+		)
 	}
 
 	/**
@@ -416,7 +443,8 @@ class LeanbackChannelWorker(
 		channelUri: Uri,
 		item: BaseItemDto,
 		preferParentThumb: Boolean,
-		preferLauncherThumb: Boolean
+		preferLauncherThumb: Boolean,
+		weight: Int,
 	): ContentValues {
 		val imageUri = item.getPosterArtImageUrl(preferParentThumb, preferLauncherThumb)
 		val seasonString = item.parentIndexNumber?.toString().orEmpty()
@@ -430,6 +458,8 @@ class LeanbackChannelWorker(
 
 		return PreviewProgram.Builder()
 			.setChannelId(ContentUris.parseId(channelUri))
+			.setInternalProviderId(item.id.toString())
+			.setWeight(weight)
 			.setType(
 				when (item.type) {
 					BaseItemKind.SERIES -> WatchNextPrograms.TYPE_TV_SERIES
@@ -491,7 +521,133 @@ class LeanbackChannelWorker(
 					setSeasonNumber(seasonString, item.parentIndexNumber!!)
 				if ((item.indexNumber ?: 0) > 0)
 					setEpisodeNumber(episodeString, item.indexNumber!!)
-			}.build().toContentValues()
+			}.build().toContentValues().apply {
+				// Store a hash of the program so the next sync can tell if it changed
+				put(TvContractCompat.PreviewPrograms.COLUMN_INTERNAL_PROVIDER_FLAG1, contentHash())
+			}
+	}
+
+	private fun ContentValues.contentHash(): Long {
+		val content = keySet().sorted().joinToString("\n") { key -> "$key=${get(key)}" }
+		val digest = MessageDigest.getInstance("SHA-1").digest(content.toByteArray())
+		return ByteBuffer.wrap(digest).long
+	}
+
+	private data class SyncResult(
+		val inserted: Int,
+		val updated: Int,
+		val deleted: Int,
+		val unchanged: Int,
+	)
+
+	private data class PublishedProgram(
+		val id: Long,
+		val channelId: Long,
+		val itemId: String?,
+		val contentHash: Long,
+	)
+
+	/**
+	 * Update the published preview programs to match [programs]. Programs are matched by channel and item id, only
+	 * new programs are inserted and only programs with a different content hash are updated. All writes are done in
+	 * a single batch.
+	 */
+	@SuppressLint("RestrictedApi")
+	private fun syncPreviewPrograms(programs: List<ContentValues>): SyncResult {
+		val published = getPublishedPrograms()
+			.groupBy { it.channelId to it.itemId }
+		val operations = ArrayList<ContentProviderOperation>()
+		val kept = mutableSetOf<Long>()
+		var inserted = 0
+		var updated = 0
+
+		for (program in programs) {
+			val key = program.getAsLong(TvContractCompat.PreviewPrograms.COLUMN_CHANNEL_ID) to
+				program.getAsString(TvContractCompat.PreviewPrograms.COLUMN_INTERNAL_PROVIDER_ID)
+			val existing = published[key]?.firstOrNull()
+
+			when {
+				existing == null -> {
+					operations.add(ContentProviderOperation.newInsert(TvContractCompat.PreviewPrograms.CONTENT_URI).withValues(program).build())
+					inserted++
+				}
+
+				existing.contentHash != program.getAsLong(TvContractCompat.PreviewPrograms.COLUMN_INTERNAL_PROVIDER_FLAG1) -> {
+					operations.add(ContentProviderOperation.newUpdate(TvContractCompat.buildPreviewProgramUri(existing.id)).withValues(program).build())
+					kept.add(existing.id)
+					updated++
+				}
+
+				else -> kept.add(existing.id)
+			}
+		}
+
+		// Remove programs that are no longer in their channel, including duplicates and programs of older versions
+		val deleted = published.values.flatten().filter { it.id !in kept }
+		for (program in deleted) {
+			operations.add(ContentProviderOperation.newDelete(TvContractCompat.buildPreviewProgramUri(program.id)).build())
+		}
+
+		if (operations.isNotEmpty()) applyOperations(operations)
+
+		return SyncResult(
+			inserted = inserted,
+			updated = updated,
+			deleted = deleted.size,
+			unchanged = kept.size - updated,
+		)
+	}
+
+	/**
+	 * Apply [operations] in a single batch. When the batch fails, for example because the launcher removed a program
+	 * in the meantime, the operations are applied one by one so a single failing program doesn't block the others.
+	 */
+	private fun applyOperations(operations: ArrayList<ContentProviderOperation>) {
+		try {
+			context.contentResolver.applyBatch(TvContractCompat.AUTHORITY, operations)
+		} catch (err: OperationApplicationException) {
+			Timber.w(err, "Unable to apply preview program batch, applying operations individually")
+			applyOperationsIndividually(operations)
+		} catch (err: RemoteException) {
+			Timber.w(err, "Unable to apply preview program batch, applying operations individually")
+			applyOperationsIndividually(operations)
+		}
+	}
+
+	private fun applyOperationsIndividually(operations: List<ContentProviderOperation>) {
+		for (operation in operations) {
+			try {
+				context.contentResolver.applyBatch(TvContractCompat.AUTHORITY, arrayListOf(operation))
+			} catch (err: OperationApplicationException) {
+				Timber.w(err, "Unable to apply preview program operation ${operation.uri}")
+			} catch (err: RemoteException) {
+				Timber.w(err, "Unable to apply preview program operation ${operation.uri}")
+			}
+		}
+	}
+
+	/**
+	 * Retrieves the preview programs currently published by the app.
+	 */
+	private fun getPublishedPrograms(): List<PublishedProgram> = buildList {
+		val projection = arrayOf(
+			TvContractCompat.PreviewPrograms._ID,
+			TvContractCompat.PreviewPrograms.COLUMN_CHANNEL_ID,
+			TvContractCompat.PreviewPrograms.COLUMN_INTERNAL_PROVIDER_ID,
+			TvContractCompat.PreviewPrograms.COLUMN_INTERNAL_PROVIDER_FLAG1,
+		)
+
+		context.contentResolver.query(TvContractCompat.PreviewPrograms.CONTENT_URI, projection, null, null, null)
+			?.use { cursor ->
+				while (cursor.moveToNext()) {
+					add(PublishedProgram(
+						id = cursor.getLong(0),
+						channelId = cursor.getLong(1),
+						itemId = if (cursor.isNull(2)) null else cursor.getString(2),
+						contentHash = if (cursor.isNull(3)) 0 else cursor.getLong(3),
+					))
+				}
+			}
 	}
 
 	/**
@@ -2,21 +2,27 @@ package org.jellyfin.androidtv.integration.dream
 
 import android.annotation.SuppressLint
 import android.content.Context
+import android.graphics.Bitmap
 import androidx.lifecycle.ViewModel
 import androidx.lifecycle.viewModelScope
 import coil3.ImageLoader
+import coil3.request.CachePolicy
 import coil3.request.ImageRequest
+import coil3.size.Precision
+import coil3.size.Scale
+import coil3.size.Size
 import coil3.toBitmap
 import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.ExperimentalCoroutinesApi
 import kotlinx.coroutines.async
-import kotlinx.coroutines.awaitAll
 import kotlinx.coroutines.delay
 import kotlinx.coroutines.flow.SharingStarted
+import kotlinx.coroutines.flow.buffer
 import kotlinx.coroutines.flow.combine
 import kotlinx.coroutines.flow.distinctUntilChanged
 import kotlinx.coroutines.flow.flow
 import kotlinx.coroutines.flow.map
+import kotlinx.coroutines.flow.mapNotNull
 import kotlinx.coroutines.flow.stateIn
 import kotlinx.coroutines.withContext
 import org.jellyfin.androidtv.integration.dream.model.DreamContent
@@ -31,9 +37,10 @@ import org.jellyfin.playback.jellyfin.queue.baseItem
 import org.jellyfin.sdk.api.client.ApiClient
 import org.jellyfin.sdk.api.client.exception.ApiClientException
 import org.jellyfin.sdk.api.client.extensions.itemsApi
+import org.jellyfin.sdk.model.api.BaseItemDto
+import org.jellyfin.sdk.model.api.BaseItemDtoQueryResult
 import org.jellyfin.sdk.model.api.BaseItemKind
 import org.jellyfin.sdk.model.api.ImageType
-import org.jellyfin.sdk.model.api.ItemSortBy
 import timber.log.Timber
 import kotlin.time.Duration.Companion.seconds
 
@@ -54,6 +61,8 @@ class DreamViewModel(
 		}
 		.stateIn(viewModelScope, SharingStarted.WhileSubscribed(), null)
 
+	private val budget by lazy { LibraryShowcaseBudget.create(context) }
+
 	private val _libraryContent = flow {
 		// Load first library item after 2 seconds
 		// to force the logo at the start of the screensaver
@@ -61,152 +70,124 @@ class DreamViewModel(
 		delay(2.seconds)
 
 		val isRandomSort = userPreferences[UserPreferences.screensaverSortBy] == ScreensaverSortBy.RANDOM
+		val displayDuration = if (isRandomSort) 20.seconds else 15.seconds
+		Timber.i("Showing library showcase with budget $budget")
 
-		if (isRandomSort) {
-			// For random sorting, fetch a new random item each time
-			while (true) {
-				val next = withContext(Dispatchers.IO) { getRandomLibraryShowcase() }
-				if (next != null) {
-					emit(next)
-					delay(20.seconds)
-				} else {
-					delay(3.seconds)
-				}
-			}
-		} else {
-			while (true) {
-				val items = withContext(Dispatchers.IO) { getLibraryShowcaseItems() }
-				if (items.isNotEmpty()) {
-					items.forEach { item ->
-						emit(item)
-						delay(15.seconds)
-					}
-				} else {
-					delay(3.seconds)
-				}
+		// Items that were shown, recycled once they are no longer visible
+		val shownItems = ArrayDeque<DreamContent.LibraryShowcase>()
+
+		getShowcaseItems(isRandomSort)
+			.mapNotNull { item -> loadLibraryShowcase(item, random = isRandomSort) }
+			// Load the next items while the current item is shown, a buffer of 0 still loads one item ahead
+			.buffer(budget.prefetchCount - 1)
+			.collect { showcase ->
+				emit(showcase)
+
+				// The previous item may still be fading out
+				shownItems.addLast(showcase)
+				while (shownItems.size > 2) shownItems.removeFirst().recycle()
+
+				delay(displayDuration)
 			}
-		}
 	}
 		.distinctUntilChanged()
 		.stateIn(viewModelScope, SharingStarted.WhileSubscribed(), null)
 
-	private suspend fun getLibraryShowcaseItems(): List<DreamContent.LibraryShowcase> {
-		val requireParentalRating = userPreferences[UserPreferences.screensaverAgeRatingRequired]
-		val maxParentalRating = userPreferences[UserPreferences.screensaverAgeRatingMax]
+	/**
+	 * Get the items to showcase, one page at a time. Loops back to the start when all items were shown.
+	 */
+	private fun getShowcaseItems(isRandomSort: Boolean) = flow {
+		var startIndex = 0
 
-		try {
-			val response by api.itemsApi.getItems(
-				includeItemTypes = listOf(BaseItemKind.MOVIE, BaseItemKind.SERIES),
-				recursive = true,
-				sortBy = listOf(userPreferences[UserPreferences.screensaverSortBy].itemSortBy),
-				limit = 50,
-				imageTypes = listOf(ImageType.BACKDROP),
-				maxOfficialRating = if (maxParentalRating == -1) null else maxParentalRating.toString(),
-				hasParentalRating = if (requireParentalRating) true else null,
-			)
-
-			val validItems = response.items.filter { it.itemBackdropImages.isNotEmpty() }
-			if (validItems.isEmpty()) return emptyList()
-
-			Timber.i("Loading ${validItems.size} library showcase items")
-
-			return validItems.mapNotNull { item ->
-				try {
-					val backdropUrl = item.itemBackdropImages.firstOrNull()?.getUrl(api)
-					val logoUrl = item.itemImages[ImageType.LOGO]?.getUrl(api)
-
-					val (logo, backdrop) = withContext(Dispatchers.IO) {
-						val logoDeferred = async {
-							logoUrl?.let { url ->
-								imageLoader.execute(
-									request = ImageRequest.Builder(context).data(url).build()
-								).image?.toBitmap()
-							}
-						}
-
-						val backdropDeferred = async {
-							backdropUrl?.let { url ->
-								imageLoader.execute(
-									request = ImageRequest.Builder(context).data(url).build()
-								).image?.toBitmap()
-							}
-						}
-
-						Pair(logoDeferred.await(), backdropDeferred.await())
-					}
-
-					if (backdrop != null) {
-						DreamContent.LibraryShowcase(item, backdrop, logo)
-					} else {
-						null
-					}
-				} catch (e: Exception) {
-					Timber.e(e, "Error loading library showcase item")
-					null
+		while (true) {
+			val page = withContext(Dispatchers.IO) { getShowcaseItemsPage(startIndex, if (isRandomSort) 5 else 10) }
+			val items = page?.items.orEmpty().filter { it.itemBackdropImages.isNotEmpty() }
+
+			when {
+				// Random items are different every time, only use the first one
+				isRandomSort && items.isNotEmpty() -> emit(items.first())
+
+				page != null && page.items.isNotEmpty() -> {
+					items.forEach { emit(it) }
+					startIndex += page.items.size
+					if (startIndex >= (page.totalRecordCount ?: 0)) startIndex = 0
 				}
+
+				// Start over after reaching the end of the library
+				startIndex > 0 -> startIndex = 0
+
+				else -> delay(3.seconds)
 			}
-		} catch (err: Exception) {
-			Timber.e(err, "Error fetching library showcase items")
-			return emptyList()
 		}
 	}
 
-	val content = combine(_mediaContent, _libraryContent) { mediaContent, libraryContent ->
-		mediaContent ?: libraryContent ?: DreamContent.Logo
-	}.stateIn(
-		scope = viewModelScope,
-		started = SharingStarted.WhileSubscribed(),
-		initialValue = _mediaContent.value ?: _libraryContent.value ?: DreamContent.Logo,
-	)
-
-	private suspend fun getRandomLibraryShowcase(): DreamContent.LibraryShowcase? {
+	private suspend fun getShowcaseItemsPage(startIndex: Int, limit: Int): BaseItemDtoQueryResult? {
 		val requireParentalRating = userPreferences[UserPreferences.screensaverAgeRatingRequired]
 		val maxParentalRating = userPreferences[UserPreferences.screensaverAgeRatingMax]
 
-		try {
-			val response by api.itemsApi.getItems(
+		return try {
+			api.itemsApi.getItems(
 				includeItemTypes = listOf(BaseItemKind.MOVIE, BaseItemKind.SERIES),
 				recursive = true,
 				sortBy = listOf(userPreferences[UserPreferences.screensaverSortBy].itemSortBy),
-				limit = 5,
+				startIndex = startIndex,
+				limit = limit,
 				imageTypes = listOf(ImageType.BACKDROP),
 				maxOfficialRating = if (maxParentalRating == -1) null else maxParentalRating.toString(),
 				hasParentalRating = if (requireParentalRating) true else null,
-			)
+			).content
+		} catch (err: ApiClientException) {
+			Timber.e(err, "Error fetching library showcase items")
+			null
+		}
+	}
 
-			val item = response.items.firstOrNull { item ->
-				item.itemBackdropImages.isNotEmpty()
-			} ?: return null
+	private suspend fun loadLibraryShowcase(item: BaseItemDto, random: Boolean): DreamContent.LibraryShowcase? {
+		val backdropImages = item.itemBackdropImages
+		val backdropUrl = (if (random) backdropImages.randomOrNull() else backdropImages.firstOrNull())?.getUrl(api)
+		val logoUrl = item.itemImages[ImageType.LOGO]?.getUrl(api)
 
-			Timber.i("Loading random library showcase item ${item.id}")
+		Timber.i("Loading library showcase item ${item.id}")
 
-			val backdropUrl = item.itemBackdropImages.randomOrNull()?.getUrl(api)
-			val logoUrl = item.itemImages[ImageType.LOGO]?.getUrl(api)
+		val (logo, backdrop) = withContext(Dispatchers.IO) {
+			val logoDeferred = async { logoUrl?.let { loadBitmap(it, budget.logoSize, Scale.FIT) } }
+			val backdropDeferred = async { backdropUrl?.let { loadBitmap(it, budget.backdropSize, Scale.FILL) } }
 
-			val (logo, backdrop) = withContext(Dispatchers.IO) {
-				val logoDeferred = async {
-					imageLoader.execute(
-						request = ImageRequest.Builder(context).data(logoUrl).build()
-					).image?.toBitmap()
-				}
+			logoDeferred.await() to backdropDeferred.await()
+		}
 
-				val backdropDeferred = async {
-					imageLoader.execute(
-						request = ImageRequest.Builder(context).data(backdropUrl).build()
-					).image?.toBitmap()
-				}
+		if (backdrop == null) {
+			logo?.recycle()
+			return null
+		}
 
-				awaitAll(logoDeferred, backdropDeferred)
-			}
+		return DreamContent.LibraryShowcase(item, backdrop, logo)
+	}
 
-			if (backdrop == null) {
-				return null
-			}
+	private suspend fun loadBitmap(url: String, size: Size, scale: Scale): Bitmap? {
+		val request = ImageRequest.Builder(context).apply {
+			data(url)
+			size(size)
+			scale(scale)
+			// Decode at the requested size so the images stay within the budget
+			precision(Precision.EXACT)
+			// The bitmaps are recycled when they are no longer shown, they must not be shared with the cache
+			memoryCachePolicy(CachePolicy.DISABLED)
+		}.build()
+
+		return imageLoader.execute(request).image?.toBitmap()
+	}
 
-			return DreamContent.LibraryShowcase(item, backdrop, logo)
-		} catch (err: ApiClientException) {
-			Timber.e(err)
-			return null
-		}
+	private fun DreamContent.LibraryShowcase.recycle() {
+		backdrop.recycle()
+		logo?.recycle()
 	}
+
+	val content = combine(_mediaContent, _libraryContent) { mediaContent, libraryContent ->
+		mediaContent ?: libraryContent ?: DreamContent.Logo
+	}.stateIn(
+		scope = viewModelScope,
+		started = SharingStarted.WhileSubscribed(),
+		initialValue = _mediaContent.value ?: _libraryContent.value ?: DreamContent.Logo,
+	)
 }
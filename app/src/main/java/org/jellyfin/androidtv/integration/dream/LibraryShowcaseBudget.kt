@@ -0,0 +1,72 @@
+package org.jellyfin.androidtv.integration.dream
+
+import android.content.Context
+import coil3.size.Size
+import org.jellyfin.androidtv.util.DeviceMemoryUtils
+import kotlin.math.roundToInt
+import kotlin.math.sqrt
+
+/**
+ * Memory limits for the library showcase images, based on the device memory. The images of all items that are loaded
+ * ahead, shown and fading out must fit in [memoryBudget].
+ */
+data class LibraryShowcaseBudget(
+	/**
+	 * The amount of bytes to use for all showcase images.
+	 */
+	val memoryBudget: Long,
+	/**
+	 * The amount of items to load ahead of the shown item.
+	 */
+	val prefetchCount: Int,
+	/**
+	 * The size to decode backdrops at.
+	 */
+	val backdropSize: Size,
+	/**
+	 * The size to decode logos at.
+	 */
+	val logoSize: Size,
+) {
+	companion object {
+		private const val LOW_MEMORY_BUDGET = 24L * 1024 * 1024
+		private const val MIN_MEMORY_BUDGET = 48L * 1024 * 1024
+		private const val MAX_MEMORY_BUDGET = 96L * 1024 * 1024
+		// Share of the device memory to use on devices that are not low-end
+		private const val MEMORY_BUDGET_DIVISOR = 64
+
+		// The shown item and the item fading out are kept in memory next to the prefetched items
+		private const val VISIBLE_ITEMS = 2
+		private const val BYTES_PER_PIXEL = 4
+		private const val LOGO_HEIGHT_DP = 75
+		private const val LOGO_MAX_ASPECT_RATIO = 4
+
+		fun create(context: Context): LibraryShowcaseBudget {
+			val (memoryBudget, prefetchCount) = when {
+				DeviceMemoryUtils.isLowEndDevice(context) -> LOW_MEMORY_BUDGET to 1
+				else -> {
+					val totalMemory = DeviceMemoryUtils.getTotalMemoryMB(context) * 1024 * 1024
+					(totalMemory / MEMORY_BUDGET_DIVISOR).coerceIn(MIN_MEMORY_BUDGET, MAX_MEMORY_BUDGET) to 2
+				}
+			}
+
+			val displayMetrics = context.resources.displayMetrics
+			val logoHeight = (LOGO_HEIGHT_DP * displayMetrics.density).roundToInt()
+			val logoWidth = logoHeight * LOGO_MAX_ASPECT_RATIO
+			val logoSize = Size(logoWidth, logoHeight)
+			val logoBytes = logoWidth.toLong() * logoHeight * BYTES_PER_PIXEL
+
+			// Decode backdrops at display resolution, or smaller when that doesn't fit in the budget
+			val itemBytes = memoryBudget / (prefetchCount + VISIBLE_ITEMS)
+			val maxBackdropPixels = (itemBytes - logoBytes) / BYTES_PER_PIXEL
+			val displayPixels = displayMetrics.widthPixels.toLong() * displayMetrics.heightPixels
+			val scale = if (displayPixels > maxBackdropPixels) sqrt(maxBackdropPixels.toDouble() / displayPixels) else 1.0
+			val backdropSize = Size(
+				(displayMetrics.widthPixels * scale).roundToInt(),
+				(displayMetrics.heightPixels * scale).roundToInt(),
+			)
+
+			return LibraryShowcaseBudget(memoryBudget, prefetchCount, backdropSize, logoSize)
+		}
+	}
+}
@@ -12,14 +12,35 @@ import androidx.core.net.toUri
 import coil3.ImageLoader
 import coil3.asDrawable
 import coil3.request.ImageRequest
+import coil3.request.SuccessResult
 import coil3.request.error
+import coil3.size.Precision
+import coil3.size.Scale
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.launch
 import org.jellyfin.androidtv.BuildConfig
 import org.jellyfin.androidtv.R
 import org.koin.android.ext.android.inject
+import timber.log.Timber
+import java.io.ByteArrayOutputStream
+import java.io.File
 import java.io.IOException
+import java.security.MessageDigest
+import kotlin.math.min
+import kotlin.math.roundToInt
 
+/**
+ * Serves images to the launcher and system search. Images are downscaled to the requested size and stored encoded on
+ * disk, keyed by their source and size, so a repeated request is served directly from the stored file.
+ */
 class ImageProvider : ContentProvider() {
 	private val imageLoader by inject<ImageLoader>()
+	private val scope = CoroutineScope(SupervisorJob() + Dispatchers.IO)
+
+	private val cacheDirectory by lazy { context!!.cacheDir.resolve("launcher_images") }
 
 	override fun onCreate(): Boolean = true
 
@@ -30,53 +51,139 @@ class ImageProvider : ContentProvider() {
 	override fun delete(uri: Uri, selection: String?, selectionArgs: Array<out String>?) = 0
 
 	override fun openFile(uri: Uri, mode: String): ParcelFileDescriptor? {
-		val src = requireNotNull(uri.getQueryParameter("src")).toUri()
+		val src = requireNotNull(uri.getQueryParameter("src"))
+		val maxWidth = uri.getQueryParameter("w")?.toIntOrNull() ?: DEFAULT_MAX_SIZE
+		val maxHeight = uri.getQueryParameter("h")?.toIntOrNull() ?: DEFAULT_MAX_SIZE
+
+		val cacheFile = getCacheFile(src, maxWidth, maxHeight)
+		if (cacheFile.exists()) {
+			// Used to evict the least recently used images first
+			cacheFile.setLastModified(System.currentTimeMillis())
+			return ParcelFileDescriptor.open(cacheFile, ParcelFileDescriptor.MODE_READ_ONLY)
+		}
 
 		val (read, write) = ParcelFileDescriptor.createPipe()
-		val outputStream = ParcelFileDescriptor.AutoCloseOutputStream(write)
 
-		imageLoader.enqueue(ImageRequest.Builder(context!!).apply {
-			data(src)
-			error(R.drawable.placeholder_icon)
-			target(
-				onSuccess = { image -> writeDrawable(image.asDrawable(context!!.resources), outputStream) },
-				onError = { image -> writeDrawable(requireNotNull(image?.asDrawable(context!!.resources)), outputStream) }
-			)
-		}.build())
+		scope.launch {
+			try {
+				val result = imageLoader.execute(ImageRequest.Builder(context!!).apply {
+					data(src.toUri())
+					error(R.drawable.placeholder_icon)
+					size(maxWidth, maxHeight)
+					scale(Scale.FIT)
+					precision(Precision.INEXACT)
+				}.build())
+
+				val drawable = result.image?.asDrawable(context!!.resources) ?: return@launch
+				val data = encodeDrawable(drawable, maxWidth, maxHeight)
+
+				try {
+					ParcelFileDescriptor.AutoCloseOutputStream(write).use { it.write(data) }
+				} catch (_: IOException) {
+					// Ignore IOException as this is commonly thrown when the load request is cancelled
+				}
+
+				// Don't store the placeholder so the image is loaded again on the next request
+				if (result is SuccessResult) writeCacheFile(cacheFile, data)
+			} catch (err: CancellationException) {
+				throw err
+			} catch (err: Exception) {
+				Timber.w(err, "Unable to provide launcher image")
+				// Let the reader know the image failed instead of receiving an empty file
+				try {
+					write.closeWithError(err.message)
+				} catch (_: IOException) {
+					// The reader already closed the pipe
+				}
+			} finally {
+				write.close()
+			}
+		}
 
 		return read
 	}
 
-	private fun writeDrawable(
+	private fun encodeDrawable(
 		drawable: Drawable,
-		outputStream: ParcelFileDescriptor.AutoCloseOutputStream
-	) {
+		maxWidth: Int,
+		maxHeight: Int,
+	): ByteArray {
 		@Suppress("DEPRECATION")
 		val format = when {
 			Build.VERSION.SDK_INT >= Build.VERSION_CODES.R -> Bitmap.CompressFormat.WEBP_LOSSY
 			else -> Bitmap.CompressFormat.WEBP
 		}
 
+		// Only scale down, the decoder may return a larger image than requested
+		val width = drawable.intrinsicWidth.coerceAtLeast(1)
+		val height = drawable.intrinsicHeight.coerceAtLeast(1)
+		val scale = min(1f, min(maxWidth.toFloat() / width, maxHeight.toFloat() / height))
+		val bitmap = drawable.toBitmap(
+			width = (width * scale).roundToInt().coerceAtLeast(1),
+			height = (height * scale).roundToInt().coerceAtLeast(1),
+		)
+
+		return ByteArrayOutputStream().use { outputStream ->
+			bitmap.compress(format, COMPRESSION_QUALITY, outputStream)
+			outputStream.toByteArray()
+		}
+	}
+
+	private fun getCacheFile(src: String, maxWidth: Int, maxHeight: Int): File {
+		// Jellyfin image URLs contain the image tag so the key changes when the image does
+		val key = "$src/${maxWidth}x$maxHeight"
+		val hash = MessageDigest.getInstance("SHA-1")
+			.digest(key.toByteArray())
+			.joinToString("") { "%02x".format(it) }
+
+		return cacheDirectory.resolve("$hash.webp")
+	}
+
+	private fun writeCacheFile(file: File, data: ByteArray) = synchronized(this) {
 		try {
-			outputStream.use {
-				drawable.toBitmap().compress(format, COMPRESSION_QUALITY, outputStream)
-			}
-		} catch (_: IOException) {
-			// Ignore IOException as this is commonly thrown when the load request is cancelled
+			cacheDirectory.mkdirs()
+
+			// Write to a temporary file first so a partially written file is never served
+			val tempFile = File.createTempFile(file.nameWithoutExtension, ".tmp", cacheDirectory)
+			tempFile.writeBytes(data)
+			if (!tempFile.renameTo(file)) tempFile.delete()
+
+			trimCache()
+		} catch (err: IOException) {
+			Timber.w(err, "Unable to store launcher image")
+		}
+	}
+
+	private fun trimCache() {
+		val files = cacheDirectory.listFiles()?.sortedByDescending { it.lastModified() } ?: return
+
+		var size = 0L
+		for ((index, file) in files.withIndex()) {
+			size += file.length()
+			if (size > MAX_CACHE_SIZE || index >= MAX_CACHE_FILES) file.delete()
 		}
 	}
 
 	companion object {
 		private const val COMPRESSION_QUALITY = 95
+		private const val DEFAULT_MAX_SIZE = 600
+		private const val MAX_CACHE_SIZE = 32L * 1024 * 1024
+		private const val MAX_CACHE_FILES = 1000
 
 		/**
 		 * Get a [Uri] that uses the [ImageProvider] to load an image. The input should be a valid
-		 * Jellyfin image URL created using the SDK.
+		 * Jellyfin image URL created using the SDK. The image is scaled down to fit in [maxWidth] by [maxHeight].
 		 */
-		fun getImageUri(src: String): Uri = Uri.Builder()
+		fun getImageUri(
+			src: String,
+			maxWidth: Int = DEFAULT_MAX_SIZE,
+			maxHeight: Int = DEFAULT_MAX_SIZE,
+		): Uri = Uri.Builder()
 			.scheme("content")
 			.authority("${BuildConfig.APPLICATION_ID}.integration.provider.ImageProvider")
 			.appendQueryParameter("src", src)
+			.appendQueryParameter("w", maxWidth.toString())
+			.appendQueryParameter("h", maxHeight.toString())
 			.appendQueryParameter("v", BuildConfig.VERSION_NAME)
 			.build()
 	}
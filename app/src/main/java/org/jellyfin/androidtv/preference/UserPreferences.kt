@@ -8,6 +8,7 @@ import org.jellyfin.androidtv.preference.constant.AppLanguage
 import org.jellyfin.androidtv.preference.constant.AppTheme
 import org.jellyfin.androidtv.preference.constant.AudioBehavior
 import org.jellyfin.androidtv.preference.constant.AudioLanguage
+import org.jellyfin.androidtv.preference.constant.BufferProfileSelection
 import org.jellyfin.androidtv.preference.constant.CarouselSortBy
 import org.jellyfin.androidtv.preference.constant.GenreSortBy
 import org.jellyfin.androidtv.preference.constant.ClockBehavior
@@ -179,6 +180,11 @@ class UserPreferences(context: Context) : SharedPreferenceStore(
 		 */
 		var pgsDirectPlay = booleanPreference("pgs_enabled", true)
 
+		/**
+		 * Buffer profile used by the video player.
+		 */
+		var bufferProfile = enumPreference("pref_buffer_profile", BufferProfileSelection.AUTO)
+
 		/* Live TV */
 		/**
 		 * Use direct play
@@ -0,0 +1,35 @@
+package org.jellyfin.androidtv.preference.constant
+
+import org.jellyfin.androidtv.R
+import org.jellyfin.playback.media3.exoplayer.buffer.BufferProfile
+import org.jellyfin.preference.PreferenceEnum
+
+enum class BufferProfileSelection(
+	override val nameRes: Int,
+	val profile: BufferProfile?,
+) : PreferenceEnum {
+	/**
+	 * Select the profile based on the device memory, network throughput and stream bitrate
+	 */
+	AUTO(R.string.pref_buffer_profile_auto, null),
+
+	/**
+	 * Short buffer for devices with little memory
+	 */
+	LOW_MEMORY(R.string.pref_buffer_profile_low_memory, BufferProfile.LOW_MEMORY),
+
+	/**
+	 * The default buffer of ExoPlayer
+	 */
+	DEFAULT(R.string.pref_buffer_profile_default, BufferProfile.DEFAULT),
+
+	/**
+	 * Quick start for high bitrate streams on a fast local network
+	 */
+	HIGH_BITRATE_LAN(R.string.pref_buffer_profile_lan, BufferProfile.HIGH_BITRATE_LAN),
+
+	/**
+	 * Large buffer for slow or unstable remote connections
+	 */
+	HIGH_LATENCY_WAN(R.string.pref_buffer_profile_wan, BufferProfile.HIGH_LATENCY_WAN),
+}
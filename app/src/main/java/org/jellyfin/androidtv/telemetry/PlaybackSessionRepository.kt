@@ -0,0 +1,177 @@
+package org.jellyfin.androidtv.telemetry
+
+import android.content.Context
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.asStateFlow
+import kotlinx.coroutines.flow.update
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.withContext
+import kotlinx.serialization.Serializable
+import kotlinx.serialization.SerializationException
+import kotlinx.serialization.json.Json
+import org.jellyfin.playback.media3.exoplayer.buffer.BufferProfile
+import org.jellyfin.playback.media3.exoplayer.telemetry.PlaybackSessionRecord
+import timber.log.Timber
+import java.io.File
+import java.io.IOException
+import java.time.Instant
+import kotlin.time.Duration.Companion.milliseconds
+
+/**
+ * Keeps the quality of experience records of the most recent playback sessions on disk so they can be inspected and
+ * exported from the developer preferences.
+ */
+class PlaybackSessionRepository(
+	private val context: Context,
+) {
+	companion object {
+		private const val STORE_VERSION = 1
+		private const val MAX_SESSIONS = 50
+	}
+
+	@Serializable
+	private data class Store(
+		val version: Int,
+		val sessions: List<StoredSession>,
+	)
+
+	@Serializable
+	private data class StoredSession(
+		val startTime: Long,
+		val title: String? = null,
+		val playMethod: String,
+		val timeToFirstFrameMs: Long? = null,
+		val playTimeMs: Long,
+		val rebufferCount: Int,
+		val rebufferTimeMs: Long,
+		val rebufferRatio: Double,
+		val bitrateSwitches: Int,
+		val droppedFrames: Int,
+		val videoDecoder: String? = null,
+		val decoderFallbacks: Int,
+		val error: String? = null,
+		val bufferProfile: String? = null,
+	)
+
+	private val json = Json {
+		ignoreUnknownKeys = true
+	}
+
+	private val storePath
+		get() = context.filesDir.resolve("playback_sessions.json")
+
+	private val scope = CoroutineScope(SupervisorJob() + Dispatchers.IO)
+
+	private val _sessions = MutableStateFlow<List<PlaybackSessionRecord>>(emptyList())
+	val sessions: StateFlow<List<PlaybackSessionRecord>> get() = _sessions.asStateFlow()
+
+	private val readJob = scope.launch {
+		val stored = read().map { it.toRecord() }
+		// Keep sessions that finished while reading
+		_sessions.update { sessions -> (sessions + stored).take(MAX_SESSIONS) }
+	}
+
+	/**
+	 * Add a finished session, the oldest session is removed when the buffer is full.
+	 */
+	fun add(record: PlaybackSessionRecord) {
+		_sessions.update { sessions -> (listOf(record) + sessions).take(MAX_SESSIONS) }
+		scope.launch {
+			readJob.join()
+			write()
+		}
+	}
+
+	fun clear() {
+		_sessions.value = emptyList()
+		scope.launch {
+			readJob.join()
+			write()
+		}
+	}
+
+	/**
+	 * Write all sessions to a file in the external app storage so it can be retrieved without root access.
+	 * @return the written file or null when writing failed.
+	 */
+	suspend fun export(): File? = withContext(Dispatchers.IO) {
+		val exportDir = context.getExternalFilesDir(null) ?: return@withContext null
+		val file = exportDir.resolve("playback_sessions_${System.currentTimeMillis()}.json")
+		val store = Store(STORE_VERSION, _sessions.value.map { it.toStored() })
+
+		try {
+			file.writeText(Json { prettyPrint = true }.encodeToString(Store.serializer(), store))
+			file
+		} catch (err: IOException) {
+			Timber.w(err, "Unable to export playback sessions")
+			null
+		}
+	}
+
+	private fun read(): List<StoredSession> {
+		if (!storePath.exists()) return emptyList()
+
+		return try {
+			val store = json.decodeFromString<Store>(storePath.readText())
+			if (store.version == STORE_VERSION) store.sessions
+			else emptyList()
+		} catch (err: IOException) {
+			Timber.w(err, "Unable to read playback sessions")
+			emptyList()
+		} catch (err: SerializationException) {
+			Timber.w(err, "Unable to read playback sessions")
+			emptyList()
+		} catch (err: IllegalArgumentException) {
+			Timber.w(err, "Unable to read playback sessions")
+			emptyList()
+		}
+	}
+
+	@Synchronized
+	private fun write() {
+		val store = Store(STORE_VERSION, _sessions.value.map { it.toStored() })
+
+		try {
+			storePath.writeText(json.encodeToString(Store.serializer(), store))
+		} catch (err: IOException) {
+			Timber.w(err, "Unable to write playback sessions")
+		}
+	}
+
+	private fun PlaybackSessionRecord.toStored() = StoredSession(
+		startTime = startTime.toEpochMilli(),
+		title = title,
+		playMethod = playMethod,
+		timeToFirstFrameMs = timeToFirstFrame?.inWholeMilliseconds,
+		playTimeMs = playTime.inWholeMilliseconds,
+		rebufferCount = rebufferCount,
+		rebufferTimeMs = rebufferTime.inWholeMilliseconds,
+		rebufferRatio = rebufferRatio,
+		bitrateSwitches = bitrateSwitches,
+		droppedFrames = droppedFrames,
+		videoDecoder = videoDecoder,
+		decoderFallbacks = decoderFallbacks,
+		error = error,
+		bufferProfile = bufferProfile?.name,
+	)
+
+	private fun StoredSession.toRecord() = PlaybackSessionRecord(
+		startTime = Instant.ofEpochMilli(startTime),
+		title = title,
+		playMethod = playMethod,
+		timeToFirstFrame = timeToFirstFrameMs?.milliseconds,
+		playTime = playTimeMs.milliseconds,
+		rebufferCount = rebufferCount,
+		rebufferTime = rebufferTimeMs.milliseconds,
+		bitrateSwitches = bitrateSwitches,
+		droppedFrames = droppedFrames,
+		videoDecoder = videoDecoder,
+		decoderFallbacks = decoderFallbacks,
+		error = error,
+		bufferProfile = BufferProfile.entries.find { it.name == bufferProfile },
+	)
+}
@@ -28,12 +28,17 @@ public class GuideChannelHeader extends RelativeLayout {
 
     public GuideChannelHeader(Context context, LiveTvGuide tvGuide, BaseItemDto channel) {
         super(context);
-        initComponent(context, tvGuide, channel);
+        initComponent(context, tvGuide);
+        bind(channel);
     }
 
-    private void initComponent(Context context, LiveTvGuide tvGuide, BaseItemDto channel) {
+    public GuideChannelHeader(Context context, LiveTvGuide tvGuide) {
+        super(context);
+        initComponent(context, tvGuide);
+    }
+
+    private void initComponent(Context context, LiveTvGuide tvGuide) {
         mContext = context;
-        mChannel = channel;
         mTvGuide = tvGuide;
         LayoutInflater inflater = LayoutInflater.from(context);
         View v = inflater.inflate(R.layout.channel_header, this, false);
@@ -44,13 +49,18 @@ public class GuideChannelHeader extends RelativeLayout {
         ));
         this.addView(v);
         this.setFocusable(true);
-        ((TextView) findViewById(R.id.channelName)).setText(channel.getName());
-        ((TextView) findViewById(R.id.channelNumber)).setText(channel.getNumber());
         mChannelImage = findViewById(R.id.channelImage);
         mFavImage = findViewById(R.id.favImage);
+    }
 
-        if (mChannel.getUserData() != null && mChannel.getUserData().isFavorite())
-            mFavImage.setVisibility(View.VISIBLE);
+    /**
+     * Bind a channel to this header, the header may be reused for another channel later.
+     */
+    public void bind(BaseItemDto channel) {
+        mChannel = channel;
+        ((TextView) findViewById(R.id.channelName)).setText(channel.getName());
+        ((TextView) findViewById(R.id.channelNumber)).setText(channel.getNumber());
+        refreshFavorite();
     }
 
     public void loadImage() {
@@ -37,10 +37,16 @@ public class ProgramGridCell extends RelativeLayout implements RecordingIndicato
 
     public ProgramGridCell(Context context, LiveTvGuide activity, BaseItemDto program, boolean keyListen) {
         super(context);
-        initComponent((Activity) context, activity, program, keyListen);
+        initComponent((Activity) context, activity, keyListen);
+        setProgram(program);
     }
 
-    private void initComponent(Activity context, LiveTvGuide activity, BaseItemDto program, boolean keyListen) {
+    public ProgramGridCell(Context context, LiveTvGuide activity) {
+        super(context);
+        initComponent((Activity) context, activity, false);
+    }
+
+    private void initComponent(Activity context, LiveTvGuide activity, boolean keyListen) {
         mActivity = activity;
 
         LayoutInflater inflater = LayoutInflater.from(context);
@@ -51,15 +57,37 @@ public class ProgramGridCell extends RelativeLayout implements RecordingIndicato
 
         mProgramName = findViewById(R.id.programName);
         mInfoRow = findViewById(R.id.infoRow);
-        mProgramName.setText(program.getName());
-        mProgram = program;
         mRecIndicator = findViewById(R.id.recIndicator);
 
+        if (keyListen) {
+            setOnClickListener(new OnClickListener() {
+                @Override
+                public void onClick(View v) {
+                    mActivity.showProgramOptions();
+                }
+            });
+        }
+    }
+
+    /**
+     * Bind a program to this cell, the cell may be reused for another program later.
+     */
+    public void setProgram(BaseItemDto program) {
+        Context context = getContext();
+        mProgram = program;
+        isFirst = false;
+        isLast = false;
+        mProgramName.setText(program.getName());
+        mInfoRow.removeAllViews();
+        mRecIndicator.setImageDrawable(null);
+
+        mBackgroundColor = 0;
+        setBackground(null);
         setCellBackground();
 
         if (program.getStartDate() != null && program.getEndDate() != null) {
             LocalDateTime localStart = program.getStartDate();
-            if (localStart.plusMinutes(1).isBefore(activity.getCurrentLocalStartDate())) {
+            if (localStart.plusMinutes(1).isBefore(mActivity.getCurrentLocalStartDate())) {
                 mProgramName.setText("<< "+mProgramName.getText());
                 TextView time = new TextView(context);
                 time.setTypeface(Typeface.create("sans-serif-light", Typeface.NORMAL));
@@ -96,17 +124,6 @@ public class ProgramGridCell extends RelativeLayout implements RecordingIndicato
         } else if (program.getTimerId() != null) {
             mRecIndicator.setImageResource(R.drawable.ic_record_red);
         }
-
-
-        if (keyListen) {
-            setOnClickListener(new OnClickListener() {
-                @Override
-                public void onClick(View v) {
-                    mActivity.showProgramOptions();
-                }
-            });
-        }
-
     }
 
     private void addBlockText(String text, float size, int textColor, int backgroundRes) {
@@ -39,13 +39,9 @@ import androidx.compose.ui.layout.ContentScale
 import androidx.compose.ui.platform.LocalContext
 import androidx.compose.ui.unit.dp
 import androidx.core.graphics.createBitmap
-import androidx.core.graphics.scale
-import androidx.palette.graphics.Palette
-import kotlinx.coroutines.Dispatchers
-import kotlinx.coroutines.delay
-import kotlinx.coroutines.withContext
 import org.jellyfin.androidtv.R
 import org.jellyfin.androidtv.data.service.BackgroundService
+import org.jellyfin.androidtv.data.service.ExtractedColors
 import org.jellyfin.androidtv.ui.composable.modifier.getBackdropFadingColor
 import org.koin.compose.koinInject
 import timber.log.Timber
@@ -102,63 +98,6 @@ private fun loadThemeBackground(context: Context): BackgroundResult {
 	}
 }
 
-private suspend fun extractColorsFromBitmap(imageBitmap: ImageBitmap): ExtractedColors {
-	return withContext(Dispatchers.Default) {
-		try {
-			val androidBitmap = createBitmap(imageBitmap.width, imageBitmap.height)
-			val buffer = IntArray(imageBitmap.width * imageBitmap.height)
-			imageBitmap.readPixels(buffer)
-			androidBitmap.setPixels(buffer, 0, imageBitmap.width, 0, 0, imageBitmap.width, imageBitmap.height)
-
-			val scaledBitmap = if (androidBitmap.width > 200 || androidBitmap.height > 200)
-				androidBitmap.scale(200, 200, false).also { androidBitmap.recycle() }
-			else androidBitmap
-
-			val palette = Palette.from(scaledBitmap).generate()
-			scaledBitmap.recycle()
-
-			val vibrant = palette.vibrantSwatch
-			val darkVibrant = palette.darkVibrantSwatch
-			val lightVibrant = palette.lightVibrantSwatch
-			val muted = palette.mutedSwatch
-			val darkMuted = palette.darkMutedSwatch
-
-			fun Palette.Swatch?.isCoolColor(): Boolean {
-				if (this == null) return false
-				val r = (rgb shr 16) and 0xFF
-				val g = (rgb shr 8) and 0xFF
-				val b = rgb and 0xFF
-				return b > r && (b + g) > (r * 1.5f)
-			}
-
-			fun toColor(swatch: Palette.Swatch?, alpha: Float): Color {
-				return swatch?.rgb?.let { Color(it).copy(alpha = alpha) } ?: Color.Transparent
-			}
-
-			val primaryColor = toColor(darkVibrant ?: darkMuted, 0.4f)
-			val secondaryColor = when {
-				vibrant != null && vibrant.isCoolColor() -> toColor(vibrant, 0.4f)
-				muted != null && muted.isCoolColor() -> toColor(muted, 0.4f)
-				vibrant != null -> toColor(vibrant, 0.4f)
-				muted != null -> toColor(muted, 0.4f)
-				else -> Color.Transparent
-			}
-			val tertiaryColor = toColor(vibrant ?: lightVibrant, 0.35f)
-
-			ExtractedColors(primaryColor, secondaryColor, tertiaryColor)
-		} catch (e: Exception) {
-			Timber.e(e, "Error extracting palette colors")
-			ExtractedColors(Color.Transparent, Color.Transparent, Color.Transparent)
-		}
-	}
-}
-
-data class ExtractedColors(
-	val primary: Color,
-	val secondary: Color,
-	val tertiary: Color
-)
-
 @Composable
 fun AppBackground() {
 	val backgroundService: BackgroundService = koinInject()
@@ -170,6 +109,7 @@ fun AppBackground() {
 	}
 
 	val currentBackground by backgroundService.currentBackground.collectAsState()
+	val currentColors by backgroundService.currentColors.collectAsState()
 	val enabled by backgroundService.enabled.collectAsState()
 	val backdropFadingIntensity by backgroundService.backdropFadingIntensity.collectAsState()
 	val backdropDynamicColors by backgroundService.backdropDynamicColors.collectAsState()
@@ -204,27 +144,16 @@ fun AppBackground() {
 		label = "tertiary_color"
 	)
 
-	LaunchedEffect(currentBackground, backdropDynamicColors) {
+	LaunchedEffect(currentBackground, currentColors, backdropDynamicColors) {
 		if (currentBackground != null && backdropDynamicColors) {
-			delay(600)
-			val background = currentBackground
-			if (background != null) {
-				try {
-					val extracted = extractColorsFromBitmap(background)
-					primaryColor = extracted.primary
-					secondaryColor = extracted.secondary
-					tertiaryColor = extracted.tertiary
-					showImage = true
-				} catch (e: Exception) {
-					Timber.e(e, "Error extracting colors")
-					primaryColor = null
-					secondaryColor = null
-					tertiaryColor = null
-					showImage = false
-				}
-			} else {
-				showImage = false
-			}
+			// Colors are extracted by the background service when the backdrop is loaded
+			val extracted = currentColors ?: ExtractedColors.None
+			primaryColor = extracted.primary
+			secondaryColor = extracted.secondary
+			tertiaryColor = extracted.tertiary
+			showImage = true
+		} else if (backdropDynamicColors) {
+			showImage = false
 		} else {
 			if (!backdropDynamicColors) {
 				primaryColor = null
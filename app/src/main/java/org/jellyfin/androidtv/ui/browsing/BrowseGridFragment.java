@@ -51,6 +51,7 @@ import org.jellyfin.androidtv.databinding.HorizontalGridBrowseBinding;
 import org.jellyfin.androidtv.databinding.PopupEmptyBinding;
 import org.jellyfin.androidtv.preference.LibraryPreferences;
 import org.jellyfin.androidtv.preference.PreferencesRepository;
+import org.jellyfin.androidtv.preference.UserPreferences;
 import org.jellyfin.androidtv.ui.AlphaPickerView;
 import org.jellyfin.androidtv.ui.VerticalAlphaPickerView;
 import org.jellyfin.androidtv.ui.itemhandling.BaseRowItem;
@@ -61,6 +62,7 @@ import org.jellyfin.androidtv.ui.navigation.ActivityDestinations;
 import org.jellyfin.androidtv.ui.navigation.NavigationRepository;
 import org.jellyfin.androidtv.ui.presentation.CardPresenter;
 import org.jellyfin.androidtv.ui.presentation.HorizontalGridPresenter;
+import org.jellyfin.androidtv.ui.presentation.ScrollFrameMonitor;
 import org.jellyfin.androidtv.util.CoroutineUtils;
 import org.jellyfin.androidtv.util.ImageHelper;
 import org.jellyfin.androidtv.util.KeyProcessor;
@@ -179,6 +181,7 @@ public class BrowseGridFragment extends Fragment implements View.OnKeyListener {
     private final Lazy<ItemLauncher> itemLauncher = inject(ItemLauncher.class);
     private final Lazy<KeyProcessor> keyProcessor = inject(KeyProcessor.class);
     private final Lazy<ApiClient> api = inject(ApiClient.class);
+    private final Lazy<UserPreferences> userPreferences = inject(UserPreferences.class);
 
     private int mCardsScreenEst = 0;
     private int mCardsScreenStride = 0;
@@ -378,6 +381,10 @@ public class BrowseGridFragment extends Fragment implements View.OnKeyListener {
                 }
             }
         });
+
+        if (userPreferences.getValue().get(UserPreferences.Companion.getDebuggingEnabled())) {
+            mGridView.addOnScrollListener(new ScrollFrameMonitor("browse grid"));
+        }
     }
 
     private void updateAdapter() {
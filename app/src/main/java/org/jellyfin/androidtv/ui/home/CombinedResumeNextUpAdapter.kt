@@ -8,12 +8,14 @@ import kotlinx.coroutines.async
 import kotlinx.coroutines.launch
 import kotlinx.coroutines.withContext
 import org.jellyfin.androidtv.auth.repository.UserRepository
+import org.jellyfin.androidtv.data.model.DataRefreshService
 import org.jellyfin.androidtv.data.repository.ItemRepository
 import org.jellyfin.androidtv.preference.UserPreferences
 import org.jellyfin.androidtv.ui.itemhandling.BaseItemDtoBaseRowItem
 import org.jellyfin.androidtv.ui.itemhandling.ItemRowAdapter
 import org.jellyfin.androidtv.ui.presentation.CardPresenter
 import org.jellyfin.androidtv.ui.presentation.MutableObjectAdapter
+import org.jellyfin.androidtv.util.sdk.ApiRequestCoalescer
 import org.jellyfin.sdk.api.client.ApiClient
 import org.jellyfin.sdk.api.client.extensions.itemsApi
 import org.jellyfin.sdk.api.client.extensions.tvShowsApi
@@ -22,6 +24,7 @@ import org.jellyfin.sdk.model.api.MediaType
 import org.jellyfin.sdk.model.api.request.GetNextUpRequest
 import org.jellyfin.sdk.model.api.request.GetResumeItemsRequest
 import timber.log.Timber
+import java.time.Instant
 
 /**
  * Custom adapter that combines resume and next up items into a single row.
@@ -32,10 +35,13 @@ class CombinedResumeNextUpAdapter(
     private val userPreferences: UserPreferences,
     cardPresenter: CardPresenter,
     rowsAdapter: MutableObjectAdapter<Row>,
-    private val apiClient: ApiClient
+    private val apiClient: ApiClient,
+    private val requestCoalescer: ApiRequestCoalescer,
+    private val dataRefreshService: DataRefreshService,
 ) : ItemRowAdapter(null, null, 0, userPreferences[UserPreferences.seriesThumbnailsEnabled], cardPresenter, rowsAdapter) {
 
     private var row: ListRow? = null
+    private var lastLoad: Instant? = null
 
     companion object {
         private const val RESUME_LIMIT = 25
@@ -52,11 +58,17 @@ class CombinedResumeNextUpAdapter(
     }
 
     override fun ReRetrieveIfNeeded(): Boolean {
+        // Only playback changes which items are resumable or up next
+        val lastLoad = lastLoad ?: return false
+        val lastPlayback = listOfNotNull(dataRefreshService.lastMoviePlayback, dataRefreshService.lastTvPlayback).maxOrNull()
+        if (lastPlayback == null || !lastLoad.isBefore(lastPlayback)) return false
+
         loadData()
         return true
     }
 
     fun loadData() {
+        lastLoad = Instant.now()
         CoroutineScope(Dispatchers.IO).launch {
             try {
                 val resumeDeferred = async { loadResumeItems() }
@@ -80,17 +92,18 @@ class CombinedResumeNextUpAdapter(
     private suspend fun loadResumeItems(): List<BaseItemDto> {
         return try {
             val currentUserId = userRepository.currentUser.value?.id ?: return emptyList()
-            val response = apiClient.itemsApi.getResumeItems(
-                GetResumeItemsRequest(
-                    userId = currentUserId,
-                    limit = RESUME_LIMIT,
-                    fields = ItemRepository.itemFields,
-                    imageTypeLimit = 1,
-                    enableTotalRecordCount = false,
-                    mediaTypes = listOf(MediaType.VIDEO),
-                    excludeItemTypes = listOf(org.jellyfin.sdk.model.api.BaseItemKind.AUDIO_BOOK)
-                )
-            ).content
+            val request = GetResumeItemsRequest(
+                userId = currentUserId,
+                limit = RESUME_LIMIT,
+                fields = ItemRepository.itemFields,
+                imageTypeLimit = 1,
+                enableTotalRecordCount = false,
+                mediaTypes = listOf(MediaType.VIDEO),
+                excludeItemTypes = listOf(org.jellyfin.sdk.model.api.BaseItemKind.AUDIO_BOOK)
+            )
+            val response = requestCoalescer.load(request) {
+                apiClient.itemsApi.getResumeItems(request).content
+            }
             response.items ?: emptyList()
         } catch (e: Exception) {
             Timber.e(e, "Error loading resume items")
@@ -101,15 +114,16 @@ class CombinedResumeNextUpAdapter(
     private suspend fun loadNextUpItems(): List<BaseItemDto> {
         return try {
             val currentUserId = userRepository.currentUser.value?.id ?: return emptyList()
-            val response = apiClient.tvShowsApi.getNextUp(
-                GetNextUpRequest(
-                    userId = currentUserId,
-                    limit = NEXT_UP_LIMIT,
-                    enableResumable = false,
-                    fields = ItemRepository.itemFields,
-                    imageTypeLimit = 1
-                )
-            ).content
+            val request = GetNextUpRequest(
+                userId = currentUserId,
+                limit = NEXT_UP_LIMIT,
+                enableResumable = false,
+                fields = ItemRepository.itemFields,
+                imageTypeLimit = 1
+            )
+            val response = requestCoalescer.load(request) {
+                apiClient.tvShowsApi.getNextUp(request).content
+            }
             response.items ?: emptyList()
         } catch (e: Exception) {
             Timber.e(e, "Error loading next up items")
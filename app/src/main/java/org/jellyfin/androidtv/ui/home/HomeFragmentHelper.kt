@@ -6,6 +6,7 @@ import androidx.leanback.widget.Row
 import org.jellyfin.androidtv.R
 import org.jellyfin.androidtv.constant.ChangeTriggerType
 import org.jellyfin.androidtv.constant.ImageType
+import org.jellyfin.androidtv.data.model.DataRefreshService
 import org.jellyfin.androidtv.data.repository.ItemRepository
 import org.jellyfin.androidtv.auth.repository.UserRepository
 import org.jellyfin.androidtv.preference.UserPreferences
@@ -16,6 +17,7 @@ import androidx.leanback.widget.ListRow
 import org.jellyfin.androidtv.ui.card.LegacyImageCardView
 import org.jellyfin.androidtv.ui.presentation.CardPresenter
 import org.jellyfin.androidtv.ui.presentation.MutableObjectAdapter
+import org.jellyfin.androidtv.util.sdk.ApiRequestCoalescer
 import org.jellyfin.sdk.api.client.ApiClient
 import org.jellyfin.sdk.model.api.BaseItemKind
 import org.jellyfin.sdk.model.api.ItemSortBy
@@ -154,12 +156,16 @@ class HomeFragmentHelper(
                 }
 
                 val apiClient: ApiClient by org.koin.java.KoinJavaComponent.inject(ApiClient::class.java)
+                val requestCoalescer: ApiRequestCoalescer by org.koin.java.KoinJavaComponent.inject(ApiRequestCoalescer::class.java)
+                val dataRefreshService: DataRefreshService by org.koin.java.KoinJavaComponent.inject(DataRefreshService::class.java)
                 val combinedAdapter = CombinedResumeNextUpAdapter(
                     userRepository = userRepository,
                     userPreferences = userPreferences,
                     cardPresenter = combinedPresenter,
                     rowsAdapter = rowsAdapter,
-                    apiClient = apiClient
+                    apiClient = apiClient,
+                    requestCoalescer = requestCoalescer,
+                    dataRefreshService = dataRefreshService,
                 )
 
                 val header =
@@ -0,0 +1,112 @@
+package org.jellyfin.androidtv.ui.home
+
+import androidx.leanback.widget.ListRow
+import androidx.leanback.widget.ObjectAdapter
+import androidx.lifecycle.LifecycleOwner
+import org.jellyfin.androidtv.constant.ChangeTriggerType
+import org.jellyfin.androidtv.constant.QueryType
+import org.jellyfin.androidtv.ui.itemhandling.AudioQueueBaseRowItem
+import org.jellyfin.androidtv.ui.itemhandling.BaseItemDtoBaseRowItem
+import org.jellyfin.androidtv.ui.itemhandling.ItemRowAdapter
+import org.jellyfin.androidtv.ui.itemhandling.refreshItem
+import org.jellyfin.sdk.api.client.ApiClient
+import org.jellyfin.sdk.model.api.BaseItemDto
+import org.jellyfin.sdk.model.api.LibraryUpdateInfo
+import org.jellyfin.sdk.model.api.UserItemDataDto
+import org.jellyfin.sdk.model.serializer.toUUIDOrNull
+import timber.log.Timber
+import java.util.UUID
+
+/**
+ * Applies the changes reported by the server to the rows of the home screen. Cards of changed items are updated in
+ * place, a row is only retrieved again when the change can alter which items it contains.
+ */
+class HomeRowRefresher(
+	private val api: ApiClient,
+	private val lifecycleOwner: LifecycleOwner,
+	private val rowsAdapter: () -> ObjectAdapter,
+) {
+	private val itemRowAdapters
+		get() = rowsAdapter().let { adapter ->
+			(0 until adapter.size()).mapNotNull { index -> (adapter[index] as? ListRow)?.adapter as? ItemRowAdapter }
+		}
+
+	fun onUserDataChanged(userData: Collection<UserItemDataDto>) {
+		if (userData.isEmpty()) return
+		val changes = userData.associateBy { it.itemId }
+
+		for (adapter in itemRowAdapters) {
+			if (adapter.isCurrentlyRetrieving) continue
+
+			val found = adapter.findItems(changes.keys)
+			val membershipChanged = changes.values.any { change -> adapter.isMembershipChanged(change, change.itemId in found) }
+
+			if (membershipChanged) {
+				Timber.d("User data change affects row of type ${adapter.queryType}, retrieving")
+				adapter.Retrieve()
+			} else {
+				for ((index, rowItem) in found.values) {
+					val item = rowItem.baseItem ?: continue
+					val change = changes[item.id] ?: continue
+					if (item.userData == change) continue
+
+					adapter.set(index, rowItem.copy(item.copy(userData = change)))
+				}
+			}
+		}
+	}
+
+	fun onLibraryChanged(info: LibraryUpdateInfo) {
+		val removed = info.itemsRemoved.mapNotNull { it.toUUIDOrNull() }.toSet()
+		val updated = info.itemsUpdated.mapNotNull { it.toUUIDOrNull() }.toSet()
+
+		for (adapter in itemRowAdapters) {
+			if (adapter.isCurrentlyRetrieving) continue
+
+			// New items can only show up in rows that depend on the library contents
+			if (info.itemsAdded.isNotEmpty() && adapter.reRetrieveTriggers.orEmpty().contains(ChangeTriggerType.LibraryUpdated)) {
+				Timber.d("Library change affects row of type ${adapter.queryType}, retrieving")
+				adapter.Retrieve()
+				continue
+			}
+
+			val found = adapter.findItems(removed + updated)
+			for ((id, entry) in found) {
+				val rowItem = entry.second
+				if (id in removed) adapter.remove(rowItem)
+				else adapter.refreshItem(api, lifecycleOwner, rowItem)
+			}
+		}
+	}
+
+	private fun ItemRowAdapter.findItems(ids: Set<UUID>) = buildMap {
+		for (index in 0 until size()) {
+			val rowItem = get(index) as? BaseItemDtoBaseRowItem ?: continue
+			if (rowItem is AudioQueueBaseRowItem) continue
+
+			val id = rowItem.baseItem?.id ?: continue
+			if (id in ids) put(id, index to rowItem)
+		}
+	}
+
+	private fun ItemRowAdapter.isMembershipChanged(change: UserItemDataDto, present: Boolean): Boolean {
+		val resumable = !change.played && change.playbackPositionTicks > 0
+
+		return when {
+			this is CombinedResumeNextUpAdapter -> if (present) change.played else resumable || change.played
+			queryType == QueryType.Resume -> present != resumable
+			// A played episode moves its series to the next episode
+			queryType == QueryType.NextUp -> change.played
+			reRetrieveTriggers.orEmpty().contains(ChangeTriggerType.FavoriteUpdate) -> present != change.isFavorite
+			else -> false
+		}
+	}
+
+	private fun BaseItemDtoBaseRowItem.copy(item: BaseItemDto) = BaseItemDtoBaseRowItem(
+		item = item,
+		preferParentThumb = preferParentThumb,
+		staticHeight = staticHeight,
+		selectAction = selectAction,
+		preferSeriesPoster = preferSeriesPoster,
+	)
+}
@@ -89,6 +89,7 @@ class HomeRowsFragment : RowsSupportFragment(), AudioEventListener, View.OnKeyLi
 	private val nowPlaying by lazy { HomeFragmentNowPlayingRow(mediaManager) }
 	private val liveTVRow by lazy { HomeFragmentLiveTVRow(requireActivity(), userRepository, navigationRepository) }
 	private val genreManager by lazy { GenreManager(requireContext(), userRepository, userPreferences, userSettingPreferences, api) }
+	private val rowRefresher by lazy { HomeRowRefresher(api, this) { adapter } }
 
 	override fun onCreate(savedInstanceState: Bundle?) {
 		super.onCreate(savedInstanceState)
@@ -249,13 +250,13 @@ class HomeRowsFragment : RowsSupportFragment(), AudioEventListener, View.OnKeyLi
 		lifecycleScope.launch {
 			lifecycle.repeatOnLifecycle(Lifecycle.State.RESUMED) {
 				api.webSocket.subscribe<UserDataChangedMessage>()
-					.onEach { refreshRows(force = true, delayed = false) }
+					.onEach { message -> message.data?.userDataList?.let(rowRefresher::onUserDataChanged) }
 					.launchIn(this)
 
 				api.webSocket.subscribe<LibraryChangedMessage>()
-				.onEach {
+				.onEach { message ->
 					genreManager.refreshEnabledGenres()
-					refreshRows(force = true, delayed = false)
+					message.data?.let(rowRefresher::onLibraryChanged)
 				}
 				.launchIn(this)
 			}
@@ -308,9 +309,9 @@ class HomeRowsFragment : RowsSupportFragment(), AudioEventListener, View.OnKeyLi
 }
 	}
 
-	private fun refreshRows(force: Boolean = false, delayed: Boolean = true) {
+	private fun refreshRows() {
 		lifecycleScope.launch(Dispatchers.Main) {
-			if (delayed) delay(1.5.seconds)
+			delay(1.5.seconds)
 
 			try {
 				val size = adapter.size()
@@ -322,11 +323,8 @@ class HomeRowsFragment : RowsSupportFragment(), AudioEventListener, View.OnKeyLi
 					if (i > 0) delay(90)
 
 					try {
-						if (force) {
-							rowAdapter.Retrieve()
-						} else {
-							rowAdapter.ReRetrieveIfNeeded()
-						}
+						// Only rows affected by a change known to the DataRefreshService are retrieved again
+						rowAdapter.ReRetrieveIfNeeded()
 					} catch (e: Exception) {
 						Timber.e(e, "Error refreshing row at position $i")
 					}
@@ -11,6 +11,7 @@ import kotlinx.coroutines.withContext
 import org.jellyfin.androidtv.preference.UserPreferences
 import org.jellyfin.androidtv.preference.constant.CarouselSortBy
 import org.jellyfin.androidtv.util.ImageHelper
+import org.jellyfin.androidtv.util.sdk.ApiRequestCoalescer
 import org.jellyfin.sdk.api.client.ApiClient
 import org.jellyfin.sdk.api.client.extensions.itemsApi
 import org.jellyfin.sdk.model.api.ItemFilter
@@ -22,7 +23,8 @@ import timber.log.Timber
 class CarouselViewModel(
     private val api: ApiClient,
     private val imageHelper: ImageHelper,
-    private val userPreferences: UserPreferences
+    private val userPreferences: UserPreferences,
+    private val requestCoalescer: ApiRequestCoalescer,
 ) : ViewModel() {
 
     private val _uiState = MutableStateFlow<CarouselUiState>(CarouselUiState.Loading)
@@ -50,26 +52,27 @@ class CarouselViewModel(
 
                 Timber.d("Loading carousel items with sort: ${carouselSortBy.name}, item types: ${includeItemTypes.joinToString(", ")}")
 
-                val response = api.itemsApi.getItems(
-                    request = GetItemsRequest(
-                        parentId = null,
-                        includeItemTypes = includeItemTypes,
-						filters = setOf(ItemFilter.IS_UNPLAYED),
-						sortBy = sortBy,
-                        sortOrder = setOf(SortOrder.DESCENDING),
-                        limit = 15,
-                        recursive = true,
-                        enableImageTypes = setOf(
+                val request = GetItemsRequest(
+                    parentId = null,
+                    includeItemTypes = includeItemTypes,
+                    filters = setOf(ItemFilter.IS_UNPLAYED),
+                    sortBy = sortBy,
+                    sortOrder = setOf(SortOrder.DESCENDING),
+                    limit = 15,
+                    recursive = true,
+                    enableImageTypes = setOf(
                         org.jellyfin.sdk.model.api.ImageType.BACKDROP,
                         org.jellyfin.sdk.model.api.ImageType.THUMB,
                         org.jellyfin.sdk.model.api.ImageType.LOGO
                     ),
-                        fields = setOf(org.jellyfin.sdk.model.api.ItemFields.OVERVIEW), // Request overview field
-                        enableTotalRecordCount = false
-                    )
+                    fields = setOf(org.jellyfin.sdk.model.api.ItemFields.OVERVIEW), // Request overview field
+                    enableTotalRecordCount = false
                 )
+                val response = requestCoalescer.load(request) {
+                    api.itemsApi.getItems(request).content
+                }
 
-                val allItems = response.content.items ?: emptyList()
+                val allItems = response.items
 
                 // Filter out items from excluded libraries
                 val excludedLibraries = userPreferences[UserPreferences.carouselExcludedLibraries]
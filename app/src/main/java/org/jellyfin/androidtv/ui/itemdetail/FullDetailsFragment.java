@@ -81,6 +81,7 @@ import org.jellyfin.androidtv.util.TimeUtils;
 import org.jellyfin.androidtv.util.Utils;
 import org.jellyfin.androidtv.util.apiclient.BaseItemUtils;
 import org.jellyfin.androidtv.util.apiclient.Response;
+import org.jellyfin.androidtv.util.profile.DeviceProfileProvider;
 import org.jellyfin.androidtv.util.sdk.BaseItemExtensionsKt;
 import org.jellyfin.androidtv.util.sdk.TrailerUtils;
 import org.jellyfin.androidtv.util.sdk.compat.JavaCompat;
@@ -449,10 +450,8 @@ public class FullDetailsFragment extends Fragment implements RecordingIndicatorV
     }
     private void probeMediaSource(String mediaSourceId, java.util.function.Consumer<org.jellyfin.sdk.model.api.MediaSourceInfo> callback) {
         try {
-            UserPreferences userPreferences = KoinJavaComponent.get(UserPreferences.class);
-
-            // Create device profile for probing
-            DeviceProfile deviceProfile = org.jellyfin.androidtv.util.profile.DeviceProfileKt.createDeviceProfile(userPreferences, false);
+            // Device profile for probing
+            DeviceProfile deviceProfile = KoinJavaComponent.get(DeviceProfileProvider.class).getProfile(false);
 
             FullDetailsFragmentHelperKt.getPostedPlaybackInfo(this, mBaseItem.getId(), mediaSourceId, deviceProfile, response -> {
                 if (response != null) {
@@ -3,6 +3,7 @@ package org.jellyfin.androidtv.ui.itemhandling
 import android.content.Context
 import android.graphics.drawable.Drawable
 import org.jellyfin.androidtv.constant.ImageType
+import org.jellyfin.androidtv.ui.presentation.CardModel
 import org.jellyfin.androidtv.util.ImageHelper
 import org.jellyfin.sdk.model.api.BaseItemDto
 import java.util.UUID
@@ -19,6 +20,13 @@ abstract class BaseRowItem protected constructor(
 	open val isFavorite: Boolean = false
 	open val isPlayed: Boolean = false
 
+	/**
+	 * The prepared card contents of this item.
+	 * @see org.jellyfin.androidtv.ui.presentation.getCardModel
+	 */
+	@Volatile
+	var cardModel: CardModel? = null
+
 	open fun getCardName(context: Context): String? = getFullName(context)
 
 	open fun getImageUrl(
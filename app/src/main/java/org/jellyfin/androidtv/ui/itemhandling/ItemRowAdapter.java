@@ -24,6 +24,7 @@ import org.jellyfin.androidtv.data.querying.GetSeriesTimersRequest;
 import org.jellyfin.androidtv.data.querying.GetSpecialsRequest;
 import org.jellyfin.androidtv.data.querying.GetTrailersRequest;
 import org.jellyfin.androidtv.data.querying.GetUserViewsRequest;
+import org.jellyfin.androidtv.data.repository.ItemCacheRepository;
 import org.jellyfin.androidtv.data.repository.UserViewsRepository;
 import org.jellyfin.androidtv.ui.GridButton;
 import org.jellyfin.androidtv.ui.browsing.BrowseGridFragment;
@@ -32,6 +33,7 @@ import org.jellyfin.androidtv.ui.presentation.MutableObjectAdapter;
 import org.jellyfin.androidtv.ui.presentation.TextItemPresenter;
 import org.jellyfin.androidtv.util.Utils;
 import org.jellyfin.androidtv.util.apiclient.EmptyResponse;
+import org.jellyfin.androidtv.util.sdk.ApiRequestCoalescer;
 import org.jellyfin.sdk.model.api.BaseItemDto;
 import org.jellyfin.sdk.model.api.BaseItemPerson;
 import org.jellyfin.sdk.model.api.ItemSortBy;
@@ -108,6 +110,8 @@ public class ItemRowAdapter extends MutableObjectAdapter<Object> {
 
     private final Lazy<org.jellyfin.sdk.api.client.ApiClient> api = inject(org.jellyfin.sdk.api.client.ApiClient.class);
     private final Lazy<UserViewsRepository> userViewsRepository = inject(UserViewsRepository.class);
+    private final Lazy<ItemCacheRepository> itemCacheRepository = inject(ItemCacheRepository.class);
+    private final Lazy<ApiRequestCoalescer> requestCoalescer = inject(ApiRequestCoalescer.class);
     private Context context;
 
     public boolean isCurrentlyRetrieving() {
@@ -134,10 +138,18 @@ public class ItemRowAdapter extends MutableObjectAdapter<Object> {
         return queryType;
     }
 
+    public Context getContext() {
+        return context;
+    }
+
     public void setRow(ListRow row) {
         mRow = row;
     }
 
+    public ChangeTriggerType[] getReRetrieveTriggers() {
+        return reRetrieveTriggers;
+    }
+
     public void setReRetrieveTriggers(ChangeTriggerType[] reRetrieveTriggers) {
         this.reRetrieveTriggers = reRetrieveTriggers;
     }
@@ -580,7 +592,7 @@ public class ItemRowAdapter extends MutableObjectAdapter<Object> {
                 }
                 notifyRetrieveStarted();
 
-                ItemRowAdapterHelperKt.retrieveItems(this, api.getValue(), mQuery, itemsLoaded, chunkSize);
+                ItemRowAdapterHelperKt.retrieveItems(this, api.getValue(), itemCacheRepository.getValue(), requestCoalescer.getValue(), mQuery, itemsLoaded, chunkSize);
                 break;
         }
     }
@@ -694,16 +706,16 @@ public class ItemRowAdapter extends MutableObjectAdapter<Object> {
         switch (queryType) {
             case Items:
                 if (mQuery.getStartIndex() != null && mQuery.getLimit() != null) {
-                    ItemRowAdapterHelperKt.retrieveItems(this, api.getValue(), mQuery, mQuery.getStartIndex(), mQuery.getLimit());
+                    ItemRowAdapterHelperKt.retrieveItems(this, api.getValue(), itemCacheRepository.getValue(), requestCoalescer.getValue(), mQuery, mQuery.getStartIndex(), mQuery.getLimit());
                 } else {
-                    ItemRowAdapterHelperKt.retrieveItems(this, api.getValue(), mQuery, 0, chunkSize);
+                    ItemRowAdapterHelperKt.retrieveItems(this, api.getValue(), itemCacheRepository.getValue(), requestCoalescer.getValue(), mQuery, 0, chunkSize);
                 }
                 break;
             case NextUp:
-                ItemRowAdapterHelperKt.retrieveNextUpItems(this, api.getValue(), mNextUpQuery);
+                ItemRowAdapterHelperKt.retrieveNextUpItems(this, api.getValue(), itemCacheRepository.getValue(), requestCoalescer.getValue(), mNextUpQuery);
                 break;
             case LatestItems:
-                ItemRowAdapterHelperKt.retrieveLatestMedia(this, api.getValue(), mLatestQuery);
+                ItemRowAdapterHelperKt.retrieveLatestMedia(this, api.getValue(), itemCacheRepository.getValue(), requestCoalescer.getValue(), mLatestQuery);
                 break;
             case Upcoming:
                 ItemRowAdapterHelperKt.retrieveUpcomingEpisodes(this, api.getValue(), mUpcomingQuery);
@@ -762,14 +774,14 @@ public class ItemRowAdapter extends MutableObjectAdapter<Object> {
                 retrieveAudioPlaylists(mQuery);
                 break;
             case Premieres:
-                ItemRowAdapterHelperKt.retrievePremieres(this, api.getValue(), mQuery);
+                ItemRowAdapterHelperKt.retrievePremieres(this, api.getValue(), itemCacheRepository.getValue(), requestCoalescer.getValue(), mQuery);
                 break;
             case SeriesTimer:
                 boolean canManageRecordings = Utils.canManageRecordings(KoinJavaComponent.<UserRepository>get(UserRepository.class).getCurrentUser().getValue());
                 ItemRowAdapterHelperKt.retrieveLiveTvSeriesTimers(this, api.getValue(), context, canManageRecordings);
                 break;
             case Resume:
-                ItemRowAdapterHelperKt.retrieveResumeItems(this, api.getValue(), resumeQuery);
+                ItemRowAdapterHelperKt.retrieveResumeItems(this, api.getValue(), itemCacheRepository.getValue(), requestCoalescer.getValue(), resumeQuery);
                 break;
         }
     }
@@ -838,7 +850,7 @@ public class ItemRowAdapter extends MutableObjectAdapter<Object> {
         clear();
         add(new GridButtonBaseRowItem(new GridButton(EnhancedBrowseFragment.FAVSONGS, context.getString(R.string.lbl_favorites), R.drawable.favorites)));
         itemsLoaded = 1;
-        ItemRowAdapterHelperKt.retrieveItems(this, api.getValue(), mQuery, 0, chunkSize);
+        ItemRowAdapterHelperKt.retrieveItems(this, api.getValue(), itemCacheRepository.getValue(), requestCoalescer.getValue(), mQuery, 0, chunkSize);
     }
 
     protected void notifyRetrieveFinished() {
@@ -12,9 +12,12 @@ import org.jellyfin.androidtv.constant.LiveTvOption
 import org.jellyfin.androidtv.data.querying.GetAdditionalPartsRequest
 import org.jellyfin.androidtv.data.querying.GetSpecialsRequest
 import org.jellyfin.androidtv.data.querying.GetTrailersRequest
+import org.jellyfin.androidtv.data.repository.ItemCacheRepository
 import org.jellyfin.androidtv.data.repository.UserViewsRepository
 import org.jellyfin.androidtv.ui.GridButton
 import org.jellyfin.androidtv.ui.browsing.BrowseGridFragment.SortOption
+import org.jellyfin.androidtv.ui.presentation.prepareCardModels
+import org.jellyfin.androidtv.util.sdk.ApiRequestCoalescer
 import org.jellyfin.sdk.api.client.ApiClient
 import org.jellyfin.sdk.api.client.exception.InvalidStatusException
 import org.jellyfin.sdk.api.client.extensions.artistsApi
@@ -25,6 +28,7 @@ import org.jellyfin.sdk.api.client.extensions.tvShowsApi
 import org.jellyfin.sdk.api.client.extensions.userLibraryApi
 import org.jellyfin.sdk.api.client.extensions.userViewsApi
 import org.jellyfin.sdk.api.client.extensions.videosApi
+import org.jellyfin.sdk.model.api.BaseItemDto
 import org.jellyfin.sdk.model.api.ItemFilter
 import org.jellyfin.sdk.model.api.ItemSortBy
 import org.jellyfin.sdk.model.api.SeriesTimerInfoDto
@@ -41,56 +45,107 @@ import org.jellyfin.sdk.model.api.request.GetSeasonsRequest
 import org.jellyfin.sdk.model.api.request.GetSimilarItemsRequest
 import org.jellyfin.sdk.model.api.request.GetUpcomingEpisodesRequest
 import timber.log.Timber
+import kotlin.math.max
 import kotlin.math.min
 
-fun <T : Any> ItemRowAdapter.setItems(
+/**
+ * Add the loaded [items] to the adapter. The card models of the new items are created and the changes to the current
+ * items are calculated on a background thread so binding the cards afterwards is cheap.
+ */
+suspend fun <T : Any> ItemRowAdapter.setItems(
 	items: Collection<T>,
 	transform: (T, Int) -> BaseRowItem?,
 ) {
 	Timber.d("Creating items from $itemsLoaded existing and ${items.size} new, adapter size is ${size()}")
 
-	val allItems = buildList {
-		// Add current items before loaded items
-		repeat(itemsLoaded) {
-			add(this@setItems.get(it))
-		}
-
-		// Add loaded items
-		val mappedItems = items.mapIndexedNotNull { index, item ->
-			transform(item, itemsLoaded + index)
-		}
-		mappedItems.forEach { add(it) }
-
-		// Add current items after loaded items
-		repeat(min(totalItems, size()) - itemsLoaded - mappedItems.size) {
-			add(this@setItems.get(it + itemsLoaded + mappedItems.size))
-		}
+	val startIndex = itemsLoaded
+	val mappedItems = items.mapIndexedNotNull { index, item ->
+		transform(item, startIndex + index)
+	}
+	val endIndex = startIndex + mappedItems.size
+	prepareCardModels(context, mappedItems)
+
+	// Current items after the loaded items are kept up to the total item count
+	val newSize = max(endIndex, min(totalItems, size()))
+
+	when {
+		// Refresh, diff against the current items so unchanged cards are not rebound
+		startIndex == 0 -> replaceAllAsync(
+			items = buildList(newSize) {
+				addAll(mappedItems)
+				for (i in endIndex until newSize) add(this@setItems.get(i))
+			},
+			areContentsTheSame = ::areRowItemContentsTheSame,
+		)
+
+		// Next page or a reloaded page, only touch its range
+		else -> setRange(startIndex, mappedItems, newSize, ::areRowItemContentsTheSame)
 	}
 
-	replaceAll(allItems)
-	itemsLoaded = allItems.size
+	itemsLoaded = size()
 }
 
-fun ItemRowAdapter.retrieveResumeItems(api: ApiClient, query: GetResumeItemsRequest) {
+private fun areRowItemContentsTheSame(old: Any, new: Any): Boolean = when {
+	old is BaseRowItem && new is BaseRowItem && old.baseItem != null -> old.baseItem == new.baseItem
+	else -> old == new
+}
+
+/**
+ * Show the cached items for [query] while the row is still empty. The loaded item count is reset
+ * afterwards so the response from the server is diffed against the cached items.
+ */
+private suspend fun ItemRowAdapter.setCachedItems(
+	itemCacheRepository: ItemCacheRepository,
+	query: Any,
+	transform: (BaseItemDto, Int) -> BaseRowItem?,
+) {
+	if (size() > 0) return
+
+	val items = withContext(Dispatchers.IO) { itemCacheRepository.get(query) }
+	if (items.isNullOrEmpty()) return
+
+	Timber.d("Showing ${items.size} cached items for ${query::class.simpleName}")
+	setItems(items, transform)
+	itemsLoaded = 0
+}
+
+private suspend fun putCachedItems(
+	itemCacheRepository: ItemCacheRepository,
+	query: Any,
+	items: List<BaseItemDto>,
+) = withContext(Dispatchers.IO) {
+	itemCacheRepository.put(query, items)
+}
+
+fun ItemRowAdapter.retrieveResumeItems(
+	api: ApiClient,
+	itemCacheRepository: ItemCacheRepository,
+	requestCoalescer: ApiRequestCoalescer,
+	query: GetResumeItemsRequest,
+) {
 	if (this.isScrolling) {
 		return
 	}
 	ProcessLifecycleOwner.get().lifecycleScope.launch {
 		runCatching {
-			val response = withContext(Dispatchers.IO) {
+			val transform = { item: BaseItemDto, _: Int ->
+				BaseItemDtoBaseRowItem(
+					item,
+					preferParentThumb,
+					isStaticHeight
+				)
+			}
+			setCachedItems(itemCacheRepository, query, transform)
+
+			val response = requestCoalescer.load(query) {
 				api.itemsApi.getResumeItems(query).content
 			}
 
 			setItems(
 				items = response.items,
-				transform = { item, _ ->
-					BaseItemDtoBaseRowItem(
-						item,
-						preferParentThumb,
-						isStaticHeight
-					)
-				}
+				transform = transform,
 			)
+			putCachedItems(itemCacheRepository, query, response.items)
 
 			if (response.items.isEmpty()) removeRow()
 		}.fold(
@@ -100,13 +155,28 @@ fun ItemRowAdapter.retrieveResumeItems(api: ApiClient, query: GetResumeItemsRequ
 	}
 }
 
-fun ItemRowAdapter.retrieveNextUpItems(api: ApiClient, query: GetNextUpRequest) {
+fun ItemRowAdapter.retrieveNextUpItems(
+	api: ApiClient,
+	itemCacheRepository: ItemCacheRepository,
+	requestCoalescer: ApiRequestCoalescer,
+	query: GetNextUpRequest,
+) {
 	if (this.isScrolling) {
 		return
 	}
 	ProcessLifecycleOwner.get().lifecycleScope.launch {
 		runCatching {
-			val response = withContext(Dispatchers.IO) {
+			if (query.seriesId == null) {
+				setCachedItems(itemCacheRepository, query) { item, _ ->
+					BaseItemDtoBaseRowItem(
+						item,
+						preferParentThumb,
+						isStaticHeight
+					)
+				}
+			}
+
+			val response = requestCoalescer.load(query) {
 				api.tvShowsApi.getNextUp(query).content
 			}
 
@@ -152,6 +222,7 @@ fun ItemRowAdapter.retrieveNextUpItems(api: ApiClient, query: GetNextUpRequest)
 						)
 					}
 				)
+				if (query.seriesId == null) putCachedItems(itemCacheRepository, query, response.items)
 
 				if (response.items.isEmpty()) removeRow()
 			}
@@ -162,28 +233,37 @@ fun ItemRowAdapter.retrieveNextUpItems(api: ApiClient, query: GetNextUpRequest)
 	}
 }
 
-fun ItemRowAdapter.retrieveLatestMedia(api: ApiClient, query: GetLatestMediaRequest) {
+fun ItemRowAdapter.retrieveLatestMedia(
+	api: ApiClient,
+	itemCacheRepository: ItemCacheRepository,
+	requestCoalescer: ApiRequestCoalescer,
+	query: GetLatestMediaRequest,
+) {
 	if (this.isScrolling) {
 		return
 	}
 	ProcessLifecycleOwner.get().lifecycleScope.launch {
 		runCatching {
-			val response = withContext(Dispatchers.IO) {
+			val transform = { item: BaseItemDto, _: Int ->
+				BaseItemDtoBaseRowItem(
+					item,
+					preferParentThumb,
+					isStaticHeight,
+					BaseRowItemSelectAction.ShowDetails,
+					preferParentThumb,
+				)
+			}
+			setCachedItems(itemCacheRepository, query, transform)
+
+			val response = requestCoalescer.load(query) {
 				api.userLibraryApi.getLatestMedia(query).content
 			}
 
 			setItems(
 				items = response,
-				transform = { item, _ ->
-					BaseItemDtoBaseRowItem(
-						item,
-						preferParentThumb,
-						isStaticHeight,
-						BaseRowItemSelectAction.ShowDetails,
-						preferParentThumb,
-					)
-				}
+				transform = transform,
 			)
+			putCachedItems(itemCacheRepository, query, response)
 
 			if (response.isEmpty()) removeRow()
 		}.fold(
@@ -579,6 +659,8 @@ fun ItemRowAdapter.retrieveArtists(
 
 fun ItemRowAdapter.retrieveItems(
 	api: ApiClient,
+	itemCacheRepository: ItemCacheRepository,
+	requestCoalescer: ApiRequestCoalescer,
 	query: GetItemsRequest,
 	startIndex: Int,
 	batchSize: Int
@@ -588,26 +670,31 @@ fun ItemRowAdapter.retrieveItems(
 	}
 	ProcessLifecycleOwner.get().lifecycleScope.launch {
 		runCatching {
-			val response = withContext(Dispatchers.IO) {
-				api.itemsApi.getItems(
-					query.copy(
-						startIndex = startIndex,
-						limit = batchSize,
-					)
-				).content
+			val pageQuery = query.copy(
+				startIndex = startIndex,
+				limit = batchSize,
+			)
+			val transform = { item: BaseItemDto, _: Int ->
+				BaseItemDtoBaseRowItem(
+					item,
+					preferParentThumb,
+					isStaticHeight,
+				)
+			}
+
+			// Only the first page is cached
+			if (startIndex == 0) setCachedItems(itemCacheRepository, pageQuery, transform)
+
+			val response = requestCoalescer.load(pageQuery) {
+				api.itemsApi.getItems(pageQuery).content
 			}
 
 			totalItems = response.totalRecordCount
 			setItems(
 				items = response.items,
-				transform = { item, _ ->
-					BaseItemDtoBaseRowItem(
-						item,
-						preferParentThumb,
-						isStaticHeight,
-					)
-				},
+				transform = transform,
 			)
+			if (startIndex == 0) putCachedItems(itemCacheRepository, pageQuery, response.items)
 
 			if (itemsLoaded == 0) removeRow()
 		}.fold(
@@ -619,24 +706,30 @@ fun ItemRowAdapter.retrieveItems(
 
 fun ItemRowAdapter.retrievePremieres(
 	api: ApiClient,
+	itemCacheRepository: ItemCacheRepository,
+	requestCoalescer: ApiRequestCoalescer,
 	query: GetItemsRequest,
 ) {
 	ProcessLifecycleOwner.get().lifecycleScope.launch {
 		runCatching {
-			val response = withContext(Dispatchers.IO) {
+			val transform = { item: BaseItemDto, _: Int ->
+				BaseItemDtoBaseRowItem(
+					item,
+					preferParentThumb,
+					isStaticHeight,
+				)
+			}
+			setCachedItems(itemCacheRepository, query, transform)
+
+			val response = requestCoalescer.load(query) {
 				api.itemsApi.getItems(query).content
 			}
 
 			setItems(
 				items = response.items,
-				transform = { item, _ ->
-					BaseItemDtoBaseRowItem(
-						item,
-						preferParentThumb,
-						isStaticHeight,
-					)
-				}
+				transform = transform,
 			)
+			putCachedItems(itemCacheRepository, query, response.items)
 
 			if (response.items.isEmpty()) removeRow()
 		}.fold(
@@ -0,0 +1,68 @@
+package org.jellyfin.androidtv.ui.livetv
+
+import android.content.Context
+import org.jellyfin.sdk.model.api.BaseItemDto
+import java.time.Duration
+import java.time.LocalDateTime
+import java.util.UUID
+
+/**
+ * A single cell in the guide, [start] and [end] are clipped to the visible guide range.
+ */
+data class GuideCell(
+	val program: BaseItemDto,
+	val start: LocalDateTime,
+	val end: LocalDateTime,
+	val isFirst: Boolean,
+	val isLast: Boolean,
+)
+
+/**
+ * Create the cells for a channel row. Gaps between [programs] are filled with "no program data" cells so the row
+ * always covers the full range between [guideStart] and [guideEnd].
+ */
+fun createGuideCells(
+	context: Context,
+	channelId: UUID,
+	programs: List<BaseItemDto>,
+	guideStart: LocalDateTime,
+	guideEnd: LocalDateTime,
+): List<GuideCell> = buildList {
+	fun addEmpty(start: LocalDateTime, end: LocalDateTime) = add(GuideCell(
+		program = createNoProgramDataBaseItem(context, channelId, start, end),
+		start = start,
+		end = end,
+		isFirst = start == guideStart,
+		isLast = end == guideEnd,
+	))
+
+	if (programs.isEmpty()) {
+		var slotStart = guideStart
+		while (slotStart.isBefore(guideEnd)) {
+			val slotEnd = minOf(slotStart.plusMinutes(30), guideEnd)
+			addEmpty(slotStart, slotEnd)
+			slotStart = slotEnd
+		}
+		return@buildList
+	}
+
+	var prevEnd = guideStart
+	for (program in programs) {
+		val start = maxOf(program.startDate ?: guideStart, guideStart)
+		if (start.isBefore(prevEnd)) continue
+		if (start.isAfter(prevEnd)) addEmpty(prevEnd, start)
+
+		val end = minOf(program.endDate ?: guideEnd, guideEnd)
+		prevEnd = end
+		if (Duration.between(start, end).toMinutes() > 0) add(GuideCell(
+			program = program,
+			start = start,
+			end = end,
+			isFirst = start == guideStart,
+			isLast = end == guideEnd,
+		))
+	}
+
+	// Fill the rest of the time period
+	if (prevEnd.isBefore(guideEnd)) addEmpty(prevEnd, guideEnd)
+}
@@ -0,0 +1,159 @@
+package org.jellyfin.androidtv.ui.livetv
+
+import kotlinx.coroutines.CompletableDeferred
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.currentCoroutineContext
+import kotlinx.coroutines.ensureActive
+import kotlinx.coroutines.withContext
+import org.jellyfin.sdk.api.client.ApiClient
+import org.jellyfin.sdk.api.client.extensions.liveTvApi
+import org.jellyfin.sdk.model.api.BaseItemDto
+import org.jellyfin.sdk.model.api.ItemSortBy
+import timber.log.Timber
+import java.time.Duration
+import java.time.Instant
+import java.time.LocalDateTime
+import java.time.ZoneOffset
+import java.util.UUID
+
+/**
+ * In-memory cache of guide programs. Programs are stored in tiles of one channel and a fixed time block so
+ * moving through the guide only needs to request the tiles that were not seen before. The least recently used
+ * tiles are evicted when the cache is full.
+ */
+class GuideProgramCache(
+	private val maxTiles: Int = MAX_TILES,
+) {
+	companion object {
+		private const val BLOCK_SECONDS = 3L * 60 * 60
+		private const val MAX_TILES = 6000
+		private val TILE_TTL = Duration.ofHours(1)
+	}
+
+	private data class TileKey(val channelId: UUID, val block: Long)
+	private class Tile(val programs: List<BaseItemDto>, val created: Instant)
+
+	private val tiles = object : LinkedHashMap<TileKey, Tile>(16, 0.75f, true) {
+		override fun removeEldestEntry(eldest: MutableMap.MutableEntry<TileKey, Tile>) = size > maxTiles
+	}
+
+	// Tiles that are being requested, a load waits for these instead of requesting them again. Loads of other tiles
+	// don't wait, so a visible page is never stuck behind a prefetch of its neighbours.
+	private val pendingTiles = mutableMapOf<TileKey, CompletableDeferred<Unit>>()
+
+	private fun blockOf(time: LocalDateTime) = Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), BLOCK_SECONDS)
+	private fun blockStart(block: Long) = LocalDateTime.ofEpochSecond(block * BLOCK_SECONDS, 0, ZoneOffset.UTC)
+	private fun blocksOf(startTime: LocalDateTime, endTime: LocalDateTime) = blockOf(startTime)..blockOf(endTime.minusSeconds(1))
+
+	@Synchronized
+	fun clear() = tiles.clear()
+
+	@Synchronized
+	private fun getMissingTiles(channelIds: Collection<UUID>, blocks: LongRange): List<TileKey> {
+		val expired = Instant.now().minus(TILE_TTL)
+		return channelIds.flatMap { channelId ->
+			blocks
+				.map { block -> TileKey(channelId, block) }
+				.filter { key -> tiles[key]?.created?.isAfter(expired) != true }
+		}
+	}
+
+	@Synchronized
+	private fun putTiles(channelIds: Collection<UUID>, blocks: LongRange, programs: Collection<BaseItemDto>) {
+		val now = Instant.now()
+		val programsByChannel = programs.groupBy { it.channelId }
+
+		for (channelId in channelIds) {
+			val channelPrograms = programsByChannel[channelId].orEmpty()
+			for (block in blocks) {
+				val start = blockStart(block)
+				val end = blockStart(block + 1)
+				tiles[TileKey(channelId, block)] = Tile(
+					programs = channelPrograms.filter { program ->
+						program.endDate?.isAfter(start) != false && program.startDate?.isBefore(end) != false
+					},
+					created = now,
+				)
+			}
+		}
+	}
+
+	/**
+	 * Make sure the programs for [channelIds] between [startTime] and [endTime] are available. Only tiles that are
+	 * missing or expired are requested, in a single request. Tiles another load is already requesting are awaited.
+	 */
+	suspend fun load(
+		api: ApiClient,
+		channelIds: Collection<UUID>,
+		startTime: LocalDateTime,
+		endTime: LocalDateTime,
+	) {
+		val blocks = blocksOf(startTime, endTime)
+
+		while (true) {
+			val (request, requestTiles, otherRequests) = synchronized(this) {
+				val missing = getMissingTiles(channelIds, blocks)
+				val requestTiles = missing.filter { it !in pendingTiles }
+				val request = requestTiles.takeIf { it.isNotEmpty() }?.let { CompletableDeferred<Unit>() }
+				val otherRequests = missing.mapNotNull { pendingTiles[it] }.distinct()
+				if (request != null) requestTiles.forEach { pendingTiles[it] = request }
+				Triple(request, requestTiles, otherRequests)
+			}
+			if (request == null && otherRequests.isEmpty()) return
+
+			if (request != null) {
+				try {
+					fetchTiles(api, requestTiles)
+					request.complete(Unit)
+				} catch (err: Throwable) {
+					request.completeExceptionally(err)
+					throw err
+				} finally {
+					synchronized(this) { requestTiles.forEach { pendingTiles.remove(it) } }
+				}
+			}
+
+			// Tiles of a load that failed or was cancelled are still missing and requested again on the next pass
+			for (otherRequest in otherRequests) {
+				try {
+					otherRequest.await()
+				} catch (_: Throwable) {
+					currentCoroutineContext().ensureActive()
+				}
+			}
+		}
+	}
+
+	private suspend fun fetchTiles(api: ApiClient, tiles: List<TileKey>) {
+		val channelIds = tiles.map { it.channelId }.distinct()
+		val blocks = tiles.minOf { it.block }..tiles.maxOf { it.block }
+		Timber.d("Loading ${channelIds.size} channels for ${blocks.count()} guide blocks")
+
+		val programs = withContext(Dispatchers.IO) {
+			api.liveTvApi.getLiveTvPrograms(
+				channelIds = channelIds,
+				enableImages = false,
+				sortBy = setOf(ItemSortBy.START_DATE),
+				minEndDate = blockStart(blocks.first),
+				maxStartDate = blockStart(blocks.last + 1).minusSeconds(1),
+			).content.items
+		}
+
+		putTiles(channelIds, blocks, programs)
+	}
+
+	@Synchronized
+	fun hasPrograms(channelId: UUID, startTime: LocalDateTime, endTime: LocalDateTime): Boolean =
+		blocksOf(startTime, endTime).all { block -> tiles.containsKey(TileKey(channelId, block)) }
+
+	/**
+	 * Get the cached programs of [channelId] that are still running at [startTime] and start before [endTime].
+	 */
+	@Synchronized
+	fun getPrograms(channelId: UUID, startTime: LocalDateTime, endTime: LocalDateTime): List<BaseItemDto> =
+		blocksOf(startTime, endTime)
+			.flatMap { block -> tiles[TileKey(channelId, block)]?.programs.orEmpty() }
+			.distinctBy { it.id }
+			.filter { program -> program.endDate?.isAfter(startTime) != false && program.startDate?.isBefore(endTime) != false }
+			.sortedBy { it.startDate }
+}
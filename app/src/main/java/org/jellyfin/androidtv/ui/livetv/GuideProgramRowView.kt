@@ -0,0 +1,145 @@
+package org.jellyfin.androidtv.ui.livetv
+
+import android.annotation.SuppressLint
+import android.content.Context
+import android.view.View
+import android.view.ViewGroup
+import androidx.core.view.isVisible
+import org.jellyfin.androidtv.ui.ProgramGridCell
+import java.time.Duration
+import java.time.LocalDateTime
+
+/**
+ * Program cells of a single channel. Only the cells overlapping the visible part of the guide are bound, cells that
+ * scroll out of view are reused for the next program that scrolls in.
+ */
+@SuppressLint("ViewConstructor")
+class GuideProgramRowView(
+	context: Context,
+	private val guide: LiveTvGuide,
+	private val pixelsPerMinute: Int,
+	private val rowHeight: Int,
+) : ViewGroup(context) {
+	companion object {
+		// Bind some cells outside of the viewport to avoid empty space while scrolling
+		private const val OVERSCAN_MINUTES = 30
+	}
+
+	private var cells: List<GuideCell> = emptyList()
+	private var guideStart: LocalDateTime = LocalDateTime.MIN
+	private var scrollOffset = 0
+	private var viewportWidth = 0
+
+	private val boundCells = mutableMapOf<Int, ProgramGridCell>()
+	private val recycledCells = ArrayDeque<ProgramGridCell>()
+
+	val cellCount get() = cells.size
+
+	fun getGuideCell(index: Int): GuideCell? = cells.getOrNull(index)
+	fun getCell(index: Int): ProgramGridCell? = boundCells[index]
+	fun indexOfCell(view: View): Int = boundCells.entries.firstOrNull { it.value === view }?.key ?: -1
+
+	fun getCellLeft(index: Int) = getPosition(cells[index].start)
+	fun getCellRight(index: Int) = getPosition(cells[index].end)
+	private fun getPosition(time: LocalDateTime) = Duration.between(guideStart, time).toMinutes().toInt() * pixelsPerMinute
+
+	/**
+	 * Get the index of the cell showing [time]. Returns the first or last cell when the time is outside of the guide
+	 * or -1 when there are no cells.
+	 */
+	fun indexAt(time: LocalDateTime): Int {
+		if (cells.isEmpty()) return -1
+
+		val index = cells.binarySearch { cell ->
+			when {
+				!cell.end.isAfter(time) -> -1
+				cell.start.isAfter(time) -> 1
+				else -> 0
+			}
+		}
+
+		return if (index >= 0) index else (-index - 1).coerceIn(cells.indices)
+	}
+
+	fun setCells(cells: List<GuideCell>, guideStart: LocalDateTime) {
+		// Keep focus at the same time when the focused cell is replaced
+		val focusedTime = boundCells.entries
+			.firstOrNull { it.value.hasFocus() }
+			?.let { (index, _) -> this.cells.getOrNull(index)?.start }
+
+		this.cells = cells
+		this.guideStart = guideStart
+
+		boundCells.values.forEach(::recycleCell)
+		boundCells.clear()
+		bindVisibleCells()
+
+		if (focusedTime != null) indexAt(focusedTime).takeIf { it != -1 }?.let { boundCells[it]?.requestFocus() }
+	}
+
+	fun setScrollOffset(scrollOffset: Int, viewportWidth: Int) {
+		if (this.scrollOffset == scrollOffset && this.viewportWidth == viewportWidth) return
+
+		this.scrollOffset = scrollOffset
+		this.viewportWidth = viewportWidth
+		bindVisibleCells()
+	}
+
+	private fun bindVisibleCells() {
+		val overscan = OVERSCAN_MINUTES * pixelsPerMinute
+		val visibleStart = scrollOffset - overscan
+		val visibleEnd = scrollOffset + viewportWidth + overscan
+
+		// The comparator never returns 0 so the insertion point is the first cell ending after visibleStart
+		val first = -cells.binarySearch { cell -> if (getPosition(cell.end) <= visibleStart) -1 else 1 } - 1
+		var last = first
+		while (last < cells.size && getPosition(cells[last].start) < visibleEnd) last++
+		val visible = first until last
+
+		val iterator = boundCells.iterator()
+		while (iterator.hasNext()) {
+			val (index, cell) = iterator.next()
+			if (index !in visible && !cell.hasFocus()) {
+				recycleCell(cell)
+				iterator.remove()
+			}
+		}
+
+		for (index in visible) {
+			if (index in boundCells) continue
+
+			val guideCell = cells[index]
+			val cell = recycledCells.removeFirstOrNull() ?: ProgramGridCell(context, guide).also(::addView)
+			cell.isVisible = true
+			cell.setProgram(guideCell.program)
+			if (guideCell.isFirst) cell.setFirst()
+			if (guideCell.isLast) cell.setLast()
+			boundCells[index] = cell
+		}
+
+		requestLayout()
+	}
+
+	private fun recycleCell(cell: ProgramGridCell) {
+		cell.isVisible = false
+		recycledCells.add(cell)
+	}
+
+	override fun onMeasure(widthMeasureSpec: Int, heightMeasureSpec: Int) {
+		for ((index, cell) in boundCells) {
+			cell.measure(
+				MeasureSpec.makeMeasureSpec(getCellRight(index) - getCellLeft(index), MeasureSpec.EXACTLY),
+				MeasureSpec.makeMeasureSpec(rowHeight, MeasureSpec.EXACTLY),
+			)
+		}
+
+		setMeasuredDimension(MeasureSpec.getSize(widthMeasureSpec), rowHeight)
+	}
+
+	override fun onLayout(changed: Boolean, l: Int, t: Int, r: Int, b: Int) {
+		for ((index, cell) in boundCells) {
+			val left = getCellLeft(index) - scrollOffset
+			cell.layout(left, 0, left + cell.measuredWidth, rowHeight)
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package org.jellyfin.androidtv.ui.livetv
+
+import android.annotation.SuppressLint
+import android.view.ViewGroup
+import android.widget.FrameLayout
+import android.widget.LinearLayout
+import androidx.core.content.ContextCompat
+import androidx.recyclerview.widget.RecyclerView
+import org.jellyfin.androidtv.R
+import org.jellyfin.androidtv.ui.GuideChannelHeader
+import org.jellyfin.sdk.model.api.BaseItemDto
+import java.time.LocalDateTime
+
+/**
+ * Adapter for the rows of the guide, one row per channel containing the channel header and its programs.
+ */
+class GuideRowAdapter(
+	private val guide: LiveTvGuide,
+	private val rowHeight: Int,
+	private val pixelsPerMinute: Int,
+	private val getCells: (channel: BaseItemDto) -> List<GuideCell>?,
+	private val onProgramsNeeded: (position: Int) -> Unit,
+) : RecyclerView.Adapter<GuideRowAdapter.ViewHolder>() {
+	private val items = mutableListOf<BaseItemDto>()
+	var channels: List<BaseItemDto>
+		get() = items
+		@SuppressLint("NotifyDataSetChanged")
+		set(value) {
+			items.clear()
+			items.addAll(value)
+			notifyDataSetChanged()
+		}
+
+	var guideStart: LocalDateTime = LocalDateTime.now()
+	var scrollOffset = 0
+	var viewportWidth = 0
+
+	class ViewHolder(
+		view: LinearLayout,
+		val header: GuideChannelHeader,
+		val programRow: GuideProgramRowView,
+	) : RecyclerView.ViewHolder(view)
+
+	/**
+	 * Replace the channel at [position] without rebinding the row, used when the header already shows the change.
+	 */
+	fun updateChannel(position: Int, channel: BaseItemDto) {
+		items[position] = channel
+	}
+
+	override fun getItemCount(): Int = items.size
+
+	override fun onCreateViewHolder(parent: ViewGroup, viewType: Int): ViewHolder {
+		val context = parent.context
+		val header = GuideChannelHeader(context, guide)
+		val headerContainer = FrameLayout(context).apply {
+			layoutParams = LinearLayout.LayoutParams(LinearLayout.LayoutParams.WRAP_CONTENT, rowHeight)
+			setBackgroundColor(ContextCompat.getColor(context, R.color.channel_scroller_bg))
+			addView(header)
+		}
+		val programRow = GuideProgramRowView(context, guide, pixelsPerMinute, rowHeight).apply {
+			layoutParams = LinearLayout.LayoutParams(0, rowHeight, 1f)
+		}
+		val view = LinearLayout(context).apply {
+			orientation = LinearLayout.HORIZONTAL
+			layoutParams = RecyclerView.LayoutParams(RecyclerView.LayoutParams.MATCH_PARENT, rowHeight)
+			addView(headerContainer)
+			addView(programRow)
+		}
+
+		return ViewHolder(view, header, programRow)
+	}
+
+	override fun onBindViewHolder(holder: ViewHolder, position: Int) {
+		val channel = items[position]
+		holder.header.bind(channel)
+		holder.header.loadImage()
+
+		val cells = getCells(channel)
+		if (cells == null) onProgramsNeeded(position)
+		holder.programRow.setCells(cells.orEmpty(), guideStart)
+		holder.programRow.setScrollOffset(scrollOffset, viewportWidth)
+	}
+
+	override fun onViewAttachedToWindow(holder: ViewHolder) {
+		// Views reattached from the cache are not rebound and might have an outdated offset
+		holder.programRow.setScrollOffset(scrollOffset, viewportWidth)
+	}
+}
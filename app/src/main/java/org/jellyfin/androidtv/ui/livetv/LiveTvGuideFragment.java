@@ -3,10 +3,8 @@ package org.jellyfin.androidtv.ui.livetv;
 import static org.koin.java.KoinJavaComponent.inject;
 
 import android.app.AlertDialog;
-import android.content.Context;
 import android.content.DialogInterface;
 import android.graphics.Color;
-import android.os.AsyncTask;
 import android.os.Bundle;
 import android.os.Handler;
 import android.view.KeyEvent;
@@ -32,13 +30,8 @@ import org.jellyfin.androidtv.databinding.LiveTvGuideBinding;
 import org.jellyfin.androidtv.ui.AsyncImageView;
 import org.jellyfin.androidtv.ui.FriendlyDateButton;
 import org.jellyfin.androidtv.ui.GuideChannelHeader;
-import org.jellyfin.androidtv.ui.GuidePagingButton;
-import org.jellyfin.androidtv.ui.HorizontalScrollViewListener;
 import org.jellyfin.androidtv.ui.LiveProgramDetailPopup;
-import org.jellyfin.androidtv.ui.ObservableHorizontalScrollView;
-import org.jellyfin.androidtv.ui.ObservableScrollView;
 import org.jellyfin.androidtv.ui.ProgramGridCell;
-import org.jellyfin.androidtv.ui.ScrollViewListener;
 import org.jellyfin.androidtv.ui.navigation.ActivityDestinations;
 import org.jellyfin.androidtv.ui.navigation.NavigationRepository;
 import org.jellyfin.androidtv.util.CoroutineUtils;
@@ -46,7 +39,6 @@ import org.jellyfin.androidtv.util.DateTimeExtensionsKt;
 import org.jellyfin.androidtv.util.ImageHelper;
 import org.jellyfin.androidtv.util.InfoLayoutHelper;
 import org.jellyfin.androidtv.util.PlaybackHelper;
-import org.jellyfin.androidtv.util.TextUtilsKt;
 import org.jellyfin.androidtv.util.TimeUtils;
 import org.jellyfin.androidtv.util.Utils;
 import org.jellyfin.androidtv.util.apiclient.EmptyResponse;
@@ -54,8 +46,10 @@ import org.jellyfin.sdk.model.api.BaseItemDto;
 import org.jellyfin.androidtv.data.service.BackgroundService;
 
 import java.time.LocalDateTime;
-import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import kotlin.Lazy;
@@ -77,11 +71,9 @@ public class LiveTvGuideFragment extends Fragment implements LiveTvGuide, View.O
     private TextView mSummary;
     private AsyncImageView mImage;
     private LinearLayout mInfoRow;
-    private LinearLayout mChannels;
     private LinearLayout mTimeline;
-    private LinearLayout mProgramRows;
-    private ObservableScrollView mChannelScroller;
     private HorizontalScrollView mTimelineScroller;
+    private LiveTvGuideGrid mGuideGrid;
     private View mSpinner;
     private View mResetButton;
 
@@ -95,8 +87,8 @@ public class LiveTvGuideFragment extends Fragment implements LiveTvGuide, View.O
 
     private LocalDateTime mCurrentGuideStart = LocalDateTime.now();
     private LocalDateTime mCurrentGuideEnd;
-    private int mCurrentDisplayChannelStartNdx = 0;
-    private int mCurrentDisplayChannelEndNdx = 0;
+    private final Set<Integer> mRequestedPages = new HashSet<>();
+    private int mFocusPage = 0;
 
     private int guideRowHeightPx;
     private int guideRowWidthPerMinPx;
@@ -125,9 +117,7 @@ public class LiveTvGuideFragment extends Fragment implements LiveTvGuide, View.O
         mFilterStatus.setTextColor(Color.GRAY);
         mInfoRow = binding.infoRow;
         mImage = binding.programImage;
-        mChannels = binding.channels;
         mTimeline = binding.timeline;
-        mProgramRows = binding.programRows;
         mSpinner = binding.spinner;
         mSpinner.setVisibility(View.VISIBLE);
 
@@ -168,42 +158,18 @@ public class LiveTvGuideFragment extends Fragment implements LiveTvGuide, View.O
             }
         });
 
-        mProgramRows.setFocusable(false);
-        mChannelScroller = binding.channelScroller;
-        ObservableScrollView programVScroller = binding.programVScroller;
-        programVScroller.setScrollViewListener(new ScrollViewListener() {
-            @Override
-            public void onScrollChanged(ObservableScrollView scrollView, int x, int y, int oldx, int oldy) {
-                mChannelScroller.scrollTo(x, y);
-            }
-        });
-        mChannelScroller.setScrollViewListener(new ScrollViewListener() {
-            @Override
-            public void onScrollChanged(ObservableScrollView scrollView, int x, int y, int oldx, int oldy) {
-                programVScroller.scrollTo(x, y);
-            }
-        });
-
         mTimelineScroller = binding.timelineHScroller;
         mTimelineScroller.setFocusable(false);
         mTimelineScroller.setFocusableInTouchMode(false);
         mTimeline.setFocusable(false);
         mTimeline.setFocusableInTouchMode(false);
-        mChannelScroller.setFocusable(false);
-        mChannelScroller.setFocusableInTouchMode(false);
-        ObservableHorizontalScrollView programHScroller = binding.programHScroller;
-        programHScroller.setScrollViewListener(new HorizontalScrollViewListener() {
-            @Override
-            public void onScrollChanged(ObservableHorizontalScrollView scrollView, int x, int y, int oldx, int oldy) {
-                mTimelineScroller.scrollTo(x, y);
-            }
-        });
-
-        programHScroller.setFocusable(false);
-        programHScroller.setFocusableInTouchMode(false);
 
-        mChannels.setFocusable(false);
-        mChannelScroller.setFocusable(false);
+        mGuideGrid = new LiveTvGuideGrid(binding.programRows, mTimelineScroller, this, guideRowHeightPx, guideRowWidthPerMinPx,
+                channel -> TvManager.getProgramsForChannel(channel.getId(), mCurrentGuideStart, mCurrentGuideEnd, mFilters),
+                position -> {
+                    loadProgramPage(position / PAGE_SIZE);
+                    return null;
+                });
 
         // Register to receive message from popup
         CoroutineUtils.readCustomMessagesOnLifecycle(getLifecycle(), customMessageRepository.getValue(), message -> {
@@ -221,13 +187,6 @@ public class LiveTvGuideFragment extends Fragment implements LiveTvGuide, View.O
     private void load() {
         fillTimeLine(mCurrentGuideStart, getGuideHours());
         TvManager.loadAllChannels(this, ndx -> {
-            if (ndx >= PAGE_SIZE) {
-                // last channel is not in first page so grab a set where it will be in the middle
-                ndx = ndx - (PAGE_SIZE / 2);
-            } else {
-                ndx = 0; // just start at beginning
-            }
-
             mAllChannels = TvManager.getAllChannels();
             if (!mAllChannels.isEmpty()) {
                 displayChannels(ndx, PAGE_SIZE);
@@ -239,12 +198,11 @@ public class LiveTvGuideFragment extends Fragment implements LiveTvGuide, View.O
     }
 
     public void refreshFavorite(UUID channelId){
-        for (int i = 0; i < mChannels.getChildCount(); i++) {
-            View child = mChannels.getChildAt(i);
-            if (!(child instanceof GuideChannelHeader)) continue;
-            GuideChannelHeader gch = (GuideChannelHeader) child;
-            if (gch.getChannel().getId().equals(channelId.toString()))
+        for (GuideChannelHeader gch : mGuideGrid.getAttachedHeaders()) {
+            if (gch.getChannel().getId().equals(channelId)) {
                 gch.refreshFavorite();
+                mGuideGrid.updateChannel(gch);
+            }
         }
     }
 
@@ -257,7 +215,7 @@ public class LiveTvGuideFragment extends Fragment implements LiveTvGuide, View.O
     }
 
     protected void doLoad() {
-        if (TvManager.shouldForceReload() || mCurrentGuideStart.plusMinutes(30).isBefore(LocalDateTime.now()) || mChannels.getChildCount() == 0) {
+        if (TvManager.shouldForceReload() || mCurrentGuideStart.plusMinutes(30).isBefore(LocalDateTime.now()) || mGuideGrid.getChannels().isEmpty()) {
             load();
 
             mFirstFocusChannelId = TvManager.getLastLiveTvChannel();
@@ -268,9 +226,6 @@ public class LiveTvGuideFragment extends Fragment implements LiveTvGuide, View.O
     public void onPause() {
         super.onPause();
 
-        if (mDisplayProgramsTask != null) {
-            mDisplayProgramsTask.cancel(true);
-        }
         if (mDetailPopup != null) {
             mDetailPopup.dismiss();
         }
@@ -300,6 +255,20 @@ public class LiveTvGuideFragment extends Fragment implements LiveTvGuide, View.O
                 event.startTracking();
                 return true;
         }
+        return moveFocus(keyCode);
+    }
+
+    private boolean moveFocus(int keyCode) {
+        switch (keyCode) {
+            case KeyEvent.KEYCODE_DPAD_UP:
+                return mGuideGrid.moveFocus(View.FOCUS_UP);
+            case KeyEvent.KEYCODE_DPAD_DOWN:
+                return mGuideGrid.moveFocus(View.FOCUS_DOWN);
+            case KeyEvent.KEYCODE_DPAD_LEFT:
+                return mGuideGrid.moveFocus(View.FOCUS_LEFT);
+            case KeyEvent.KEYCODE_DPAD_RIGHT:
+                return mGuideGrid.moveFocus(View.FOCUS_RIGHT);
+        }
         return false;
     }
 
@@ -313,7 +282,7 @@ public class LiveTvGuideFragment extends Fragment implements LiveTvGuide, View.O
                     LiveTvGuideFragmentHelperKt.toggleFavorite(this);
                 return true;
         }
-        return false;
+        return moveFocus(keyCode);
     }
 
     private boolean onKeyUp(int keyCode, KeyEvent event) {
@@ -412,12 +381,11 @@ public class LiveTvGuideFragment extends Fragment implements LiveTvGuide, View.O
     private void pageGuideTo(LocalDateTime startTime) {
         if (startTime.isBefore(LocalDateTime.now())) startTime = LocalDateTime.now();
         Timber.i("page to %s", startTime);
-        TvManager.forceReload(); // don't allow cache
         if (mSelectedProgram != null) {
             mFirstFocusChannelId = mSelectedProgram.getChannelId();
         }
         fillTimeLine(startTime, getGuideHours());
-        loadProgramData();
+        displayGuide();
     }
 
     private LiveProgramDetailPopup mDetailPopup;
@@ -454,250 +422,100 @@ public class LiveTvGuideFragment extends Fragment implements LiveTvGuide, View.O
     }
 
     public void displayChannels(int start, int max) {
-        int end = start + max;
-        if (end > mAllChannels.size()) {
-            end = mAllChannels.size();
-        }
-
-        if (mFilters.any()) {
-            // if we are filtered, then we need to get programs for all channels
-            mCurrentDisplayChannelStartNdx = 0;
-            mCurrentDisplayChannelEndNdx = mAllChannels.size()-1;
-        } else {
-            mCurrentDisplayChannelStartNdx = start;
-            mCurrentDisplayChannelEndNdx = end - 1;
+        if (mFirstFocusChannelId == null) {
+            mFirstFocusChannelId = mAllChannels.get(Math.min(start, mAllChannels.size() - 1)).getId();
         }
-        Timber.d("*** Display channels pre-execute");
-        mSpinner.setVisibility(View.VISIBLE);
 
-        loadProgramData();
+        displayGuide();
     }
 
-    private void loadProgramData() {
-        mProgramRows.removeAllViews();
-        mChannels.removeAllViews();
+    private void displayGuide() {
+        if (mAllChannels == null || mAllChannels.isEmpty()) return;
+
+        Timber.d("*** Display guide");
+        mSpinner.setVisibility(View.VISIBLE);
         mChannelStatus.setText("");
         mFilterStatus.setText("");
-        TvManager.getProgramsAsync(this, mCurrentDisplayChannelStartNdx, mCurrentDisplayChannelEndNdx, mCurrentGuideStart, mCurrentGuideEnd, new EmptyResponse() {
-            @Override
-            public void onResponse() {
-                Timber.d("*** Programs response");
-                if (mDisplayProgramsTask != null) mDisplayProgramsTask.cancel(true);
-                mDisplayProgramsTask = new DisplayProgramsTask();
-                mDisplayProgramsTask.execute(mCurrentDisplayChannelStartNdx, mCurrentDisplayChannelEndNdx);
-            }
-        });
-    }
-
-    DisplayProgramsTask mDisplayProgramsTask;
-    class DisplayProgramsTask extends AsyncTask<Integer, Integer, Void> {
-
-        View firstFocusView;
-        int displayedChannels = 0;
-
-        @Override
-        protected void onPreExecute() {
-            Timber.d("*** Display programs pre-execute");
-            mChannels.removeAllViews();
-            mProgramRows.removeAllViews();
-
-            if (mCurrentDisplayChannelStartNdx > 0) {
-                // Show a paging row for channels above
-                int pageUpStart = mCurrentDisplayChannelStartNdx - PAGE_SIZE;
-                if (pageUpStart < 0) {
-                    pageUpStart = 0;
-                }
+        mRequestedPages.clear();
 
-                TextView placeHolder = new TextView(requireContext());
-                placeHolder.setHeight(guideRowHeightPx);
-                mChannels.addView(placeHolder);
-                displayedChannels = 0;
+        if (mFilters.any()) {
+            // if we are filtered, then we need to get programs for all channels and only show the matching ones
+            TvManager.getProgramsAsync(this, 0, mAllChannels.size() - 1, mCurrentGuideStart, mCurrentGuideEnd, new EmptyResponse() {
+                @Override
+                public void onResponse() {
+                    if (!getLifecycle().getCurrentState().isAtLeast(Lifecycle.State.STARTED)) return;
 
-                String label = TextUtilsKt.getLoadChannelsLabel(requireContext(), mAllChannels.get(pageUpStart).getNumber(), mAllChannels.get(mCurrentDisplayChannelStartNdx - 1).getNumber());
-                mProgramRows.addView(new GuidePagingButton(requireContext(), LiveTvGuideFragment.this, pageUpStart, label));
-            }
-        }
+                    List<BaseItemDto> channels = new ArrayList<>();
+                    for (BaseItemDto channel : mAllChannels) {
+                        List<BaseItemDto> programs = TvManager.getProgramsForChannel(channel.getId(), mCurrentGuideStart, mCurrentGuideEnd, mFilters);
+                        if (programs != null && !programs.isEmpty()) channels.add(channel);
+                    }
 
-        @Override
-        protected Void doInBackground(Integer... params) {
-            int start = params[0];
-            int end = params[1];
-            boolean first = true;
-
-            Timber.d("*** About to iterate programs");
-            LinearLayout prevRow = null;
-            for (int i = start; i <= end; i++) {
-                if (isCancelled()) return null;
-                final BaseItemDto channel = TvManager.getChannel(i);
-                List<BaseItemDto> programs = TvManager.getProgramsForChannel(channel.getId(), mFilters);
-                final LinearLayout row = getProgramRow(programs, channel.getId());
-                if (row == null) continue; // no row to show
-
-                if (first) {
-                    first = false;
-                    firstFocusView = row;
+                    mGuideGrid.setChannels(channels);
+                    mGuideGrid.setTimeRange(mCurrentGuideStart, mCurrentGuideEnd);
+                    onGuideDisplayed();
                 }
 
-                // set focus parameters if we are not on first row
-                // this makes focus movements more predictable for the grid view
-                if (prevRow != null) {
-                    TvManager.setFocusParams(row, prevRow, true);
-                    TvManager.setFocusParams(prevRow, row, false);
+                @Override
+                public void onError(Exception exception) {
+                    // Show the guide with whatever is cached so the spinner doesn't stay up
+                    onResponse();
                 }
-                prevRow = row;
-
-                requireActivity().runOnUiThread(new Runnable() {
-                    @Override
-                    public void run() {
-                        if (!getLifecycle().getCurrentState().isAtLeast(Lifecycle.State.STARTED)) return;
-
-                        GuideChannelHeader header = getChannelHeader(requireContext(), channel);
-                        mChannels.addView(header);
-                        header.loadImage();
-                        mProgramRows.addView(row);
-                        // put focus on the last tuned channel
-                        if (channel.getId().equals(mFirstFocusChannelId)) {
-                            firstFocusView = focusAtEnd ? row.getChildAt(row.getChildCount()-1) : row;
-                            focusAtEnd = false;
-                            mFirstFocusChannelId = null;
-                        }
-
-                    }
-                });
+            });
+        } else {
+            mGuideGrid.setChannels(mAllChannels);
+            mGuideGrid.setTimeRange(mCurrentGuideStart, mCurrentGuideEnd);
 
-                displayedChannels++;
-            }
-            return null;
+            mFocusPage = Math.max(mGuideGrid.getPosition(mFirstFocusChannelId), 0) / PAGE_SIZE;
+            loadProgramPage(mFocusPage);
         }
+    }
 
-        @Override
-        protected void onPostExecute(Void aVoid) {
-            Timber.d("*** Display programs post execute");
-            if (mCurrentDisplayChannelEndNdx < mAllChannels.size()-1 && !mFilters.any()) {
-                // Show a paging row for channels below
-                int pageDnEnd = mCurrentDisplayChannelEndNdx + PAGE_SIZE;
-                if (pageDnEnd >= mAllChannels.size()) pageDnEnd = mAllChannels.size()-1;
-
-                TextView placeHolder = new TextView(requireContext());
-                placeHolder.setHeight(guideRowHeightPx);
-                mChannels.addView(placeHolder);
-
-                String label = TextUtilsKt.getLoadChannelsLabel(requireContext(), mAllChannels.get(mCurrentDisplayChannelEndNdx + 1).getNumber(), mAllChannels.get(pageDnEnd).getNumber());
-                mProgramRows.addView(new GuidePagingButton(requireContext(), LiveTvGuideFragment.this, mCurrentDisplayChannelEndNdx + 1, label));
-            }
+    /**
+     * Load the programs for a page of channels, rows are shown empty until their page is loaded.
+     */
+    private void loadProgramPage(int page) {
+        if (mFilters.any() || !mRequestedPages.add(page)) return;
 
-            mChannelStatus.setText(displayedChannels+" of "+mAllChannels.size()+" channels");
-            mFilterStatus.setText(mFilters.toString() + " for "+getGuideHours()+" hours");
-            mFilterStatus.setTextColor(mFilters.any() ? Color.WHITE : Color.GRAY);
+        int start = page * PAGE_SIZE;
+        int end = Math.min(start + PAGE_SIZE, mAllChannels.size()) - 1;
+        if (start > end) return;
 
-            mResetButton.setVisibility(mCurrentGuideStart.isAfter(LocalDateTime.now()) ? View.VISIBLE : View.GONE); // show reset button if paged ahead
+        TvManager.getProgramsAsync(this, start, end, mCurrentGuideStart, mCurrentGuideEnd, new EmptyResponse() {
+            @Override
+            public void onResponse() {
+                Timber.d("*** Programs response for channels %d to %d", start, end);
+                if (!getLifecycle().getCurrentState().isAtLeast(Lifecycle.State.STARTED)) return;
 
-            mSpinner.setVisibility(View.GONE);
-            if (firstFocusView != null) {
-                firstFocusView.requestFocus();
+                mGuideGrid.refreshPrograms(start, end - start + 1);
+                if (page == mFocusPage && mSpinner.getVisibility() == View.VISIBLE) onGuideDisplayed();
             }
-        }
-    }
-
-    private int currentCellId = 0;
 
-    private GuideChannelHeader getChannelHeader(Context context, org.jellyfin.sdk.model.api.BaseItemDto channel){
-        return new GuideChannelHeader(context, this, channel);
-    }
-
-    private LinearLayout getProgramRow(List<BaseItemDto> programs, UUID channelId) {
-
-        LinearLayout programRow = new LinearLayout(requireContext());
-
-        if (programs.size() == 0) {
-            if (mFilters.any()) return null; // don't show rows with no program data
-
-            int minutes = ((Long) ((mCurrentGuideEnd.toInstant(ZoneOffset.UTC).toEpochMilli() - mCurrentGuideStart.toInstant(ZoneOffset.UTC).toEpochMilli()) / 60000)).intValue();
-            int slot = 0;
-            do {
-                BaseItemDto empty = LiveTvGuideFragmentHelperKt.createNoProgramDataBaseItem(
-                        getContext(),
-                        channelId,
-                        mCurrentGuideStart.plusMinutes(30l * slot),
-                        mCurrentGuideEnd.plusMinutes(30l * (slot + 1))
-                );
-
-                ProgramGridCell cell = new ProgramGridCell(requireContext(), this, empty, false);
-                cell.setId(currentCellId++);
-                cell.setLayoutParams(new ViewGroup.LayoutParams(30 * guideRowWidthPerMinPx, guideRowHeightPx));
-                programRow.addView(cell);
-                if (slot == 0)
-                    cell.setFirst();
-                if (slot == (minutes / 30) - 1)
-                    cell.setLast();
-                slot++;
-            } while((30*slot) < minutes);
-            return programRow;
-        }
+            @Override
+            public void onError(Exception exception) {
+                Timber.w(exception, "Unable to load programs for channels %d to %d", start, end);
+                // Request the page again when its rows are shown next time
+                mRequestedPages.remove(page);
+                if (!getLifecycle().getCurrentState().isAtLeast(Lifecycle.State.STARTED)) return;
 
-        LocalDateTime prevEnd = getCurrentLocalStartDate();
-        for (BaseItemDto item : programs) {
-            LocalDateTime start = item.getStartDate() != null ? item.getStartDate() : getCurrentLocalStartDate();
-            if (start.isBefore(getCurrentLocalStartDate())) {
-                start = getCurrentLocalStartDate();
+                if (page == mFocusPage && mSpinner.getVisibility() == View.VISIBLE) onGuideDisplayed();
             }
+        });
+    }
 
-            if (start.isBefore(prevEnd))
-                continue;
-
-            if (start.isAfter(prevEnd)) {
-                // fill empty time slot
-                BaseItemDto empty = LiveTvGuideFragmentHelperKt.createNoProgramDataBaseItem(
-                        getContext(),
-                        channelId,
-                        prevEnd,
-                        start
-                );
-
-                ProgramGridCell cell = new ProgramGridCell(requireContext(), this, empty, false);
-                cell.setId(currentCellId++);
-                cell.setLayoutParams(new ViewGroup.LayoutParams(((Long) ((start.toInstant(ZoneOffset.UTC).toEpochMilli() - prevEnd.toInstant(ZoneOffset.UTC).toEpochMilli()) / 60000)).intValue() * guideRowWidthPerMinPx, guideRowHeightPx));
-                if (prevEnd == mCurrentGuideStart) {
-                    cell.setFirst();
-                }
-                programRow.addView(cell);
-            }
-            LocalDateTime end = item.getEndDate() != null ? item.getEndDate() : getCurrentLocalEndDate();
-            if (end.isAfter(getCurrentLocalEndDate())) end = getCurrentLocalEndDate();
-            prevEnd = end;
-            Long duration = (end.toInstant(ZoneOffset.UTC).toEpochMilli() - start.toInstant(ZoneOffset.UTC).toEpochMilli()) / 60000;
-            if (duration > 0) {
-                ProgramGridCell program = new ProgramGridCell(requireContext(), this, item, false);
-                program.setId(currentCellId++);
-                program.setLayoutParams(new ViewGroup.LayoutParams(duration.intValue() * guideRowWidthPerMinPx, guideRowHeightPx));
-                if (start == mCurrentGuideStart) {
-                    program.setFirst();
-                }
-                if (end == mCurrentGuideEnd) {
-                    program.setLast();
-                }
+    private void onGuideDisplayed() {
+        mChannelStatus.setText(mGuideGrid.getChannels().size()+" of "+mAllChannels.size()+" channels");
+        mFilterStatus.setText(mFilters.toString() + " for "+getGuideHours()+" hours");
+        mFilterStatus.setTextColor(mFilters.any() ? Color.WHITE : Color.GRAY);
 
-                programRow.addView(program);
-            }
-        }
+        mResetButton.setVisibility(mCurrentGuideStart.isAfter(LocalDateTime.now()) ? View.VISIBLE : View.GONE); // show reset button if paged ahead
 
-        //If not at end of time period - fill in the rest
-        if (prevEnd.isBefore(mCurrentGuideEnd)) {
-            // fill empty time slot
-            BaseItemDto empty = LiveTvGuideFragmentHelperKt.createNoProgramDataBaseItem(
-                    getContext(),
-                    channelId,
-                    prevEnd,
-                    mCurrentGuideEnd
-            );
-
-            ProgramGridCell cell = new ProgramGridCell(requireContext(), this, empty, false);
-            cell.setId(currentCellId++);
-            cell.setLayoutParams(new ViewGroup.LayoutParams(((Long)((mCurrentGuideEnd.toInstant(ZoneOffset.UTC).toEpochMilli() - prevEnd.toInstant(ZoneOffset.UTC).toEpochMilli()) / 60000)).intValue() * guideRowWidthPerMinPx, guideRowHeightPx));
-            programRow.addView(cell);
-        }
+        mSpinner.setVisibility(View.GONE);
 
-        return programRow;
+        // put focus on the last tuned channel
+        mGuideGrid.focusRow(Math.max(mGuideGrid.getPosition(mFirstFocusChannelId), 0), focusAtEnd);
+        focusAtEnd = false;
+        mFirstFocusChannelId = null;
     }
 
     private void fillTimeLine(LocalDateTime start, int hours) {
@@ -763,23 +581,11 @@ public class LiveTvGuideFragment extends Fragment implements LiveTvGuide, View.O
             mHandler.removeCallbacks(detailUpdateTask);
             mHandler.postDelayed(detailUpdateTask, 500);
         } else if (mSelectedProgramView instanceof GuideChannelHeader) {
-            for (int i = 0; i < mChannels.getChildCount(); i++) {
-                if (mSelectedProgramView == mChannels.getChildAt(i)) {
-                    LinearLayout programRow = (LinearLayout)mProgramRows.getChildAt(i);
-                    if (programRow == null)
-                        return;
-                    for (int ii = 0; ii < programRow.getChildCount(); ii++) {
-                        ProgramGridCell prog = (ProgramGridCell)programRow.getChildAt(ii);
-                        if (prog.getProgram() != null && prog.getProgram().getStartDate().isBefore(LocalDateTime.now()) && prog.getProgram().getEndDate().isAfter(LocalDateTime.now())) {
-                            mSelectedProgram = prog.getProgram();
-                            if (mSelectedProgram != null) {
-                                mHandler.removeCallbacks(detailUpdateTask);
-                                mHandler.postDelayed(detailUpdateTask, 500);
-                            }
-                            return;
-                        }
-                    }
-                }
+            BaseItemDto program = mGuideGrid.getProgramAt(mSelectedProgramView, LocalDateTime.now());
+            if (program != null) {
+                mSelectedProgram = program;
+                mHandler.removeCallbacks(detailUpdateTask);
+                mHandler.postDelayed(detailUpdateTask, 500);
             }
         }
     }
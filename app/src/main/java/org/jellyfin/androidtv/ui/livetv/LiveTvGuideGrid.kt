@@ -0,0 +1,200 @@
+package org.jellyfin.androidtv.ui.livetv
+
+import android.view.View
+import android.widget.HorizontalScrollView
+import androidx.recyclerview.widget.LinearLayoutManager
+import androidx.recyclerview.widget.RecyclerView
+import org.jellyfin.androidtv.ui.GuideChannelHeader
+import org.jellyfin.sdk.model.api.BaseItemDto
+import java.time.Duration
+import java.time.LocalDateTime
+import java.util.UUID
+
+/**
+ * Virtualized program grid of the guide. Channel rows are recycled by the [RecyclerView] and each row only binds the
+ * cells in the visible time range. Focus movement is resolved using the program times instead of the view positions
+ * so it works for cells that are not bound yet.
+ */
+class LiveTvGuideGrid(
+	private val recyclerView: RecyclerView,
+	private val timelineScroller: HorizontalScrollView,
+	guide: LiveTvGuide,
+	rowHeight: Int,
+	private val pixelsPerMinute: Int,
+	getPrograms: (channel: BaseItemDto) -> List<BaseItemDto>?,
+	onProgramsNeeded: (position: Int) -> Unit,
+) {
+	private var guideStart: LocalDateTime = LocalDateTime.now()
+	private var guideEnd: LocalDateTime = LocalDateTime.now()
+	private var scrollOffset = 0
+
+	// The rows are narrower than the screen so this is always enough to fill them
+	private val viewportWidth = recyclerView.resources.displayMetrics.widthPixels
+
+	private val adapter = GuideRowAdapter(
+		guide = guide,
+		rowHeight = rowHeight,
+		pixelsPerMinute = pixelsPerMinute,
+		getCells = { channel ->
+			getPrograms(channel)?.let { programs ->
+				createGuideCells(recyclerView.context, channel.id, programs, guideStart, guideEnd)
+			}
+		},
+		onProgramsNeeded = onProgramsNeeded,
+	)
+
+	init {
+		recyclerView.layoutManager = LinearLayoutManager(recyclerView.context)
+		recyclerView.adapter = adapter
+		recyclerView.itemAnimator = null
+		adapter.viewportWidth = viewportWidth
+	}
+
+	val channels get() = adapter.channels
+
+	fun setChannels(channels: List<BaseItemDto>) {
+		adapter.channels = channels
+	}
+
+	fun setTimeRange(start: LocalDateTime, end: LocalDateTime) {
+		guideStart = start
+		guideEnd = end
+		adapter.guideStart = start
+		setScrollOffset(0)
+		refreshPrograms(0, adapter.itemCount)
+	}
+
+	/**
+	 * Rebind the rows between [positionStart] and [positionStart] + [itemCount] after their programs changed.
+	 */
+	fun refreshPrograms(positionStart: Int, itemCount: Int) {
+		adapter.notifyItemRangeChanged(positionStart, itemCount)
+	}
+
+	fun getPosition(channelId: UUID?): Int = adapter.channels.indexOfFirst { it.id == channelId }
+
+	fun getAttachedHeaders(): List<GuideChannelHeader> = getAttachedViewHolders().map { it.header }
+
+	fun updateChannel(header: GuideChannelHeader) {
+		val holder = recyclerView.findContainingViewHolder(header) as? GuideRowAdapter.ViewHolder ?: return
+		val position = holder.bindingAdapterPosition
+		if (position != RecyclerView.NO_POSITION) adapter.updateChannel(position, header.channel)
+	}
+
+	/**
+	 * Get the program of the row containing [view] that is showing at [time].
+	 */
+	fun getProgramAt(view: View, time: LocalDateTime): BaseItemDto? {
+		val holder = recyclerView.findContainingViewHolder(view) as? GuideRowAdapter.ViewHolder ?: return null
+		val cell = holder.programRow.getGuideCell(holder.programRow.indexAt(time)) ?: return null
+		return cell.program.takeIf { it.startDate?.isAfter(time) == false && it.endDate?.isAfter(time) == true }
+	}
+
+	/**
+	 * Scroll to the row at [position] and focus it. The focused cell is the one showing the current time or the last
+	 * cell when [atEnd] is set.
+	 */
+	fun focusRow(position: Int, atEnd: Boolean) {
+		if (position !in 0 until adapter.itemCount) return
+
+		recyclerView.scrollToPosition(position)
+		recyclerView.post {
+			val holder = recyclerView.findViewHolderForAdapterPosition(position) as? GuideRowAdapter.ViewHolder ?: return@post
+			val row = holder.programRow
+			when {
+				row.cellCount == 0 -> holder.header.requestFocus()
+				atEnd -> focusCell(holder, row.cellCount - 1)
+				else -> focusCell(holder, row.indexAt(maxOf(LocalDateTime.now(), guideStart)))
+			}
+		}
+	}
+
+	/**
+	 * Move focus in [direction], one of the [View] focus directions. Returns true when the focus was handled.
+	 */
+	fun moveFocus(direction: Int): Boolean {
+		val focused = recyclerView.findFocus() ?: return false
+		val holder = recyclerView.findContainingViewHolder(focused) as? GuideRowAdapter.ViewHolder ?: return false
+		val position = holder.bindingAdapterPosition
+		if (position == RecyclerView.NO_POSITION) return false
+
+		if (focused is GuideChannelHeader) return when (direction) {
+			View.FOCUS_UP -> moveToRow(position - 1, null)
+			View.FOCUS_DOWN -> moveToRow(position + 1, null)
+			View.FOCUS_RIGHT -> moveToRow(position, visibleStartTime)
+			else -> false
+		}
+
+		val row = holder.programRow
+		val index = row.indexOfCell(focused)
+		val cell = row.getGuideCell(index) ?: return false
+
+		return when (direction) {
+			View.FOCUS_LEFT -> when {
+				index > 0 -> focusCell(holder, index - 1)
+				// Paging back is handled on key up
+				cell.program.startDate?.isAfter(LocalDateTime.now()) == true -> true
+				else -> holder.header.requestFocus()
+			}
+
+			// Paging forward is handled on key up
+			View.FOCUS_RIGHT -> if (index < row.cellCount - 1) focusCell(holder, index + 1) else true
+			View.FOCUS_UP -> moveToRow(position - 1, maxOf(cell.start, visibleStartTime))
+			View.FOCUS_DOWN -> moveToRow(position + 1, maxOf(cell.start, visibleStartTime))
+			else -> false
+		}
+	}
+
+	private val visibleStartTime get() = guideStart.plusMinutes((scrollOffset / pixelsPerMinute).toLong())
+
+	private fun moveToRow(position: Int, time: LocalDateTime?, canScroll: Boolean = true): Boolean {
+		// Let the default focus search move to the buttons above the guide
+		if (position < 0) return false
+		if (position >= adapter.itemCount) return true
+
+		val holder = recyclerView.findViewHolderForAdapterPosition(position) as? GuideRowAdapter.ViewHolder
+		if (holder == null) {
+			if (canScroll) {
+				recyclerView.scrollToPosition(position)
+				recyclerView.post { moveToRow(position, time, canScroll = false) }
+			}
+			return true
+		}
+
+		val row = holder.programRow
+		if (time == null || row.cellCount == 0) holder.header.requestFocus()
+		else focusCell(holder, row.indexAt(time))
+
+		return true
+	}
+
+	private fun focusCell(holder: GuideRowAdapter.ViewHolder, index: Int): Boolean {
+		val row = holder.programRow
+		val left = row.getCellLeft(index)
+		val right = row.getCellRight(index)
+		val width = row.width
+
+		when {
+			left < scrollOffset -> setScrollOffset(left)
+			right > scrollOffset + width -> setScrollOffset(minOf(left, right - width))
+		}
+
+		row.getCell(index)?.requestFocus()
+		return true
+	}
+
+	private fun setScrollOffset(offset: Int) {
+		val guideWidth = Duration.between(guideStart, guideEnd).toMinutes().toInt() * pixelsPerMinute
+		val rowWidth = getAttachedViewHolders().firstOrNull()?.programRow?.width ?: 0
+		val scrollOffset = offset.coerceIn(0, maxOf(0, guideWidth - rowWidth))
+		if (scrollOffset == this.scrollOffset) return
+
+		this.scrollOffset = scrollOffset
+		adapter.scrollOffset = scrollOffset
+		getAttachedViewHolders().forEach { it.programRow.setScrollOffset(scrollOffset, viewportWidth) }
+		timelineScroller.scrollTo(scrollOffset, 0)
+	}
+
+	private fun getAttachedViewHolders() = (0 until recyclerView.childCount)
+		.mapNotNull { recyclerView.getChildViewHolder(recyclerView.getChildAt(it)) as? GuideRowAdapter.ViewHolder }
+}
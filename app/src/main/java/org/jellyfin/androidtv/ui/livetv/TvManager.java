@@ -6,6 +6,7 @@ import android.text.format.DateUtils;
 import android.widget.LinearLayout;
 import android.widget.TextView;
 
+import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 import androidx.leanback.widget.HeaderItem;
 import androidx.leanback.widget.ListRow;
@@ -24,13 +25,13 @@ import org.jellyfin.androidtv.util.apiclient.EmptyResponse;
 import org.jellyfin.sdk.model.api.BaseItemDto;
 import org.koin.java.KoinJavaComponent;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -42,8 +43,8 @@ import timber.log.Timber;
 public class TvManager {
     private static List<BaseItemDto> allChannels;
     private static UUID[] channelIds;
-    private static HashMap<UUID, ArrayList<BaseItemDto>> mProgramsDict = new HashMap<>();
-    private static LocalDateTime needLoadTime;
+    private static final GuideProgramCache programCache = new GuideProgramCache();
+    private static Map<UUID, List<BaseItemDto>> mProgramsDict = new HashMap<>();
     private static boolean forceReload;
 
     public static UUID getLastLiveTvChannel() {
@@ -123,42 +124,39 @@ public class TvManager {
 
     public static void getProgramsAsync(Fragment fragment, int startNdx, int endNdx, final LocalDateTime startTime, LocalDateTime endTime, final EmptyResponse outerResponse) {
         LocalDateTime startTimeRounded = startTime.withMinute(startTime.getMinute() >= 30 ? 30 : 0).withSecond(0).withNano(0);
-        LocalDateTime endTimeRounded = endTime.minusSeconds(1);
 
-        if (forceReload || needLoadTime == null || startTimeRounded.isAfter(needLoadTime) || !mProgramsDict.containsKey(channelIds[startNdx]) || !mProgramsDict.containsKey(channelIds[endNdx])) {
+        if (forceReload) {
             forceReload = false;
+            programCache.clear();
+        }
 
-            endNdx = endNdx > channelIds.length ? channelIds.length : endNdx+1; //array copy range final ndx is exclusive
-
-            TvManagerHelperKt.getPrograms(fragment, Arrays.copyOfRange(channelIds, startNdx, endNdx), startTimeRounded, endTimeRounded, programs -> {
-                if (programs != null) {
-                    Timber.d("*** About to build dictionary");
-                    buildProgramsDict(programs, startTimeRounded);
-                    Timber.d("*** Programs retrieval finished");
-
-                    outerResponse.onResponse();
-                } else {
-                    outerResponse.onResponse();
-                }
-
+        int pageSize = endNdx - startNdx + 1;
+        endNdx = Math.min(endNdx + 1, channelIds.length); //array copy range final ndx is exclusive
+        List<UUID> pageChannelIds = Arrays.asList(Arrays.copyOfRange(channelIds, startNdx, endNdx));
+        final int nextPageEndNdx = Math.min(endNdx + pageSize, channelIds.length);
+        final int prevPageStartNdx = Math.max(startNdx - pageSize, 0);
+        final int pageStartNdx = startNdx;
+        final int pageEndNdx = endNdx;
+
+        Timber.d("*** About to get programs");
+        TvManagerHelperKt.loadGuidePrograms(fragment, programCache, pageChannelIds, startTimeRounded, endTime, programs -> {
+            if (programs == null) {
+                outerResponse.onError(new Exception("Unable to load programs for channels " + pageStartNdx + " to " + pageEndNdx));
                 return null;
-            });
+            }
 
-            Timber.d("*** About to get programs");
-        } else {
+            mProgramsDict = new HashMap<>(programs);
+            Timber.d("*** Programs retrieval finished");
             outerResponse.onResponse();
-        }
-    }
 
-    private static void buildProgramsDict(Collection<BaseItemDto> programs, LocalDateTime startTime) {
-        mProgramsDict = new HashMap<>();
-        for (BaseItemDto program : programs) {
-            UUID id = program.getChannelId();
-            if (!mProgramsDict.containsKey(id)) mProgramsDict.put(id, new ArrayList<BaseItemDto>());
-            if (program.getEndDate().isAfter(startTime))
-                mProgramsDict.get(id).add(program);
-        }
-        needLoadTime = startTime.plusMinutes(29);
+            // Load the neighbouring pages in the background so paging is served from memory
+            Duration guideDuration = Duration.between(startTimeRounded, endTime);
+            TvManagerHelperKt.prefetchGuidePrograms(fragment, programCache, Arrays.asList(Arrays.copyOfRange(channelIds, pageEndNdx, nextPageEndNdx)), startTimeRounded, endTime);
+            TvManagerHelperKt.prefetchGuidePrograms(fragment, programCache, pageChannelIds, endTime, endTime.plus(guideDuration));
+            TvManagerHelperKt.prefetchGuidePrograms(fragment, programCache, Arrays.asList(Arrays.copyOfRange(channelIds, prevPageStartNdx, pageStartNdx)), startTimeRounded, endTime);
+
+            return null;
+        });
     }
 
     public static List<BaseItemDto> getProgramsForChannel(UUID channelId, GuideFilters filters) {
@@ -176,6 +174,24 @@ public class TvManager {
         return passes ? results : new ArrayList<BaseItemDto>();
     }
 
+    /**
+     * Get the cached programs for a channel between startTime and endTime, returns null when they are not loaded yet.
+     */
+    @Nullable
+    public static List<BaseItemDto> getProgramsForChannel(UUID channelId, LocalDateTime startTime, LocalDateTime endTime, GuideFilters filters) {
+        if (!programCache.hasPrograms(channelId, startTime, endTime)) return null;
+
+        List<BaseItemDto> results = programCache.getPrograms(channelId, startTime, endTime);
+        if (filters == null || !filters.any()) return results;
+
+        // There are filters - only show the channel when one of its programs passes
+        for (BaseItemDto program : results) {
+            if (filters.passesFilter(program)) return results;
+        }
+
+        return new ArrayList<>();
+    }
+
     public static List<BaseItemDto> getProgramsForChannel(UUID channelId) {
         return !mProgramsDict.containsKey(channelId) ? new ArrayList<BaseItemDto>() : mProgramsDict.get(channelId);
     }
@@ -16,6 +16,7 @@ import org.jellyfin.sdk.model.api.MediaType
 import org.jellyfin.sdk.model.api.SortOrder
 import org.jellyfin.sdk.model.serializer.toUUIDOrNull
 import org.koin.android.ext.android.inject
+import timber.log.Timber
 import java.time.LocalDate
 import java.time.LocalDateTime
 import java.util.UUID
@@ -52,25 +53,22 @@ fun loadLiveTvChannels(fragment: Fragment, callback: (channels: Collection<BaseI
 	}
 }
 
-fun getPrograms(
+fun loadGuidePrograms(
 	fragment: Fragment,
-	channelIds: Array<UUID>,
+	programCache: GuideProgramCache,
+	channelIds: List<UUID>,
 	startTime: LocalDateTime,
 	endTime: LocalDateTime,
-	callback: (programs: Collection<BaseItemDto>?) -> Unit,
+	callback: (programs: Map<UUID, List<BaseItemDto>>?) -> Unit,
 ) {
 	val api by fragment.inject<ApiClient>()
 
 	fragment.lifecycleScope.launch {
 		runCatching {
-			withContext(Dispatchers.IO) {
-				api.liveTvApi.getLiveTvPrograms(
-					channelIds = channelIds.toList(),
-					enableImages = false,
-					sortBy = setOf(ItemSortBy.START_DATE),
-					maxStartDate = endTime,
-					minEndDate = startTime,
-				).content.items
+			programCache.load(api, channelIds, startTime, endTime)
+
+			withContext(Dispatchers.Default) {
+				channelIds.associateWith { channelId -> programCache.getPrograms(channelId, startTime, endTime) }
 			}
 		}.fold(
 			onSuccess = { programs -> callback(programs) },
@@ -79,6 +77,26 @@ fun getPrograms(
 	}
 }
 
+fun prefetchGuidePrograms(
+	fragment: Fragment,
+	programCache: GuideProgramCache,
+	channelIds: List<UUID>,
+	startTime: LocalDateTime,
+	endTime: LocalDateTime,
+) {
+	if (channelIds.isEmpty()) return
+
+	val api by fragment.inject<ApiClient>()
+
+	fragment.lifecycleScope.launch {
+		runCatching {
+			programCache.load(api, channelIds, startTime, endTime)
+		}.onFailure { error ->
+			Timber.w(error, "Unable to prefetch guide programs")
+		}
+	}
+}
+
 fun getScheduleRows(
 	fragment: Fragment,
 	seriesTimerId: String?,
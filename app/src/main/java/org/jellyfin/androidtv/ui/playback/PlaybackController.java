@@ -32,7 +32,7 @@ import org.jellyfin.androidtv.util.TimeUtils;
 import org.jellyfin.androidtv.util.Utils;
 import org.jellyfin.androidtv.util.apiclient.ReportingHelper;
 import org.jellyfin.androidtv.util.apiclient.Response;
-import org.jellyfin.androidtv.util.profile.DeviceProfileKt;
+import org.jellyfin.androidtv.util.profile.DeviceProfileProvider;
 import org.jellyfin.androidtv.util.sdk.compat.JavaCompat;
 import org.jellyfin.sdk.model.api.BaseItemDto;
 import org.jellyfin.sdk.model.api.BaseItemKind;
@@ -68,6 +68,7 @@ public class PlaybackController implements PlaybackControllerNotifiable {
     private Lazy<org.jellyfin.sdk.api.client.ApiClient> api = inject(org.jellyfin.sdk.api.client.ApiClient.class);
     private Lazy<DataRefreshService> dataRefreshService = inject(DataRefreshService.class);
     private Lazy<ReportingHelper> reportingHelper = inject(ReportingHelper.class);
+    private Lazy<DeviceProfileProvider> deviceProfileProvider = inject(DeviceProfileProvider.class);
 
     List<BaseItemDto> mItems;
     VideoManager mVideoManager;
@@ -648,10 +649,7 @@ public class PlaybackController implements PlaybackControllerNotifiable {
             }
         }
 
-        DeviceProfile internalProfile = DeviceProfileKt.createDeviceProfile(
-                userPreferences.getValue(),
-                !internalOptions.getEnableDirectStream()
-        );
+        DeviceProfile internalProfile = deviceProfileProvider.getValue().getProfile(!internalOptions.getEnableDirectStream());
         internalOptions.setProfile(internalProfile);
         return internalOptions;
     }
@@ -810,7 +808,7 @@ public class PlaybackController implements PlaybackControllerNotifiable {
             }
 
             dataRefreshService.getValue().setLastPlayedItem(item);
-            reportingHelper.getValue().reportStart(mFragment, PlaybackController.this, item, response, mbPos, false);
+            reportingHelper.getValue().reportStart(PlaybackController.this, item, response, mbPos, false);
 
             return null;
         });
@@ -993,7 +991,7 @@ public class PlaybackController implements PlaybackControllerNotifiable {
             if (mVideoManager != null && mVideoManager.isPlaying()) mVideoManager.stopPlayback();
             if (getCurrentlyPlayingItem() != null && mCurrentStreamInfo != null) {
                 Long mbPos = mCurrentPosition * 10000;
-                reportingHelper.getValue().reportStopped(mFragment, getCurrentlyPlayingItem(), mCurrentStreamInfo, mbPos);
+                reportingHelper.getValue().reportStopped(getCurrentlyPlayingItem(), mCurrentStreamInfo, mbPos);
             }
             clearPlaybackSessionOptions();
         }
@@ -1223,7 +1221,7 @@ public class PlaybackController implements PlaybackControllerNotifiable {
         if (mCurrentStreamInfo == null) return;
 
         stopReportLoop();
-        reportingHelper.getValue().reportProgress(mFragment, this, getCurrentlyPlayingItem(), getCurrentStreamInfo(), mCurrentPosition * 10000, false);
+        reportingHelper.getValue().reportProgress(this, getCurrentlyPlayingItem(), getCurrentStreamInfo(), mCurrentPosition * 10000, false);
         mReportLoop = new Runnable() {
             @Override
             public void run() {
@@ -1231,7 +1229,7 @@ public class PlaybackController implements PlaybackControllerNotifiable {
                     refreshCurrentPosition();
                     long currentTime = isLiveTv ? getTimeShiftedProgress() : mCurrentPosition;
 
-                    reportingHelper.getValue().reportProgress(mFragment, PlaybackController.this, getCurrentlyPlayingItem(), getCurrentStreamInfo(), currentTime * 10000, false);
+                    reportingHelper.getValue().reportProgress(PlaybackController.this, getCurrentlyPlayingItem(), getCurrentStreamInfo(), currentTime * 10000, false);
                 }
                 if (mPlaybackState != PlaybackState.UNDEFINED && mPlaybackState != PlaybackState.IDLE) {
                     mHandler.postDelayed(this, PROGRESS_REPORTING_INTERVAL);
@@ -1244,7 +1242,7 @@ public class PlaybackController implements PlaybackControllerNotifiable {
     private void startPauseReportLoop() {
         stopReportLoop();
         if (mCurrentStreamInfo == null) return;
-        reportingHelper.getValue().reportProgress(mFragment, this, getCurrentlyPlayingItem(), mCurrentStreamInfo, mCurrentPosition * 10000, true);
+        reportingHelper.getValue().reportProgress(this, getCurrentlyPlayingItem(), mCurrentStreamInfo, mCurrentPosition * 10000, true);
         mReportLoop = new Runnable() {
             @Override
             public void run() {
@@ -1265,7 +1263,7 @@ public class PlaybackController implements PlaybackControllerNotifiable {
                     mFragment.setSecondaryTime(getRealTimeProgress());
                 }
 
-                reportingHelper.getValue().reportProgress(mFragment, PlaybackController.this, currentItem, getCurrentStreamInfo(), currentTime * 10000, true);
+                reportingHelper.getValue().reportProgress(PlaybackController.this, currentItem, getCurrentStreamInfo(), currentTime * 10000, true);
                 mHandler.postDelayed(this, PROGRESS_REPORTING_PAUSE_INTERVAL);
             }
         };
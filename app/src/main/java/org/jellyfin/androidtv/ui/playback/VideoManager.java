@@ -33,6 +33,7 @@ import androidx.media3.datasource.HttpDataSource;
 import androidx.media3.exoplayer.DefaultRenderersFactory;
 import androidx.media3.exoplayer.ExoPlayer;
 import androidx.media3.exoplayer.analytics.AnalyticsListener;
+import androidx.media3.exoplayer.upstream.DefaultBandwidthMeter;
 import androidx.media3.exoplayer.source.DefaultMediaSourceFactory;
 import androidx.media3.exoplayer.trackselection.DefaultTrackSelector;
 import androidx.media3.exoplayer.util.EventLogger;
@@ -48,6 +49,11 @@ import org.jellyfin.androidtv.R;
 import org.jellyfin.androidtv.data.compat.StreamInfo;
 import org.jellyfin.androidtv.preference.UserPreferences;
 import org.jellyfin.androidtv.preference.constant.ZoomMode;
+import org.jellyfin.androidtv.telemetry.PlaybackSessionRepository;
+import org.jellyfin.androidtv.util.DeviceMemoryUtils;
+import org.jellyfin.playback.media3.exoplayer.buffer.AdaptiveLoadControl;
+import org.jellyfin.playback.media3.exoplayer.buffer.AdaptiveLoadControlKt;
+import org.jellyfin.playback.media3.exoplayer.telemetry.PlaybackSessionTracker;
 import org.jellyfin.sdk.api.client.ApiClient;
 import org.jellyfin.sdk.model.api.MediaStream;
 import org.jellyfin.sdk.model.api.MediaStreamType;
@@ -65,6 +71,7 @@ import io.github.peerless2012.ass.media.kt.AssPlayerKt;
 import io.github.peerless2012.ass.media.parser.AssSubtitleParserFactory;
 import io.github.peerless2012.ass.media.type.AssRenderType;
 import io.github.peerless2012.ass.media.widget.AssSubtitleView;
+import kotlin.Unit;
 import timber.log.Timber;
 
 @OptIn(markerClass = UnstableApi.class)
@@ -77,6 +84,8 @@ public class VideoManager {
     private PlaybackControllerNotifiable mPlaybackControllerNotifiable;
     private PlaybackOverlayFragmentHelper _helper;
     public ExoPlayer mExoPlayer;
+    private AdaptiveLoadControl mLoadControl;
+    private PlaybackSessionTracker mSessionTracker;
     private PlayerView mExoPlayerView;
     private Handler mHandler = new Handler();
 
@@ -90,6 +99,7 @@ public class VideoManager {
 
     private final UserPreferences userPreferences = KoinJavaComponent.get(UserPreferences.class);
     private final HttpDataSource.Factory exoPlayerHttpDataSourceFactory = KoinJavaComponent.get(HttpDataSource.Factory.class);
+    private final PlaybackSessionRepository playbackSessionRepository = KoinJavaComponent.get(PlaybackSessionRepository.class);
 
     public VideoManager(@NonNull Activity activity, @NonNull View view, @NonNull PlaybackOverlayFragmentHelper helper) {
         mActivity = activity;
@@ -101,6 +111,12 @@ public class VideoManager {
 
         mExoPlayer = configureExoplayerBuilder(activity, assHandler).build();
 
+        mSessionTracker = new PlaybackSessionTracker(mLoadControl.getMetrics(), record -> {
+            playbackSessionRepository.add(record);
+            return Unit.INSTANCE;
+        });
+        mExoPlayer.addAnalyticsListener(mSessionTracker);
+
         if (userPreferences.get(UserPreferences.Companion.getDebuggingEnabled())) {
             mExoPlayer.addAnalyticsListener(new EventLogger());
         }
@@ -196,6 +212,9 @@ public class VideoManager {
             @Override
             public void onTracksChanged(Tracks tracks) {
                 Timber.d("Tracks changed");
+                // Containers like MKV often don't report a bitrate, keep the one from the server in that case
+                long bitrate = AdaptiveLoadControlKt.getSelectedBitrate(tracks);
+                if (bitrate > 0) mLoadControl.setStreamBitrate(bitrate);
             }
 
             @Override
@@ -268,6 +287,11 @@ public class VideoManager {
         );
         exoPlayerBuilder.setTrackSelector(trackSelector);
 
+        DefaultBandwidthMeter bandwidthMeter = DefaultBandwidthMeter.getSingletonInstance(context);
+        mLoadControl = AdaptiveLoadControl.Companion.create(bandwidthMeter, userPreferences.get(UserPreferences.Companion.getBufferProfile()).getProfile(), DeviceMemoryUtils.INSTANCE.isLowEndDevice(context));
+        exoPlayerBuilder.setBandwidthMeter(bandwidthMeter);
+        exoPlayerBuilder.setLoadControl(mLoadControl);
+
         DefaultExtractorsFactory extractorsFactory = new DefaultExtractorsFactory().setTsExtractorTimestampSearchBytes(TsExtractor.DEFAULT_TIMESTAMP_SEARCH_BYTES * 3);
         extractorsFactory.setConstantBitrateSeekingEnabled(true);
         extractorsFactory.setConstantBitrateSeekingAlwaysEnabled(true);
@@ -364,6 +388,8 @@ public class VideoManager {
     }
 
     public void stopPlayback() {
+        if (mSessionTracker != null) mSessionTracker.finishSession();
+
         if (mExoPlayer != null) {
             mExoPlayer.stop();
 
@@ -430,6 +456,12 @@ public class VideoManager {
                 }
             }
 
+            // Use the bitrate reported by the server until the tracks are known
+            Integer bitrate = streamInfo.getMediaSource().getBitrate();
+            mLoadControl.setStreamBitrate(bitrate != null ? bitrate : 0);
+
+            mSessionTracker.startSession(streamInfo.getMediaSource().getName(), streamInfo.getPlayMethod().getSerialName());
+
             MediaItem mediaItem = new MediaItem.Builder()
                     .setUri(Uri.parse(path))
                     .setSubtitleConfigurations(subtitleConfigurations)
@@ -1,23 +1,32 @@
 package org.jellyfin.androidtv.ui.playback.overlay
 
 import android.content.Context
+import android.graphics.Bitmap
+import android.util.LruCache
 import androidx.leanback.widget.PlaybackSeekDataProvider
 import coil3.ImageLoader
 import coil3.network.NetworkHeaders
 import coil3.network.httpHeaders
+import coil3.request.CachePolicy
 import coil3.request.Disposable
 import coil3.request.ImageRequest
-import coil3.request.transformations
+import coil3.request.allowHardware
+import coil3.request.bitmapConfig
 import coil3.size.Size
 import coil3.toBitmap
-import org.jellyfin.androidtv.util.coil.SubsetTransformation
 import org.jellyfin.sdk.api.client.ApiClient
 import org.jellyfin.sdk.api.client.extensions.trickplayApi
 import org.jellyfin.sdk.api.client.util.AuthorizationHeaderBuilder
 import org.jellyfin.sdk.model.serializer.toUUIDOrNull
 import kotlin.math.ceil
 import kotlin.math.min
+import kotlin.math.sign
 
+/**
+ * Provides the seek positions and trickplay thumbnails for the playback seekbar. Trickplay images are stored in tile
+ * sheets containing many thumbnails, each sheet is downloaded and decoded once and kept in memory while seeking. The
+ * sheet in the seek direction is loaded ahead of time.
+ */
 class CustomSeekProvider(
 	private val videoPlayerAdapter: VideoPlayerAdapter,
 	private val imageLoader: ImageLoader,
@@ -26,7 +35,44 @@ class CustomSeekProvider(
 	private val trickPlayEnabled: Boolean,
 	private val forwardTime: Long
 ) : PlaybackSeekDataProvider() {
-	private val imageRequests = mutableMapOf<Int, Disposable>()
+	companion object {
+		// A sheet contains up to 100 thumbnails, enough for the current sheet and its neighbours
+		private const val MAX_SHEET_BYTES = 24 * 1024 * 1024
+	}
+
+	private data class Thumbnail(
+		val index: Int,
+		val x: Int,
+		val y: Int,
+		val width: Int,
+		val height: Int,
+		val callback: ResultCallback,
+	)
+
+	// All access happens on the main thread
+	private val sheets by lazy {
+		object : LruCache<String, Bitmap>(MAX_SHEET_BYTES) {
+			override fun sizeOf(key: String, value: Bitmap) = value.allocationByteCount
+		}
+	}
+	private val sheetRequests = mutableMapOf<String, Disposable>()
+	private val pendingThumbnails = mutableMapOf<String, MutableMap<Int, Thumbnail>>()
+	private var lastIndex: Int? = null
+
+	private val httpHeaders by lazy {
+		NetworkHeaders.Builder().apply {
+			set(
+				key = "Authorization",
+				value = AuthorizationHeaderBuilder.buildHeader(
+					api.clientInfo.name,
+					api.clientInfo.version,
+					api.deviceInfo.id,
+					api.deviceInfo.name,
+					api.accessToken
+				)
+			)
+		}.build()
+	}
 
 	override fun getSeekPositions(): LongArray {
 		if (!videoPlayerAdapter.canSeek()) return LongArray(0)
@@ -39,9 +85,6 @@ class CustomSeekProvider(
 	override fun getThumbnail(index: Int, callback: ResultCallback) {
 		if (!trickPlayEnabled) return
 
-		val currentRequest = imageRequests[index]
-		if (currentRequest?.isDisposed == false) currentRequest.dispose()
-
 		val item = videoPlayerAdapter.currentlyPlayingItem
 		val mediaSource = videoPlayerAdapter.currentMediaSource
 		val mediaSourceId = mediaSource?.id?.toUUIDOrNull()
@@ -51,6 +94,9 @@ class CustomSeekProvider(
 		val trickPlayInfo = trickPlayResolutions?.values?.firstOrNull()
 		if (trickPlayInfo == null) return
 
+		val direction = lastIndex?.let { (index - it).sign }?.takeIf { it != 0 } ?: 1
+		lastIndex = index
+
 		val currentTimeMs = (index * forwardTime).coerceIn(0, videoPlayerAdapter.duration)
 		val currentTile = currentTimeMs.floorDiv(trickPlayInfo.interval).toInt()
 
@@ -63,44 +109,72 @@ class CustomSeekProvider(
 		val offsetX = tileOffsetX * trickPlayInfo.width
 		val offsetY = tileOffsetY * trickPlayInfo.height
 
-		val url = api.trickplayApi.getTrickplayTileImageUrl(
+		fun getSheetUrl(index: Int) = api.trickplayApi.getTrickplayTileImageUrl(
 			itemId = item.id,
 			width = trickPlayInfo.width,
-			index = tileIndex,
+			index = index,
 			mediaSourceId = mediaSourceId,
 		)
 
-		imageRequests[index] = imageLoader.enqueue(ImageRequest.Builder(context).apply {
+		val url = getSheetUrl(tileIndex)
+		val thumbnail = Thumbnail(index, offsetX, offsetY, trickPlayInfo.width, trickPlayInfo.height, callback)
+		val sheet = sheets[url]
+		if (sheet != null) {
+			sheet.deliver(thumbnail)
+		} else {
+			pendingThumbnails.getOrPut(url) { mutableMapOf() }[index] = thumbnail
+			loadSheet(url)
+		}
+
+		// Load the next sheet in the seek direction
+		val sheetCount = ceil(trickPlayInfo.thumbnailCount.toDouble() / tileSize).toInt()
+		val nextTileIndex = tileIndex + direction
+		if (nextTileIndex in 0 until sheetCount) loadSheet(getSheetUrl(nextTileIndex))
+	}
+
+	private fun loadSheet(url: String) {
+		if (sheets[url] != null || sheetRequests.containsKey(url)) return
+
+		sheetRequests[url] = imageLoader.enqueue(ImageRequest.Builder(context).apply {
 			data(url)
 			size(Size.ORIGINAL)
-			httpHeaders(NetworkHeaders.Builder().apply {
-				set(
-					key = "Authorization",
-					value = AuthorizationHeaderBuilder.buildHeader(
-						api.clientInfo.name,
-						api.clientInfo.version,
-						api.deviceInfo.id,
-						api.deviceInfo.name,
-						api.accessToken
-					)
-				)
-			}.build())
-
-			transformations(SubsetTransformation(offsetX, offsetY, trickPlayInfo.width, trickPlayInfo.height))
+			httpHeaders(httpHeaders)
+			// Thumbnails are sliced from the pixels of the sheet, which is kept in memory by this class
+			allowHardware(false)
+			bitmapConfig(Bitmap.Config.RGB_565)
+			memoryCachePolicy(CachePolicy.DISABLED)
 
 			target(
 				onSuccess = { image ->
-					val bitmap = image.toBitmap()
-					callback.onThumbnailLoaded(bitmap, index)
+					sheetRequests.remove(url)
+					val sheet = image.toBitmap()
+					sheets.put(url, sheet)
+					pendingThumbnails.remove(url)?.values?.forEach { thumbnail -> sheet.deliver(thumbnail) }
+				},
+				onError = {
+					sheetRequests.remove(url)
+					pendingThumbnails.remove(url)
 				}
 			)
 		}.build())
 	}
 
+	private fun Bitmap.deliver(thumbnail: Thumbnail) {
+		// The last tiles can be smaller than the tile size
+		val thumbnailWidth = min(thumbnail.width, width - thumbnail.x)
+		val thumbnailHeight = min(thumbnail.height, height - thumbnail.y)
+		if (thumbnailWidth <= 0 || thumbnailHeight <= 0) return
+
+		val bitmap = Bitmap.createBitmap(this, thumbnail.x, thumbnail.y, thumbnailWidth, thumbnailHeight)
+		thumbnail.callback.onThumbnailLoaded(bitmap, thumbnail.index)
+	}
+
 	override fun reset() {
-		for (request in imageRequests.values) {
+		for (request in sheetRequests.values) {
 			if (!request.isDisposed) request.dispose()
 		}
-		imageRequests.clear()
+		sheetRequests.clear()
+		pendingThumbnails.clear()
+		lastIndex = null
 	}
 }
@@ -1,10 +1,14 @@
 package org.jellyfin.androidtv.ui.preference.screen
 
+import android.content.Context
+import android.text.format.DateUtils
 import android.text.format.Formatter
+import android.widget.Toast
 import androidx.compose.foundation.layout.Arrangement
 import androidx.compose.foundation.layout.fillMaxSize
 import androidx.compose.foundation.layout.padding
 import androidx.compose.foundation.lazy.LazyColumn
+import androidx.compose.foundation.lazy.items
 import androidx.compose.foundation.interaction.MutableInteractionSource
 import androidx.compose.foundation.interaction.collectIsFocusedAsState
 import androidx.compose.foundation.background
@@ -12,8 +16,10 @@ import androidx.compose.foundation.focusable
 import androidx.compose.foundation.shape.RoundedCornerShape
 import androidx.compose.runtime.Composable
 import androidx.compose.runtime.LaunchedEffect
+import androidx.compose.runtime.collectAsState
 import androidx.compose.runtime.mutableStateOf
 import androidx.compose.runtime.remember
+import androidx.compose.runtime.rememberCoroutineScope
 import androidx.compose.runtime.setValue
 import androidx.compose.runtime.getValue
 import androidx.compose.ui.Modifier
@@ -31,19 +37,28 @@ import androidx.compose.material3.TextButton
 import androidx.compose.ui.input.key.key
 import androidx.compose.ui.input.key.type
 import coil3.ImageLoader
+import kotlinx.coroutines.launch
 import org.jellyfin.androidtv.R
 import org.jellyfin.androidtv.preference.SystemPreferences
 import org.jellyfin.androidtv.preference.UserPreferences
+import org.jellyfin.androidtv.preference.constant.BufferProfileSelection
+import org.jellyfin.androidtv.telemetry.PlaybackSessionRepository
+import org.jellyfin.androidtv.util.getQuantityString
 import org.jellyfin.androidtv.util.isTvDevice
+import org.jellyfin.playback.media3.exoplayer.telemetry.PlaybackSessionRecord
+import org.koin.compose.koinInject
 
 @Composable
 fun DeveloperPreferencesScreenCompose(
     userPreferences: UserPreferences,
     systemPreferences: SystemPreferences,
     imageLoader: ImageLoader,
+    playbackSessionRepository: PlaybackSessionRepository = koinInject(),
     onBack: () -> Unit = {}
 ) {
     val context = LocalContext.current
+    val coroutineScope = rememberCoroutineScope()
+    val playbackSessions by playbackSessionRepository.sessions.collectAsState()
     var cacheSize by remember {
         mutableStateOf(Formatter.formatFileSize(context, imageLoader.diskCache?.size ?: 0))
     }
@@ -177,6 +192,51 @@ fun DeveloperPreferencesScreenCompose(
                 }
             )
         }
+
+        item {
+            PreferenceHeader(context.getString(R.string.pref_playback_sessions))
+        }
+
+        item {
+            ActionPreference(
+                title = context.getString(R.string.pref_playback_sessions_export),
+                description = context.resources.getQuantityString(R.plurals.playback_sessions, playbackSessions.size, playbackSessions.size),
+                enabled = playbackSessions.isNotEmpty(),
+                onClick = {
+                    coroutineScope.launch {
+                        val file = playbackSessionRepository.export()
+                        val message = when (file) {
+                            null -> context.getString(R.string.pref_playback_sessions_export_failed)
+                            else -> context.getString(R.string.pref_playback_sessions_exported, file.absolutePath)
+                        }
+                        Toast.makeText(context, message, Toast.LENGTH_LONG).show()
+                    }
+                }
+            )
+        }
+
+        item {
+            ActionPreference(
+                title = context.getString(R.string.pref_playback_sessions_clear),
+                description = "",
+                enabled = playbackSessions.isNotEmpty(),
+                onClick = { playbackSessionRepository.clear() }
+            )
+        }
+
+        items(playbackSessions) { session ->
+            val startTime = DateUtils.formatDateTime(
+                context,
+                session.startTime.toEpochMilli(),
+                DateUtils.FORMAT_SHOW_DATE or DateUtils.FORMAT_SHOW_TIME
+            )
+
+            ActionPreference(
+                title = "${session.title ?: session.playMethod} · $startTime",
+                description = session.getSummary(context),
+                onClick = {}
+            )
+        }
     }
 
     // Restart Dialog
@@ -271,3 +331,20 @@ fun DeveloperPreferencesScreenCompose(
         )
     }
 }
+
+private fun PlaybackSessionRecord.getSummary(context: Context) = buildList {
+    add(playMethod)
+    BufferProfileSelection.entries
+        .find { it.profile != null && it.profile == bufferProfile }
+        ?.let { add(context.getString(it.nameRes)) }
+    add(
+        timeToFirstFrame?.let { context.getString(R.string.pref_playback_session_first_frame, it.toString()) }
+            ?: context.getString(R.string.pref_playback_session_no_first_frame)
+    )
+    add(context.getString(R.string.pref_playback_session_rebuffering, rebufferRatio * 100, rebufferCount))
+    add(context.getQuantityString(R.plurals.playback_session_bitrate_switches, bitrateSwitches))
+    add(context.getQuantityString(R.plurals.playback_session_dropped_frames, droppedFrames))
+    videoDecoder?.let(::add)
+    if (decoderFallbacks > 0) add(context.getQuantityString(R.plurals.playback_session_decoder_fallbacks, decoderFallbacks))
+    error?.let(::add)
+}.joinToString(" · ")
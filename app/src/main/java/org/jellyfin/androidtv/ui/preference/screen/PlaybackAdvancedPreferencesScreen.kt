@@ -33,6 +33,7 @@ import org.jellyfin.androidtv.preference.UserPreferences
 import org.jellyfin.androidtv.preference.constant.RefreshRateSwitchingBehavior
 import org.jellyfin.androidtv.preference.constant.ZoomMode
 import org.jellyfin.androidtv.util.TimeUtils
+import org.jellyfin.androidtv.util.profile.DeviceProfileProvider
 import org.jellyfin.androidtv.util.profile.createDeviceProfileReport
 import org.jellyfin.sdk.api.client.ApiClient
 import org.jellyfin.sdk.api.client.extensions.clientLogApi
@@ -46,6 +47,7 @@ fun PlaybackAdvancedPreferencesScreenCompose(
 ) {
     val context = LocalContext.current
     val api: ApiClient = KoinJavaComponent.get(ApiClient::class.java)
+    val deviceProfileProvider: DeviceProfileProvider = KoinJavaComponent.get(DeviceProfileProvider::class.java)
     val firstItemFocusRequester = remember { FocusRequester() }
     var deviceProfileReported by remember { mutableStateOf(false) }
 
@@ -318,7 +320,7 @@ fun PlaybackAdvancedPreferencesScreenCompose(
                             CoroutineScope(Dispatchers.Main).launch {
                                 runCatching {
                                     withContext(Dispatchers.IO) {
-                                        api.clientLogApi.logFile(createDeviceProfileReport(context, userPreferences)).content
+                                        api.clientLogApi.logFile(createDeviceProfileReport(context, deviceProfileProvider)).content
                                     }
                                 }.fold(
                                     onSuccess = { result ->
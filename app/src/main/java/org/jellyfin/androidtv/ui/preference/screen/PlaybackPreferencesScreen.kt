@@ -42,6 +42,7 @@ import org.jellyfin.androidtv.preference.UserPreferences
 import org.jellyfin.androidtv.preference.UserSettingPreferences
 import org.jellyfin.androidtv.preference.constant.AudioBehavior
 import org.jellyfin.androidtv.preference.constant.AudioLanguage
+import org.jellyfin.androidtv.preference.constant.BufferProfileSelection
 import org.jellyfin.androidtv.preference.constant.NEXTUP_TIMER_DISABLED
 import org.jellyfin.androidtv.preference.constant.NextUpBehavior
 import org.jellyfin.androidtv.preference.constant.SkipDuration
@@ -231,6 +232,23 @@ fun PlaybackPreferencesScreenCompose(
                 )
             }
 
+            // Buffer Profile
+            item {
+                val (bufferProfile, setBufferProfile) = rememberEnumPreferenceState(
+                    preference = UserPreferences.bufferProfile,
+                    preferences = userPreferences
+                )
+
+                EnumPreference(
+                    title = context.getString(R.string.pref_buffer_profile),
+                    value = bufferProfile,
+                    onValueChange = setBufferProfile,
+                    options = BufferProfileSelection.entries.toList(),
+                    optionLabel = { context.getString((it as org.jellyfin.preference.PreferenceEnum).nameRes) },
+                    description = context.getString((bufferProfile as org.jellyfin.preference.PreferenceEnum).nameRes)
+                )
+            }
+
             item {
                 PreferenceHeader(context.getString(R.string.pref_audio))
             }
@@ -0,0 +1,108 @@
+package org.jellyfin.androidtv.ui.presentation
+
+import android.content.Context
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.withContext
+import org.jellyfin.androidtv.ui.itemhandling.BaseRowItem
+import org.jellyfin.androidtv.ui.itemhandling.BaseRowType
+import org.jellyfin.sdk.model.api.BaseItemDto
+import org.jellyfin.sdk.model.api.BaseItemKind
+import org.jellyfin.sdk.model.api.MediaStreamType
+
+/**
+ * The texts and badges shown on a card, created once for each row item so binding a card only needs to assign them.
+ * Models are created on a background thread when a page of items is loaded with [prepareCardModels].
+ */
+class CardModel(
+	val title: String?,
+	val contentText: String?,
+	val summary: String?,
+	val resolution: String?,
+	val audioCodec: String?,
+) {
+	/**
+	 * An image shown on the card.
+	 */
+	data class Image(
+		val url: String?,
+		val blurHash: String?,
+	)
+
+	private data class ImageKey(
+		val imageType: Any?,
+		val aspect: Double,
+		val width: Int,
+		val height: Int,
+	)
+
+	private val images = mutableMapOf<ImageKey, Image>()
+
+	/**
+	 * Get the image for a card of the given size, the image url depends on the size of the card so it is created
+	 * with [create] when the card is first bound at this size.
+	 */
+	@Synchronized
+	fun getImage(imageType: Any?, aspect: Double, width: Int, height: Int, create: () -> Image): Image =
+		images.getOrPut(ImageKey(imageType, aspect, width, height), create)
+}
+
+/**
+ * Get the [CardModel] of this item, creating it when it wasn't prepared.
+ */
+fun BaseRowItem.getCardModel(context: Context): CardModel = cardModel ?: CardModel(
+	title = baseItem?.getEpisodeCardName() ?: getCardName(context),
+	contentText = if (baseRowType == BaseRowType.Person) getSubText(context) else null,
+	summary = baseItem?.overview,
+	resolution = baseItem?.getResolution(),
+	audioCodec = baseItem?.getAudioCodec(),
+).also { cardModel = it }
+
+/**
+ * Create the [CardModel] of all row items in [items] on a background thread.
+ */
+suspend fun prepareCardModels(context: Context, items: Collection<Any>) = withContext(Dispatchers.Default) {
+	for (item in items) {
+		if (item is BaseRowItem) item.getCardModel(context)
+	}
+}
+
+private fun BaseItemDto.getEpisodeCardName(): String? {
+	if (type != BaseItemKind.EPISODE) return null
+
+	return buildString {
+		if (!name.isNullOrEmpty()) append(name)
+
+		val indexNumber = indexNumber
+		val parentIndexNumber = parentIndexNumber
+		when {
+			parentIndexNumber != null && indexNumber != null -> append(" S$parentIndexNumber")
+				.append("E")
+				.append(indexNumber.toString().padStart(2, '0'))
+
+			indexNumber != null -> append(" E")
+				.append(indexNumber.toString().padStart(2, '0'))
+		}
+	}
+}
+
+private fun BaseItemDto.getResolution(): String? {
+	val videoStream = mediaSources.orEmpty()
+		.flatMap { it.mediaStreams.orEmpty() }
+		.firstOrNull { it.type == MediaStreamType.VIDEO && it.width != null && it.height != null }
+		?: return null
+
+	val width = videoStream.width ?: 0
+	val height = videoStream.height ?: 0
+	return when {
+		width >= 3800 || height >= 2000 -> "4K"
+		width >= 1800 || height >= 1000 -> "FHD"
+		width >= 1280 || height >= 720 -> "HD"
+		else -> "SD"
+	}
+}
+
+private fun BaseItemDto.getAudioCodec(): String? = mediaSources?.firstOrNull()
+	?.mediaStreams
+	?.firstOrNull { it.type == MediaStreamType.AUDIO && it.codec != null }
+	?.codec
+	?.uppercase()
@@ -1,6 +1,5 @@
 package org.jellyfin.androidtv.ui.presentation;
 
-import android.content.Context;
 import android.content.res.Resources;
 import android.graphics.drawable.Drawable;
 import android.util.TypedValue;
@@ -32,8 +31,6 @@ import org.jellyfin.androidtv.util.apiclient.JellyfinImage;
 import org.jellyfin.androidtv.util.apiclient.JellyfinImageKt;
 import org.jellyfin.sdk.model.api.BaseItemDto;
 import org.jellyfin.sdk.model.api.BaseItemKind;
-import org.jellyfin.sdk.model.api.MediaSourceInfo;
-import org.jellyfin.sdk.model.api.MediaStream;
 import org.jellyfin.sdk.model.api.UserItemDataDto;
 import org.koin.java.KoinJavaComponent;
 
@@ -56,8 +53,7 @@ public class CardPresenter extends Presenter {
     private boolean isListLayout = false; // New field to track List layout mode
     private final Lazy<ImageHelper> imageHelper = KoinJavaComponent.<ImageHelper>inject(ImageHelper.class);
 
-    // Performance optimization: Cache ImageLoader instance
-    private ImageLoader cachedImageLoader;
+    private final Lazy<ImageLoader> imageLoader = KoinJavaComponent.<ImageLoader>inject(ImageLoader.class);
 
     // Performance optimization: Cache common drawables
     private Drawable cachedTilePortVideo;
@@ -331,7 +327,7 @@ public class CardPresenter extends Presenter {
                     }
 
                     if (itemDto != null && itemDto.getType() == BaseItemKind.MOVIE && KoinJavaComponent.<org.jellyfin.androidtv.preference.UserPreferences>get(org.jellyfin.androidtv.preference.UserPreferences.class).get(org.jellyfin.androidtv.preference.UserPreferences.Companion.getShowResolutionBadge())) {
-                        String resolution = getResolutionFromMediaSources(itemDto);
+                        String resolution = CardModelKt.getCardModel(mItem, mCardView.getContext()).getResolution();
                         if (resolution != null) {
                             if (mCardView instanceof LegacyImageCardView) {
                                 ((LegacyImageCardView) mCardView).setResolutionIndicator(resolution);
@@ -342,7 +338,7 @@ public class CardPresenter extends Presenter {
                     }
 
                     if (itemDto != null && itemDto.getType() == BaseItemKind.MOVIE && KoinJavaComponent.<org.jellyfin.androidtv.preference.UserPreferences>get(org.jellyfin.androidtv.preference.UserPreferences.class).get(org.jellyfin.androidtv.preference.UserPreferences.Companion.getShowAudioCodecBadge())) {
-                        String codec = getAudioCodecFromMediaSources(itemDto);
+                        String codec = CardModelKt.getCardModel(mItem, mCardView.getContext()).getAudioCodec();
                         if (codec != null) {
                             if (mCardView instanceof LegacyImageCardView) {
                                 ((LegacyImageCardView) mCardView).setAudioCodecIndicator(codec);
@@ -555,7 +551,7 @@ public class CardPresenter extends Presenter {
                     )
                     .build();
 
-                cachedImageLoader.enqueue(request);
+                imageLoader.getValue().enqueue(request);
             } catch (Exception e) {
                 // Fallback to placeholder if image loading fails
                 if (mCardView instanceof LegacyImageCardView) {
@@ -621,33 +617,6 @@ public class CardPresenter extends Presenter {
         return new ViewHolder(cardView);
     }
 
-    private String getEpisodeCardName(BaseRowItem rowItem, Context context) {
-        BaseItemDto itemDto = rowItem.getBaseItem();
-        if (itemDto != null && itemDto.getType() == BaseItemKind.EPISODE) {
-            StringBuilder cardName = new StringBuilder();
-            if (itemDto.getName() != null && !itemDto.getName().isEmpty()) {
-                cardName.append(itemDto.getName());
-            }
-            if (itemDto.getParentIndexNumber() != null && itemDto.getIndexNumber() != null) {
-                cardName.append(" S").append(itemDto.getParentIndexNumber());
-                cardName.append("E");
-                if (itemDto.getIndexNumber() < 10) {
-                    cardName.append("0"); // Pad with leading zero
-                }
-                cardName.append(itemDto.getIndexNumber());
-            } else if (itemDto.getIndexNumber() != null) {
-                cardName.append(" E");
-                if (itemDto.getIndexNumber() < 10) {
-                    cardName.append("0"); // Pad with leading zero
-                }
-                cardName.append(itemDto.getIndexNumber());
-            }
-
-            return cardName.toString();
-        }
-        return null;
-    }
-
     @Override
     public void onBindViewHolder(Presenter.ViewHolder viewHolder, Object item) {
         if (!(item instanceof BaseRowItem)) {
@@ -676,9 +645,9 @@ public class CardPresenter extends Presenter {
                 // Use InfoUnderSummaryCardView specific methods
                 InfoUnderSummaryCardView infoCardView = (InfoUnderSummaryCardView) holder.mCardView;
                 // Set title, summary, and ratings
-                String cardName = getEpisodeCardName(rowItem, infoCardView.getContext());
-                infoCardView.setTitle(cardName != null ? cardName : rowItem.getCardName(infoCardView.getContext()));
-                infoCardView.setSummary(rowItem.getBaseItem() != null ? rowItem.getBaseItem().getOverview() : "");
+                CardModel model = CardModelKt.getCardModel(rowItem, infoCardView.getContext());
+                infoCardView.setTitle(model.getTitle());
+                infoCardView.setSummary(model.getSummary() != null ? model.getSummary() : "");
 
                 BaseItemDto itemDto = rowItem.getBaseItem();
                 if (itemDto != null) {
@@ -704,14 +673,9 @@ public class CardPresenter extends Presenter {
             } else if (holder.mCardView instanceof LegacyImageCardView) {
                 // Use LegacyImageCardView methods for other card types
                 LegacyImageCardView legacyCardView = (LegacyImageCardView) holder.mCardView;
-                String cardName = getEpisodeCardName(rowItem, legacyCardView.getContext());
-                legacyCardView.setTitleText(cardName != null ? cardName : rowItem.getCardName(legacyCardView.getContext()));
-
-                if (rowItem.getBaseRowType() == BaseRowType.Person && rowItem.getSubText(legacyCardView.getContext()) != null) {
-                    legacyCardView.setContentText(rowItem.getSubText(legacyCardView.getContext()));
-                } else {
-                    legacyCardView.setContentText("");
-                }
+                CardModel model = CardModelKt.getCardModel(rowItem, legacyCardView.getContext());
+                legacyCardView.setTitleText(model.getTitle());
+                legacyCardView.setContentText(model.getContentText() != null ? model.getContentText() : "");
                 legacyCardView.showFavIcon(rowItem.isFavorite());
                 if (rowItem instanceof AudioQueueBaseRowItem && ((AudioQueueBaseRowItem) rowItem).getPlaying()) {
                     legacyCardView.setPlayingIndicator(true);
@@ -806,30 +770,13 @@ public class CardPresenter extends Presenter {
         // Post image loading to avoid blocking the main thread
         holder.mCardView.post(() -> {
             try {
-                JellyfinImage image = null;
-                if (rowItem.getBaseItem() != null) {
-                    if (holder.aspect == ImageHelper.ASPECT_RATIO_BANNER) {
-                        image = JellyfinImageKt.getItemImages(rowItem.getBaseItem()).get(org.jellyfin.sdk.model.api.ImageType.BANNER);
-                    } else if (holder.aspect == ImageHelper.ASPECT_RATIO_2_3 && rowItem.getBaseItem().getType() == BaseItemKind.EPISODE && rowItem instanceof BaseItemDtoBaseRowItem && ((BaseItemDtoBaseRowItem) rowItem).getPreferSeriesPoster()) {
-                        image = JellyfinImageKt.getSeriesPrimaryImage(rowItem.getBaseItem());
-                    } else if (holder.aspect == ImageHelper.ASPECT_RATIO_16_9 && !holder.isUserView && (rowItem.getBaseItem().getType() != BaseItemKind.EPISODE || !rowItem.getBaseItem().getImageTags().containsKey(org.jellyfin.sdk.model.api.ImageType.PRIMARY) || (rowItem.getPreferParentThumb() && rowItem.getBaseItem().getParentThumbImageTag() != null))) {
-                        if (rowItem.getPreferParentThumb() || !rowItem.getBaseItem().getImageTags().containsKey(org.jellyfin.sdk.model.api.ImageType.PRIMARY)) {
-                            image = JellyfinImageKt.getParentImages(rowItem.getBaseItem()).get(org.jellyfin.sdk.model.api.ImageType.THUMB);
-                        } else {
-                            image = JellyfinImageKt.getItemImages(rowItem.getBaseItem()).get(org.jellyfin.sdk.model.api.ImageType.THUMB);
-                        }
-                    } else {
-                        image = JellyfinImageKt.getItemImages(rowItem.getBaseItem()).get(org.jellyfin.sdk.model.api.ImageType.PRIMARY);
-                    }
-                }
-
                 int fillWidth = Math.round(holder.getCardWidth() * holder.mCardView.getResources().getDisplayMetrics().density);
                 int fillHeight = Math.round(holder.getCardHeight() * holder.mCardView.getResources().getDisplayMetrics().density);
 
-                holder.updateCardViewImage(
-                    image == null ? rowItem.getImageUrl(holder.mCardView.getContext(), imageHelper.getValue(), mImageType != null ? mImageType : ImageType.POSTER, fillWidth, fillHeight) : imageHelper.getValue().getImageUrl(image),
-                    image == null ? null : image.getBlurHash()
-                );
+                // The image only depends on the card size, select it once for each size the item is shown at
+                CardModel model = CardModelKt.getCardModel(rowItem, holder.mCardView.getContext());
+                CardModel.Image cardImage = model.getImage(mImageType, holder.aspect, fillWidth, fillHeight, () -> getCardImage(holder, rowItem, fillWidth, fillHeight));
+                holder.updateCardViewImage(cardImage.getUrl(), cardImage.getBlurHash());
             } catch (Exception e) {
                 // Log error
                 Timber.tag("CardPresenter").e(e, "Error loading image");
@@ -837,6 +784,30 @@ public class CardPresenter extends Presenter {
         });
     }
 
+    private CardModel.Image getCardImage(ViewHolder holder, BaseRowItem rowItem, int fillWidth, int fillHeight) {
+        JellyfinImage image = null;
+        if (rowItem.getBaseItem() != null) {
+            if (holder.aspect == ImageHelper.ASPECT_RATIO_BANNER) {
+                image = JellyfinImageKt.getItemImages(rowItem.getBaseItem()).get(org.jellyfin.sdk.model.api.ImageType.BANNER);
+            } else if (holder.aspect == ImageHelper.ASPECT_RATIO_2_3 && rowItem.getBaseItem().getType() == BaseItemKind.EPISODE && rowItem instanceof BaseItemDtoBaseRowItem && ((BaseItemDtoBaseRowItem) rowItem).getPreferSeriesPoster()) {
+                image = JellyfinImageKt.getSeriesPrimaryImage(rowItem.getBaseItem());
+            } else if (holder.aspect == ImageHelper.ASPECT_RATIO_16_9 && !holder.isUserView && (rowItem.getBaseItem().getType() != BaseItemKind.EPISODE || !rowItem.getBaseItem().getImageTags().containsKey(org.jellyfin.sdk.model.api.ImageType.PRIMARY) || (rowItem.getPreferParentThumb() && rowItem.getBaseItem().getParentThumbImageTag() != null))) {
+                if (rowItem.getPreferParentThumb() || !rowItem.getBaseItem().getImageTags().containsKey(org.jellyfin.sdk.model.api.ImageType.PRIMARY)) {
+                    image = JellyfinImageKt.getParentImages(rowItem.getBaseItem()).get(org.jellyfin.sdk.model.api.ImageType.THUMB);
+                } else {
+                    image = JellyfinImageKt.getItemImages(rowItem.getBaseItem()).get(org.jellyfin.sdk.model.api.ImageType.THUMB);
+                }
+            } else {
+                image = JellyfinImageKt.getItemImages(rowItem.getBaseItem()).get(org.jellyfin.sdk.model.api.ImageType.PRIMARY);
+            }
+        }
+
+        return new CardModel.Image(
+            image == null ? rowItem.getImageUrl(holder.mCardView.getContext(), imageHelper.getValue(), mImageType != null ? mImageType : ImageType.POSTER, fillWidth, fillHeight) : imageHelper.getValue().getImageUrl(image),
+            image == null ? null : image.getBlurHash()
+        );
+    }
+
     @Override
     public void onUnbindViewHolder(Presenter.ViewHolder viewHolder) {
         ((ViewHolder) viewHolder).resetCardView();
@@ -851,10 +822,7 @@ public class CardPresenter extends Presenter {
     }
 
     private void initializeCachedResources(android.content.Context context) {
-        if (cachedImageLoader == null) {
-            // ImageLoader instance
-            cachedImageLoader = new coil3.ImageLoader.Builder(context).build();
-
+        if (cachedTilePortVideo == null) {
             // common drawables
             cachedTilePortVideo = ContextCompat.getDrawable(context, R.drawable.tile_port_video);
             cachedTileTv = ContextCompat.getDrawable(context, R.drawable.tile_tv);
@@ -865,51 +833,4 @@ public class CardPresenter extends Presenter {
             cachedStarDrawable = ContextCompat.getDrawable(context, R.drawable.ic_star);
         }
     }
-
-    private String getResolutionFromMediaSources(org.jellyfin.sdk.model.api.BaseItemDto item) {
-        if (item.getMediaSources() == null || item.getMediaSources().isEmpty()) {
-            return null;
-        }
-
-        for (org.jellyfin.sdk.model.api.MediaSourceInfo mediaSource : item.getMediaSources()) {
-            if (mediaSource.getMediaStreams() != null) {
-                for (org.jellyfin.sdk.model.api.MediaStream mediaStream : mediaSource.getMediaStreams()) {
-                    if (mediaStream.getType() == org.jellyfin.sdk.model.api.MediaStreamType.VIDEO && mediaStream.getWidth() != null && mediaStream.getHeight() != null) {
-                        int width = mediaStream.getWidth();
-                        int height = mediaStream.getHeight();
-
-                        if (width >= 3800 || height >= 2000) {
-                            return "4K";
-                        } else if (width >= 1800 || height >= 1000) {
-                            return "FHD";
-                        } else if (width >= 1280 || height >= 720) {
-                            return "HD";
-                        } else {
-                            return "SD";
-                        }
-                    }
-                }
-            }
-        }
-
-        return null;
-    }
-
-    private String getAudioCodecFromMediaSources(BaseItemDto itemDto) {
-        if (itemDto.getMediaSources() != null && !itemDto.getMediaSources().isEmpty()) {
-            // Use the first media source
-            MediaSourceInfo mediaSource = itemDto.getMediaSources().get(0);
-            if (mediaSource.getMediaStreams() != null) {
-                // Look for audio streams
-                for (MediaStream mediaStream : mediaSource.getMediaStreams()) {
-                    if (mediaStream.getType() == org.jellyfin.sdk.model.api.MediaStreamType.AUDIO && mediaStream.getCodec() != null) {
-                        // Return the codec as-is, convert to uppercase for consistency
-                        return mediaStream.getCodec().toUpperCase();
-                    }
-                }
-            }
-        }
-
-        return null;
-    }
 }
@@ -0,0 +1,47 @@
+package org.jellyfin.androidtv.ui.presentation
+
+import androidx.recyclerview.widget.ListUpdateCallback
+
+/**
+ * Place [items] at [index] and remove the elements past [size], changes are reported to [callback]. Positions with
+ * different contents are notified as changed in contiguous ranges, items past the current end are inserted at once.
+ */
+internal fun <T> MutableList<T>.setRange(
+	index: Int,
+	items: List<T>,
+	size: Int,
+	areContentsTheSame: (old: T, new: T) -> Boolean,
+	callback: ListUpdateCallback,
+) {
+	val overlap = minOf(items.size, this.size - index).coerceAtLeast(0)
+
+	var changedStart = -1
+	for (i in 0 until overlap) {
+		val position = index + i
+		val changed = !areContentsTheSame(this[position], items[i])
+		if (changed) {
+			this[position] = items[i]
+			if (changedStart == -1) changedStart = position
+		}
+
+		// Notify contiguous ranges of changes at once
+		if (changedStart != -1 && (!changed || i == overlap - 1)) {
+			val changedEnd = if (changed) position + 1 else position
+			callback.onChanged(changedStart, changedEnd - changedStart, null)
+			changedStart = -1
+		}
+	}
+
+	if (items.size > overlap) {
+		// Items starting past the current end are appended
+		val insertIndex = minOf(index + overlap, this.size)
+		addAll(insertIndex, items.subList(overlap, items.size))
+		callback.onInserted(insertIndex, items.size - overlap)
+	}
+
+	if (this.size > size) {
+		val removed = this.size - size
+		subList(size, this.size).clear()
+		callback.onRemoved(size, removed)
+	}
+}
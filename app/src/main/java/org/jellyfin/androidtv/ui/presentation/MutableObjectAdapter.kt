@@ -5,6 +5,8 @@ import androidx.leanback.widget.Presenter
 import androidx.leanback.widget.PresenterSelector
 import androidx.recyclerview.widget.DiffUtil
 import androidx.recyclerview.widget.ListUpdateCallback
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.withContext
 
 /**
  * A leanback ObjectAdapter using a Kotlin list as backend. Implements Iterable to allow collection
@@ -13,6 +15,16 @@ import androidx.recyclerview.widget.ListUpdateCallback
 open class MutableObjectAdapter<T : Any> : ObjectAdapter, Iterable<T> {
 	private val data = mutableListOf<T>()
 
+	// Incremented on each change, used to detect changes while calculating a diff in the background
+	private var modifications = 0
+
+	private val updateCallback = object : ListUpdateCallback {
+		override fun onInserted(position: Int, count: Int) = notifyItemRangeInserted(position, count)
+		override fun onRemoved(position: Int, count: Int) = notifyItemRangeRemoved(position, count)
+		override fun onMoved(fromPosition: Int, toPosition: Int) = notifyItemMoved(fromPosition, toPosition)
+		override fun onChanged(position: Int, count: Int, payload: Any?) = notifyItemRangeChanged(position, count, payload)
+	}
+
 	// Constructors
 	constructor(presenterSelector: PresenterSelector) : super(presenterSelector)
 	constructor(presenter: Presenter) : super(presenter)
@@ -28,44 +40,98 @@ open class MutableObjectAdapter<T : Any> : ObjectAdapter, Iterable<T> {
 	// Custom
 	fun add(element: T) {
 		data.add(element)
+		modifications++
 		notifyItemRangeInserted(data.size - 1, 1)
 	}
 
 	fun add(index: Int, element: T) {
 		data.add(index, element)
+		modifications++
 		notifyItemRangeInserted(index, 1)
 	}
 
 	fun set(index: Int, element: T) {
 		data.set(index, element)
+		modifications++
 		notifyItemRangeChanged(index, 1)
 	}
 
+	fun addAll(index: Int, elements: Collection<T>) {
+		if (elements.isEmpty()) return
+
+		data.addAll(index, elements)
+		modifications++
+		notifyItemRangeInserted(index, elements.size)
+	}
+
+	/**
+	 * Replace the elements starting at [index] with [items] and remove the elements past [size]. Only
+	 * positions with different contents are notified as changed, items past the current end are inserted.
+	 */
+	fun setRange(
+		index: Int,
+		items: List<T>,
+		size: Int,
+		areContentsTheSame: (old: T, new: T) -> Boolean = { old, new -> old == new },
+	) {
+		data.setRange(index, items, size, areContentsTheSame, updateCallback)
+		modifications++
+	}
+
 	fun replaceAll(
 		items: List<T>,
 		areItemsTheSame: (old: T, new: T) -> Boolean = { old, new -> old == new },
 		areContentsTheSame: (old: T, new: T) -> Boolean = { old, new -> old == new },
 	) {
-		val diff = DiffUtil.calculateDiff(object : DiffUtil.Callback() {
-			override fun getOldListSize(): Int = data.size
-			override fun getNewListSize(): Int = items.size
+		val diff = calculateDiff(data, items, areItemsTheSame, areContentsTheSame)
+		applyDiff(items, diff)
+	}
+
+	/**
+	 * Same as [replaceAll] but calculates the difference on a background thread, must be called from the main thread.
+	 */
+	suspend fun replaceAllAsync(
+		items: List<T>,
+		areItemsTheSame: (old: T, new: T) -> Boolean = { old, new -> old == new },
+		areContentsTheSame: (old: T, new: T) -> Boolean = { old, new -> old == new },
+	) {
+		while (true) {
+			val snapshot = data.toList()
+			val snapshotModifications = modifications
+			val diff = withContext(Dispatchers.Default) {
+				calculateDiff(snapshot, items, areItemsTheSame, areContentsTheSame)
+			}
+
+			// The adapter changed while calculating, the diff needs to be based on the current items
+			if (snapshotModifications != modifications) continue
+
+			applyDiff(items, diff)
+			return
+		}
+	}
+
+	private fun calculateDiff(
+		old: List<T>,
+		new: List<T>,
+		areItemsTheSame: (old: T, new: T) -> Boolean,
+		areContentsTheSame: (old: T, new: T) -> Boolean,
+	) = DiffUtil.calculateDiff(object : DiffUtil.Callback() {
+		override fun getOldListSize(): Int = old.size
+		override fun getNewListSize(): Int = new.size
 
-			override fun areItemsTheSame(oldItemPosition: Int, newItemPosition: Int): Boolean =
-				areItemsTheSame(data[oldItemPosition], items[newItemPosition])
+		override fun areItemsTheSame(oldItemPosition: Int, newItemPosition: Int): Boolean =
+			areItemsTheSame(old[oldItemPosition], new[newItemPosition])
 
-			override fun areContentsTheSame(oldItemPosition: Int, newItemPosition: Int): Boolean =
-				areContentsTheSame(data[oldItemPosition], items[newItemPosition])
-		})
+		override fun areContentsTheSame(oldItemPosition: Int, newItemPosition: Int): Boolean =
+			areContentsTheSame(old[oldItemPosition], new[newItemPosition])
+	})
 
+	private fun applyDiff(items: List<T>, diff: DiffUtil.DiffResult) {
 		data.clear()
 		data.addAll(items)
+		modifications++
 
-		diff.dispatchUpdatesTo(object : ListUpdateCallback {
-			override fun onInserted(position: Int, count: Int) = notifyItemRangeInserted(position, count)
-			override fun onRemoved(position: Int, count: Int) = notifyItemRangeRemoved(position, count)
-			override fun onMoved(fromPosition: Int, toPosition: Int) = notifyItemMoved(fromPosition, toPosition)
-			override fun onChanged(position: Int, count: Int, payload: Any?) = notifyItemRangeChanged(position, count, payload)
-		})
+		diff.dispatchUpdatesTo(updateCallback)
 	}
 
 	fun clear() {
@@ -74,6 +140,7 @@ open class MutableObjectAdapter<T : Any> : ObjectAdapter, Iterable<T> {
 
 		notifyItemRangeRemoved(0, size)
 		data.clear()
+		modifications++
 	}
 
 	fun remove(element: T): Boolean {
@@ -86,6 +153,7 @@ open class MutableObjectAdapter<T : Any> : ObjectAdapter, Iterable<T> {
 		if (index < 0 || index >= data.size) return false
 
 		data.subList(index, index + length).clear()
+		modifications++
 		notifyItemRangeRemoved(index, length)
 
 		return true
@@ -0,0 +1,69 @@
+package org.jellyfin.androidtv.ui.presentation
+
+import android.view.Choreographer
+import androidx.recyclerview.widget.RecyclerView
+import timber.log.Timber
+import kotlin.math.roundToLong
+
+/**
+ * Measures the time between frames while a [RecyclerView] scrolls and logs a summary when scrolling stops. Used to find
+ * scrolling that exceeds the frame budget, for example when binding cards is too expensive.
+ */
+class ScrollFrameMonitor(
+	private val name: String,
+) : RecyclerView.OnScrollListener(), Choreographer.FrameCallback {
+	companion object {
+		private const val MAX_FRAMES = 4096
+		private const val DEFAULT_REFRESH_RATE = 60f
+	}
+
+	private val frameDurations = LongArray(MAX_FRAMES)
+	private var frameCount = 0
+	private var lastFrameTime = 0L
+	private var frameBudget = 0L
+	private var monitoring = false
+
+	override fun onScrollStateChanged(recyclerView: RecyclerView, newState: Int) {
+		when {
+			newState != RecyclerView.SCROLL_STATE_IDLE && !monitoring -> start(recyclerView)
+			newState == RecyclerView.SCROLL_STATE_IDLE && monitoring -> stop()
+		}
+	}
+
+	private fun start(recyclerView: RecyclerView) {
+		val refreshRate = recyclerView.display?.refreshRate?.takeIf { it > 0 } ?: DEFAULT_REFRESH_RATE
+		frameBudget = (1_000_000_000 / refreshRate).roundToLong()
+		frameCount = 0
+		lastFrameTime = 0L
+		monitoring = true
+		Choreographer.getInstance().postFrameCallback(this)
+	}
+
+	private fun stop() {
+		monitoring = false
+		Choreographer.getInstance().removeFrameCallback(this)
+		if (frameCount == 0) return
+
+		val durations = frameDurations.copyOf(frameCount).apply { sort() }
+		fun percentile(percentile: Int) = durations[(durations.size - 1) * percentile / 100] / 1_000_000.0
+		// A frame that took more than 1.5 times the budget means at least one frame was dropped
+		val jankyFrames = durations.count { it > frameBudget * 3 / 2 }
+
+		Timber.i(
+			"Scrolled $name for $frameCount frames, p50 %.1fms, p95 %.1fms, max %.1fms, %d janky frames (budget %.1fms)",
+			percentile(50),
+			percentile(95),
+			percentile(100),
+			jankyFrames,
+			frameBudget / 1_000_000.0,
+		)
+	}
+
+	override fun doFrame(frameTimeNanos: Long) {
+		if (!monitoring) return
+
+		if (lastFrameTime != 0L && frameCount < MAX_FRAMES) frameDurations[frameCount++] = frameTimeNanos - lastFrameTime
+		lastFrameTime = frameTimeNanos
+		Choreographer.getInstance().postFrameCallback(this)
+	}
+}
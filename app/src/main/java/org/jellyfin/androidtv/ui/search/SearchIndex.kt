@@ -0,0 +1,375 @@
+package org.jellyfin.androidtv.ui.search
+
+import android.content.Context
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.sync.Mutex
+import kotlinx.coroutines.sync.withLock
+import kotlinx.serialization.SerializationException
+import kotlinx.serialization.json.Json
+import kotlinx.serialization.json.JsonObject
+import kotlinx.serialization.json.JsonPrimitive
+import kotlinx.serialization.json.decodeFromJsonElement
+import kotlinx.serialization.json.encodeToJsonElement
+import kotlinx.serialization.json.intOrNull
+import kotlinx.serialization.json.jsonObject
+import kotlinx.serialization.json.jsonPrimitive
+import kotlinx.serialization.json.longOrNull
+import org.jellyfin.androidtv.auth.repository.UserRepository
+import org.jellyfin.sdk.api.client.ApiClient
+import org.jellyfin.sdk.api.client.exception.ApiClientException
+import org.jellyfin.sdk.api.client.extensions.itemsApi
+import org.jellyfin.sdk.api.client.extensions.personsApi
+import org.jellyfin.sdk.model.api.BaseItemDto
+import org.jellyfin.sdk.model.api.BaseItemKind
+import org.jellyfin.sdk.model.api.ItemFields
+import org.jellyfin.sdk.model.api.LibraryUpdateInfo
+import org.jellyfin.sdk.model.api.request.GetItemsRequest
+import org.jellyfin.sdk.model.serializer.toUUIDOrNull
+import timber.log.Timber
+import java.io.IOException
+import java.text.Normalizer
+import java.time.Instant
+import java.time.LocalDateTime
+import java.time.ZoneOffset
+import java.util.Locale
+import java.util.UUID
+import kotlin.time.Duration.Companion.days
+import kotlin.time.Duration.Companion.minutes
+
+/**
+ * On-device index of the library used to answer search queries without contacting the server.
+ * Only the fields needed for matching (names, original titles, kinds and ids) are stored.
+ *
+ * The index is stored per user in a JSON file located in the applications data directory and
+ * synchronized incrementally using the last saved date of library items. A full rebuild is done
+ * periodically to drop items that were removed while the app was not listening for changes.
+ */
+class SearchIndex(
+	private val context: Context,
+	private val api: ApiClient,
+	private val userRepository: UserRepository,
+) {
+	companion object {
+		private const val STORE_VERSION = 1
+		private const val PAGE_SIZE = 2000
+
+		private const val SCORE_EXACT = 0
+		private const val SCORE_NAME_PREFIX = 1
+		private const val SCORE_TOKEN_PREFIX = 2
+		private const val SCORE_FUZZY = 3
+
+		private const val FUZZY_MIN_LENGTH = 4
+		private const val FUZZY_WIDE_LENGTH = 8
+
+		private val syncInterval = 15.minutes
+		private val fullSyncInterval = 7.days
+		private val syncOverlap = 1.minutes
+
+		private val diacriticsRegex = Regex("\\p{Mn}+")
+		private val separatorRegex = Regex("[^\\p{L}\\p{N}]+")
+
+		/**
+		 * Item kinds stored in the index. Live TV items change too often and are always searched
+		 * on the server.
+		 */
+		val indexedKinds = setOf(
+			BaseItemKind.MOVIE,
+			BaseItemKind.SERIES,
+			BaseItemKind.EPISODE,
+			BaseItemKind.VIDEO,
+			BaseItemKind.MUSIC_VIDEO,
+			BaseItemKind.PLAYLIST,
+			BaseItemKind.MUSIC_ARTIST,
+			BaseItemKind.MUSIC_ALBUM,
+			BaseItemKind.AUDIO,
+			BaseItemKind.PHOTO_ALBUM,
+			BaseItemKind.PHOTO,
+			BaseItemKind.BOX_SET,
+			BaseItemKind.PERSON,
+		)
+
+		internal fun tokenize(value: String): List<String> = Normalizer.normalize(value, Normalizer.Form.NFD)
+			.replace(diacriticsRegex, "")
+			.lowercase(Locale.ROOT)
+			.split(separatorRegex)
+			.filter { it.isNotEmpty() }
+	}
+
+	private val coroutineScope = CoroutineScope(Dispatchers.IO + SupervisorJob())
+	private val mutex = Mutex()
+	private var syncJob: Job? = null
+
+	private val json = Json {
+		encodeDefaults = true
+		ignoreUnknownKeys = true
+	}
+
+	@Volatile
+	private var index: Index? = null
+
+	private val currentKey: String?
+		get() = userRepository.currentUser.value?.let { user -> "${user.serverId}_${user.id}" }
+
+	/**
+	 * Whether the index for the current user is loaded and can answer queries.
+	 */
+	val isReady: Boolean
+		get() = index?.key?.equals(currentKey) == true
+
+	/**
+	 * Find the ids of the items matching [searchTerm], ordered by relevance. Each word in the search
+	 * term must match the start of a word in the name or original title, with a small amount of typos
+	 * allowed for longer words.
+	 */
+	fun query(searchTerm: String, kinds: Collection<BaseItemKind>, limit: Int): List<UUID> {
+		val index = index?.takeIf { it.key == currentKey } ?: return emptyList()
+		return index.query(tokenize(searchTerm), kinds, limit)
+	}
+
+	/**
+	 * Start a synchronization with the server in the background. Nothing happens when the index was
+	 * synchronized recently, unless [force] is set.
+	 */
+	fun requestSync(force: Boolean = false) {
+		if (syncJob?.isActive == true) return
+
+		syncJob = coroutineScope.launch {
+			try {
+				sync(force)
+			} catch (err: ApiClientException) {
+				Timber.w(err, "Unable to synchronize search index")
+			}
+		}
+	}
+
+	/**
+	 * Apply a library change received from the server.
+	 */
+	fun onLibraryChanged(info: LibraryUpdateInfo) {
+		val removed = info.itemsRemoved.mapNotNull { it.toUUIDOrNull() }
+		if (removed.isNotEmpty()) coroutineScope.launch {
+			mutex.withLock {
+				val current = index ?: return@withLock
+				val updated = Index(current.key, current.entries - removed.toSet(), current.lastSync, current.lastFullSync)
+				index = updated
+				write(updated)
+			}
+		}
+
+		if (info.itemsAdded.isNotEmpty() || info.itemsUpdated.isNotEmpty()) requestSync(force = true)
+	}
+
+	private suspend fun sync(force: Boolean) = mutex.withLock {
+		val key = currentKey ?: return@withLock
+		val current = index?.takeIf { it.key == key } ?: load(key)
+		index = current
+
+		val now = Instant.now().toEpochMilli()
+		if (!force && current != null && now - current.lastSync < syncInterval.inWholeMilliseconds) return@withLock
+
+		val fullSync = current == null || now - current.lastFullSync > fullSyncInterval.inWholeMilliseconds
+		val previous = current.takeUnless { fullSync }
+		val entries = previous?.entries?.toMutableMap() ?: mutableMapOf()
+		val minDateLastSaved = previous?.let {
+			LocalDateTime.ofEpochSecond((it.lastSync - syncOverlap.inWholeMilliseconds) / 1000, 0, ZoneOffset.UTC)
+		}
+
+		var startIndex = 0
+		do {
+			val items = api.itemsApi.getItems(
+				GetItemsRequest(
+					recursive = true,
+					includeItemTypes = indexedKinds - BaseItemKind.PERSON,
+					fields = setOf(ItemFields.ORIGINAL_TITLE),
+					minDateLastSaved = minDateLastSaved,
+					enableImages = false,
+					enableUserData = false,
+					enableTotalRecordCount = false,
+					startIndex = startIndex,
+					limit = PAGE_SIZE,
+				)
+			).content.items
+			items.forEach { item -> item.toSearchIndexEntry()?.let { entries[it.id] = it } }
+			startIndex += items.size
+		} while (items.size == PAGE_SIZE)
+
+		if (fullSync) {
+			val persons = api.personsApi.getPersons(enableImages = false, enableUserData = false).content.items
+			persons.forEach { item -> item.toSearchIndexEntry()?.let { entries[it.id] = it } }
+		}
+
+		val updated = Index(key, entries, now, if (fullSync) now else previous!!.lastFullSync)
+		index = updated
+		write(updated)
+
+		Timber.d("Synchronized search index (full=$fullSync, entries=${entries.size}) in ${Instant.now().toEpochMilli() - now}ms")
+	}
+
+	private fun BaseItemDto.toSearchIndexEntry(): SearchIndexEntry? {
+		val name = name?.takeIf { it.isNotBlank() } ?: return null
+
+		return SearchIndexEntry(
+			id = id,
+			kind = type,
+			name = name,
+			originalTitle = originalTitle?.takeIf { it.isNotBlank() && it != name },
+		)
+	}
+
+	private fun storePath(key: String) = context.filesDir.resolve("search_index").resolve("$key.json")
+
+	private fun load(key: String): Index? {
+		val path = storePath(key)
+		if (!path.exists()) return null
+
+		return try {
+			val root = json.parseToJsonElement(path.readText()).jsonObject
+			if (root["version"]?.jsonPrimitive?.intOrNull != STORE_VERSION) {
+				Timber.w("Search index is using an unknown version, rebuilding")
+				return null
+			}
+
+			val entries = json.decodeFromJsonElement<List<SearchIndexEntry>>(root["entries"]!!)
+			Index(
+				key = key,
+				entries = entries.associateBy { it.id },
+				lastSync = root["last_sync"]?.jsonPrimitive?.longOrNull ?: 0,
+				lastFullSync = root["last_full_sync"]?.jsonPrimitive?.longOrNull ?: 0,
+			)
+		} catch (err: SerializationException) {
+			Timber.e(err, "Unable to read search index")
+			null
+		} catch (err: IOException) {
+			Timber.e(err, "Unable to read search index")
+			null
+		}
+	}
+
+	private fun write(index: Index) {
+		val root = JsonObject(mapOf(
+			"version" to JsonPrimitive(STORE_VERSION),
+			"last_sync" to JsonPrimitive(index.lastSync),
+			"last_full_sync" to JsonPrimitive(index.lastFullSync),
+			"entries" to json.encodeToJsonElement(index.entries.values.toList()),
+		))
+
+		try {
+			val path = storePath(index.key)
+			path.parentFile?.mkdirs()
+			val tempPath = path.resolveSibling("${path.name}.tmp")
+			tempPath.writeText(json.encodeToString(JsonObject.serializer(), root))
+			tempPath.renameTo(path)
+		} catch (err: IOException) {
+			Timber.e(err, "Unable to write search index")
+		}
+	}
+
+	/**
+	 * Immutable snapshot of the index. Tokens of all entries are kept in a sorted array so prefix
+	 * lookups are a binary search instead of a scan over the whole library.
+	 */
+	private class Index(
+		val key: String,
+		val entries: Map<UUID, SearchIndexEntry>,
+		val lastSync: Long,
+		val lastFullSync: Long,
+	) {
+		private val entryList = entries.values.toTypedArray()
+		private val entryNames = Array(entryList.size) { i -> tokenize(entryList[i].name).joinToString(" ") }
+		private val entryTokens = Array(entryList.size) { i ->
+			val entry = entryList[i]
+			(tokenize(entry.name) + entry.originalTitle?.let(::tokenize).orEmpty()).distinct().toTypedArray()
+		}
+
+		private val tokens: Array<String>
+		private val tokenEntries: IntArray
+
+		init {
+			val pairs = entryTokens.flatMapIndexed { i, entryTokens -> entryTokens.map { it to i } }
+				.sortedBy { it.first }
+			tokens = Array(pairs.size) { pairs[it].first }
+			tokenEntries = IntArray(pairs.size) { pairs[it].second }
+		}
+
+		fun query(queryTokens: List<String>, kinds: Collection<BaseItemKind>, limit: Int): List<UUID> {
+			if (queryTokens.isEmpty()) return emptyList()
+
+			val normalizedQuery = queryTokens.joinToString(" ")
+			val matches = HashMap<Int, Int>()
+
+			// Prefix matches, using the longest word to narrow down candidates
+			val lead = queryTokens.maxBy { it.length }
+			var position = lowerBound(lead)
+			while (position < tokens.size && tokens[position].startsWith(lead)) {
+				val i = tokenEntries[position++]
+				if (i in matches || entryList[i].kind !in kinds) continue
+				if (!queryTokens.all { query -> entryTokens[i].any { it.startsWith(query) } }) continue
+
+				matches[i] = when {
+					entryNames[i] == normalizedQuery -> SCORE_EXACT
+					entryNames[i].startsWith(normalizedQuery) -> SCORE_NAME_PREFIX
+					else -> SCORE_TOKEN_PREFIX
+				}
+			}
+
+			// Fuzzy matches for typos, only when there are not enough exact results
+			if (matches.size < limit && queryTokens.any { it.length >= FUZZY_MIN_LENGTH }) {
+				for (i in entryList.indices) {
+					if (i in matches || entryList[i].kind !in kinds) continue
+					if (!queryTokens.all { query -> entryTokens[i].any { fuzzyPrefixMatch(query, it) } }) continue
+
+					matches[i] = SCORE_FUZZY
+				}
+			}
+
+			return matches.entries
+				.sortedWith(compareBy({ it.value }, { entryNames[it.key].length }, { entryNames[it.key] }))
+				.take(limit)
+				.map { entryList[it.key].id }
+		}
+
+		private fun lowerBound(value: String): Int {
+			var low = 0
+			var high = tokens.size
+			while (low < high) {
+				val mid = (low + high) ushr 1
+				if (tokens[mid] < value) low = mid + 1
+				else high = mid
+			}
+			return low
+		}
+
+		/**
+		 * Check if [query] matches the start of [token] within a small edit distance. Short words
+		 * need to match exactly.
+		 */
+		private fun fuzzyPrefixMatch(query: String, token: String): Boolean {
+			if (token.startsWith(query)) return true
+			if (query.length < FUZZY_MIN_LENGTH) return false
+
+			val maxEdits = if (query.length >= FUZZY_WIDE_LENGTH) 2 else 1
+			if (token.length < query.length - maxEdits) return false
+
+			// Levenshtein distance between the query and the closest prefix of the token
+			var previous = IntArray(token.length + 1) { it }
+			var current = IntArray(token.length + 1)
+			for (i in 1..query.length) {
+				current[0] = i
+				var rowMin = current[0]
+				for (j in 1..token.length) {
+					val cost = if (query[i - 1] == token[j - 1]) 0 else 1
+					current[j] = minOf(previous[j] + 1, current[j - 1] + 1, previous[j - 1] + cost)
+					rowMin = minOf(rowMin, current[j])
+				}
+				if (rowMin > maxEdits) return false
+				previous = current.also { current = previous }
+			}
+
+			return previous.min() <= maxEdits
+		}
+	}
+}
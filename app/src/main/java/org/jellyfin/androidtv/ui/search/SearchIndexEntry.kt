@@ -0,0 +1,21 @@
+@file:UseSerializers(UUIDSerializer::class)
+
+package org.jellyfin.androidtv.ui.search
+
+import kotlinx.serialization.SerialName
+import kotlinx.serialization.Serializable
+import kotlinx.serialization.UseSerializers
+import org.jellyfin.sdk.model.api.BaseItemKind
+import org.jellyfin.sdk.model.serializer.UUIDSerializer
+import java.util.UUID
+
+/**
+ * Locally stored search index entry. New properties require default values or deserialization will fail.
+ */
+@Serializable
+data class SearchIndexEntry(
+	val id: UUID,
+	val kind: BaseItemKind,
+	val name: String,
+	@SerialName("original_title") val originalTitle: String? = null,
+)
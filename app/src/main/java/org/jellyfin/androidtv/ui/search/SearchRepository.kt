@@ -1,6 +1,12 @@
 package org.jellyfin.androidtv.ui.search
 
 import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.async
+import kotlinx.coroutines.awaitAll
+import kotlinx.coroutines.coroutineScope
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.flow
+import kotlinx.coroutines.flow.flowOn
 import kotlinx.coroutines.withContext
 import org.jellyfin.androidtv.data.repository.ItemRepository
 import org.jellyfin.sdk.api.client.ApiClient
@@ -11,19 +17,39 @@ import org.jellyfin.sdk.model.api.BaseItemKind
 import org.jellyfin.sdk.model.api.MediaType
 import org.jellyfin.sdk.model.api.request.GetItemsRequest
 import timber.log.Timber
+import java.util.UUID
 
 interface SearchRepository {
 	suspend fun search(
 		searchTerm: String,
 		itemTypes: Collection<BaseItemKind>,
 	): Result<List<BaseItemDto>>
+
+	/**
+	 * Search all [groups] at once. The flow emits the results split per group, each emission
+	 * containing more complete results than the previous one. When a request fails the flow
+	 * completes with the results found so far.
+	 */
+	fun <K> searchGrouped(
+		searchTerm: String,
+		groups: Map<K, Collection<BaseItemKind>>,
+	): Flow<Map<K, List<BaseItemDto>>>
 }
 
+private const val QUERY_LIMIT = 25
+
+// The video row contains all video items that do not have a dedicated row
+private val videoKinds = setOf(BaseItemKind.VIDEO, BaseItemKind.MUSIC_VIDEO)
+
+private fun Collection<BaseItemKind>.withVideoKinds() =
+	if (size == 1 && first() == BaseItemKind.VIDEO) videoKinds else this
+
 class SearchRepositoryImpl(
 	private val apiClient: ApiClient
 ) : SearchRepository {
 	companion object {
-		private const val QUERY_LIMIT = 25
+		private const val BATCH_LIMIT = 100
+		private const val MAX_BATCHES = 2
 	}
 
 	override suspend fun search(
@@ -35,7 +61,7 @@ class SearchRepositoryImpl(
 			limit = QUERY_LIMIT,
 			imageTypeLimit = 1,
 			includeItemTypes = itemTypes,
-			fields = ItemRepository.itemFields,
+			fields = ItemRepository.cardFields,
 			recursive = true,
 			enableTotalRecordCount = false,
 		)
@@ -58,4 +84,179 @@ class SearchRepositoryImpl(
 		Timber.e(e, "Failed to search for items")
 		Result.failure(e)
 	}
+
+	override fun <K> searchGrouped(
+		searchTerm: String,
+		groups: Map<K, Collection<BaseItemKind>>,
+	): Flow<Map<K, List<BaseItemDto>>> = flow {
+		val kindGroups = buildMap {
+			for ((key, kinds) in groups) kinds.withVideoKinds().forEach { kind -> putIfAbsent(kind, key) }
+		}
+		val results = groups.keys.associateWith { mutableListOf<BaseItemDto>() }
+		val snapshot = { results.mapValues { (_, groupItems) -> groupItems.toList() } }
+
+		// Request all kinds at once and split client-side, continue with the next batch until
+		// every group is filled or there are no more results
+		var startIndex = 0
+		var exhausted = false
+		for (batch in 0 until MAX_BATCHES) {
+			val items = getItemsOrNull(searchTerm, kindGroups.keys, startIndex, BATCH_LIMIT)
+			if (items == null) {
+				// Finish with the results found so far so the previous search is not shown anymore
+				emit(snapshot())
+				return@flow
+			}
+
+			for (item in items) {
+				val group = results[kindGroups[item.type]] ?: continue
+				if (group.size < QUERY_LIMIT) group.add(item)
+			}
+
+			emit(snapshot())
+
+			startIndex += items.size
+			exhausted = items.size < BATCH_LIMIT
+			if (exhausted || results.values.all { it.size >= QUERY_LIMIT }) break
+		}
+		if (exhausted) return@flow
+
+		// Common kinds can fill all batches, search the groups that are not filled yet on their own in a
+		// single parallel round
+		val missingGroups = results.filterValues { it.size < QUERY_LIMIT }.keys
+		val groupResults = coroutineScope {
+			missingGroups.map { key ->
+				async { key to getItemsOrNull(searchTerm, kindGroups.filterValues { it == key }.keys, 0, QUERY_LIMIT) }
+			}.awaitAll()
+		}
+
+		for ((key, items) in groupResults) {
+			if (items == null) continue
+			results.getValue(key).apply {
+				clear()
+				addAll(items)
+			}
+		}
+		emit(snapshot())
+	}.flowOn(Dispatchers.IO)
+
+	private suspend fun getItemsOrNull(
+		searchTerm: String,
+		kinds: Collection<BaseItemKind>,
+		startIndex: Int,
+		limit: Int,
+	): List<BaseItemDto>? = try {
+		apiClient.itemsApi.getItems(
+			GetItemsRequest(
+				searchTerm = searchTerm,
+				startIndex = startIndex,
+				limit = limit,
+				imageTypeLimit = 1,
+				includeItemTypes = kinds,
+				fields = ItemRepository.cardFields,
+				recursive = true,
+				enableTotalRecordCount = false,
+			)
+		).content.items
+	} catch (e: ApiClientException) {
+		Timber.e(e, "Failed to search for items")
+		null
+	}
+}
+
+/**
+ * [SearchRepository] answering queries from the on-device [SearchIndex]. The server is only used to
+ * load the matched items. Falls back to [remoteSearchRepository] when the index is not available yet
+ * or for item kinds that are not indexed.
+ */
+class LocalSearchRepository(
+	private val apiClient: ApiClient,
+	private val searchIndex: SearchIndex,
+	private val remoteSearchRepository: SearchRepository,
+) : SearchRepository {
+	companion object {
+		// Keep the request URL short enough for the server to accept it
+		private const val HYDRATE_CHUNK_SIZE = 100
+	}
+
+	init {
+		// Load the stored index before the first query comes in
+		searchIndex.requestSync()
+	}
+
+	private fun isIndexed(kinds: Collection<BaseItemKind>) = SearchIndex.indexedKinds.containsAll(kinds.withVideoKinds())
+
+	override suspend fun search(
+		searchTerm: String,
+		itemTypes: Collection<BaseItemKind>,
+	): Result<List<BaseItemDto>> {
+		searchIndex.requestSync()
+
+		if (!searchIndex.isReady || !isIndexed(itemTypes)) {
+			return remoteSearchRepository.search(searchTerm, itemTypes)
+		}
+
+		val ids = withContext(Dispatchers.Default) {
+			searchIndex.query(searchTerm, itemTypes.withVideoKinds(), QUERY_LIMIT)
+		}
+		if (ids.isEmpty()) return Result.success(emptyList())
+
+		return try {
+			val items = withContext(Dispatchers.IO) { getItems(ids) }
+
+			// Keep the relevance order from the index, items removed on the server are dropped
+			Result.success(ids.mapNotNull { items[it] })
+		} catch (e: ApiClientException) {
+			Timber.e(e, "Failed to load search results")
+			Result.failure(e)
+		}
+	}
+
+	override fun <K> searchGrouped(
+		searchTerm: String,
+		groups: Map<K, Collection<BaseItemKind>>,
+	): Flow<Map<K, List<BaseItemDto>>> = flow {
+		searchIndex.requestSync()
+
+		val localGroups = if (searchIndex.isReady) groups.filterValues(::isIndexed) else emptyMap()
+		val remoteGroups = groups - localGroups.keys
+
+		val localIds = localGroups.mapValues { (_, kinds) ->
+			searchIndex.query(searchTerm, kinds.withVideoKinds(), QUERY_LIMIT)
+		}
+
+		// Load matched items in chunks, emitting the groups as they fill up
+		val items = mutableMapOf<UUID, BaseItemDto>()
+		val localResults = {
+			localIds.mapValues { (_, ids) -> ids.mapNotNull { items[it] } }
+		}
+		val chunks = localIds.values.flatten().distinct().chunked(HYDRATE_CHUNK_SIZE)
+		for (chunk in chunks) {
+			try {
+				items += getItems(chunk)
+			} catch (e: ApiClientException) {
+				Timber.e(e, "Failed to load search results")
+				// Finish with the results that were loaded so the previous search is not shown anymore
+				emit(localResults())
+				return@flow
+			}
+			emit(localResults())
+		}
+
+		if (remoteGroups.isEmpty()) {
+			if (chunks.isEmpty()) emit(localResults())
+			return@flow
+		}
+		remoteSearchRepository.searchGrouped(searchTerm, remoteGroups).collect { remoteResults ->
+			emit(localResults() + remoteResults)
+		}
+	}.flowOn(Dispatchers.IO)
+
+	private suspend fun getItems(ids: Collection<UUID>) = apiClient.itemsApi.getItems(
+		GetItemsRequest(
+			ids = ids,
+			imageTypeLimit = 1,
+			fields = ItemRepository.cardFields,
+			enableTotalRecordCount = false,
+		)
+	).content.items.associateBy { it.id }
 }
@@ -3,8 +3,6 @@ package org.jellyfin.androidtv.ui.search
 import androidx.lifecycle.ViewModel
 import androidx.lifecycle.viewModelScope
 import kotlinx.coroutines.Job
-import kotlinx.coroutines.async
-import kotlinx.coroutines.awaitAll
 import kotlinx.coroutines.delay
 import kotlinx.coroutines.flow.MutableStateFlow
 import kotlinx.coroutines.flow.asStateFlow
@@ -62,14 +60,13 @@ class SearchViewModel(
 		searchJob = viewModelScope.launch {
 			delay(debounce)
 
-			_searchResultsFlow.value = groups.map { (stringRes, itemKinds) ->
-				async {
-					val result = searchRepository.search(trimmed, itemKinds)
-					val items = result.getOrNull().orEmpty()
-
-					SearchResultGroup(stringRes, items)
+			searchRepository.searchGrouped(trimmed, groups).collect { results ->
+				_searchResultsFlow.value = groups.keys.mapNotNull { stringRes ->
+					val items = results[stringRes].orEmpty()
+					if (items.isEmpty()) null
+					else SearchResultGroup(stringRes, items)
 				}
-			}.awaitAll().filter { it.items.isNotEmpty() }
+			}
 		}
 
 		return true
@@ -0,0 +1,314 @@
+@file:UseSerializers(UUIDSerializer::class)
+
+package org.jellyfin.androidtv.util.apiclient
+
+import android.content.Context
+import android.net.ConnectivityManager
+import android.net.Network
+import android.net.NetworkCapabilities
+import android.net.NetworkRequest
+import androidx.core.content.getSystemService
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.channels.Channel
+import kotlinx.coroutines.flow.launchIn
+import kotlinx.coroutines.flow.onEach
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.withTimeoutOrNull
+import kotlinx.serialization.SerialName
+import kotlinx.serialization.Serializable
+import kotlinx.serialization.SerializationException
+import kotlinx.serialization.UseSerializers
+import kotlinx.serialization.json.Json
+import org.jellyfin.androidtv.auth.repository.SessionRepository
+import org.jellyfin.sdk.api.client.ApiClient
+import org.jellyfin.sdk.api.client.exception.ApiClientException
+import org.jellyfin.sdk.api.client.exception.InvalidStatusException
+import org.jellyfin.sdk.api.client.extensions.playStateApi
+import org.jellyfin.sdk.api.client.extensions.userLibraryApi
+import org.jellyfin.sdk.model.api.PlaybackProgressInfo
+import org.jellyfin.sdk.model.api.PlaybackStartInfo
+import org.jellyfin.sdk.model.api.PlaybackStopInfo
+import org.jellyfin.sdk.model.serializer.UUIDSerializer
+import timber.log.Timber
+import java.io.IOException
+import java.util.UUID
+import java.util.concurrent.atomic.AtomicReference
+import kotlin.time.Duration.Companion.days
+import kotlin.time.Duration.Companion.minutes
+import kotlin.time.Duration.Companion.seconds
+
+/**
+ * A report that changes the state on the server and must not get lost.
+ */
+@Serializable
+sealed interface Report {
+	@Serializable
+	@SerialName("playback_start")
+	data class PlaybackStart(val info: PlaybackStartInfo) : Report
+
+	@Serializable
+	@SerialName("playback_stop")
+	data class PlaybackStop(val info: PlaybackStopInfo) : Report
+
+	@Serializable
+	@SerialName("favorite")
+	data class Favorite(val itemId: UUID, val favorite: Boolean) : Report
+
+	@Serializable
+	@SerialName("played")
+	data class Played(val itemId: UUID, val played: Boolean) : Report
+}
+
+/**
+ * Sends reports to the server from a single worker so at most one request is in flight. Reports added with [enqueue]
+ * are stored on disk and sent in order, they are kept until the server received them, also when the app restarts in
+ * between. Progress reports are only kept in memory and replaced by newer progress, the latest progress is sent once
+ * all queued reports are sent.
+ *
+ * Reports are stored for the user and server that created them and only sent while that user is signed in. Reports
+ * the server keeps failing on, or that could not be sent for a long time, are dropped.
+ */
+class ReportOutbox(
+	private val context: Context,
+	private val api: ApiClient,
+	private val sessionRepository: SessionRepository,
+) {
+	companion object {
+		private const val STORE_VERSION = 2
+		private const val MAX_ENTRIES = 200
+		private const val MAX_ATTEMPTS = 10
+		private val MAX_AGE = 7.days
+		private val MIN_RETRY_DELAY = 15.seconds
+		private val MAX_RETRY_DELAY = 5.minutes
+	}
+
+	@Serializable
+	private data class Store(
+		val version: Int,
+		val entries: List<Entry>,
+	)
+
+	@Serializable
+	private data class Owner(
+		val serverId: UUID,
+		val userId: UUID,
+	)
+
+	@Serializable
+	private data class Entry(
+		val owner: Owner,
+		val report: Report,
+		val createdAt: Long,
+		/**
+		 * Number of times the server failed to handle the report.
+		 */
+		val attempts: Int = 0,
+	)
+
+	private enum class SendResult {
+		SENT,
+		DROPPED,
+		FAILED,
+		SERVER_ERROR,
+	}
+
+	private val json = Json {
+		ignoreUnknownKeys = true
+	}
+
+	private val storePath
+		get() = context.filesDir.resolve("report_outbox.json")
+
+	private val scope = CoroutineScope(SupervisorJob() + Dispatchers.IO)
+	private val wake = Channel<Unit>(Channel.CONFLATED)
+	private val incoming = Channel<Entry>(Channel.UNLIMITED)
+	private val pendingProgress = AtomicReference<PlaybackProgressInfo?>()
+
+	private val entries by lazy { read().toMutableList() }
+
+	private val currentOwner: Owner?
+		get() {
+			val session = sessionRepository.currentSession.value ?: return null
+			// The API client is updated before the session while switching users, don't send with the wrong credentials
+			if (session.accessToken != api.accessToken) return null
+			return Owner(session.serverId, session.userId)
+		}
+
+	init {
+		scope.launch { work() }
+
+		// Store queued reports in order, off the thread that reported them
+		scope.launch {
+			for (entry in incoming) {
+				synchronized(this@ReportOutbox) {
+					entries.add(entry)
+					while (entries.size > MAX_ENTRIES) entries.removeAt(0)
+					write()
+				}
+				wake.trySend(Unit)
+			}
+		}
+
+		// Send the reports of a user when they sign in again
+		sessionRepository.currentSession.onEach { wake.trySend(Unit) }.launchIn(scope)
+
+		// Retry right away when the connection returns
+		val request = NetworkRequest.Builder()
+			.addCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET)
+			.build()
+		context.getSystemService<ConnectivityManager>()?.registerNetworkCallback(request, object : ConnectivityManager.NetworkCallback() {
+			override fun onAvailable(network: Network) {
+				wake.trySend(Unit)
+			}
+		})
+	}
+
+	fun enqueue(report: Report) {
+		val owner = currentOwner
+		if (owner == null) {
+			Timber.w("Unable to queue ${report::class.simpleName} report without session")
+			return
+		}
+
+		incoming.trySend(Entry(owner, report, System.currentTimeMillis()))
+	}
+
+	/**
+	 * Set the latest playback progress, replacing progress that was not sent yet.
+	 */
+	fun reportProgress(info: PlaybackProgressInfo) {
+		pendingProgress.set(info)
+		wake.trySend(Unit)
+	}
+
+	/**
+	 * Discard progress that was not sent yet, used when the playback stop report contains a newer position.
+	 */
+	fun clearProgress() {
+		pendingProgress.set(null)
+	}
+
+	private suspend fun work() {
+		var retryDelay = MIN_RETRY_DELAY
+
+		while (true) {
+			if (sendAll()) {
+				retryDelay = MIN_RETRY_DELAY
+				wake.receive()
+			} else {
+				withTimeoutOrNull(retryDelay) { wake.receive() }
+				retryDelay = (retryDelay * 2).coerceAtMost(MAX_RETRY_DELAY)
+			}
+		}
+	}
+
+	/**
+	 * @return false when sending failed and should be retried later.
+	 */
+	private suspend fun sendAll(): Boolean {
+		val owner = currentOwner ?: return true
+
+		while (true) {
+			val entry = synchronized(this) { entries.firstOrNull { it.owner == owner } } ?: break
+			val name = entry.report::class.simpleName
+
+			val result = when {
+				System.currentTimeMillis() - entry.createdAt > MAX_AGE.inWholeMilliseconds -> {
+					Timber.e("Dropping $name report that could not be sent for $MAX_AGE")
+					SendResult.DROPPED
+				}
+
+				else -> send(name) { entry.report.send() }
+			}
+
+			if (result == SendResult.FAILED) return false
+
+			// Keep the report for another attempt unless the server failed on it too often
+			val retry = result == SendResult.SERVER_ERROR && entry.attempts + 1 < MAX_ATTEMPTS
+			if (result == SendResult.SERVER_ERROR && !retry) Timber.e("Dropping $name report after $MAX_ATTEMPTS attempts")
+
+			synchronized(this) {
+				val index = entries.indexOf(entry)
+				if (index != -1) {
+					if (retry) entries[index] = entry.copy(attempts = entry.attempts + 1)
+					else entries.removeAt(index)
+				}
+				write()
+			}
+
+			if (retry) return false
+		}
+
+		val progress = pendingProgress.getAndSet(null) ?: return true
+		val result = send("progress") { api.playStateApi.reportPlaybackProgress(progress) }
+		if (result == SendResult.FAILED || result == SendResult.SERVER_ERROR) {
+			// Keep the progress unless newer progress was reported in the meantime
+			pendingProgress.compareAndSet(null, progress)
+			return false
+		}
+
+		return true
+	}
+
+	private suspend fun Report.send() {
+		when (this) {
+			is Report.PlaybackStart -> api.playStateApi.reportPlaybackStart(info)
+			is Report.PlaybackStop -> api.playStateApi.reportPlaybackStopped(info)
+			is Report.Favorite -> when (favorite) {
+				true -> api.userLibraryApi.markFavoriteItem(itemId = itemId)
+				false -> api.userLibraryApi.unmarkFavoriteItem(itemId = itemId)
+			}
+
+			is Report.Played -> when (played) {
+				true -> api.playStateApi.markPlayedItem(itemId = itemId)
+				false -> api.playStateApi.markUnplayedItem(itemId = itemId)
+			}
+		}
+	}
+
+	private suspend fun send(name: String?, request: suspend () -> Unit): SendResult = try {
+		request()
+		SendResult.SENT
+	} catch (err: InvalidStatusException) {
+		// The server rejected the report, sending it again gives the same result unless the server had an error
+		if (err.status in 500..599) {
+			Timber.w(err, "Server error while sending $name report")
+			SendResult.SERVER_ERROR
+		} else {
+			Timber.e(err, "Server rejected $name report")
+			SendResult.DROPPED
+		}
+	} catch (err: ApiClientException) {
+		Timber.w(err, "Unable to send $name report")
+		SendResult.FAILED
+	}
+
+	private fun read(): List<Entry> {
+		if (!storePath.exists()) return emptyList()
+
+		return try {
+			val store = json.decodeFromString<Store>(storePath.readText())
+			if (store.version == STORE_VERSION) store.entries
+			else emptyList()
+		} catch (err: IOException) {
+			Timber.w(err, "Unable to read report outbox")
+			emptyList()
+		} catch (err: SerializationException) {
+			Timber.w(err, "Unable to read report outbox")
+			emptyList()
+		} catch (err: IllegalArgumentException) {
+			Timber.w(err, "Unable to read report outbox")
+			emptyList()
+		}
+	}
+
+	private fun write() {
+		try {
+			storePath.writeText(json.encodeToString(Store.serializer(), Store(STORE_VERSION, entries)))
+		} catch (err: IOException) {
+			Timber.w(err, "Unable to write report outbox")
+		}
+	}
+}
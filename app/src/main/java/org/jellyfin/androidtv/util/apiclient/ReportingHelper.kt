@@ -1,15 +1,8 @@
 package org.jellyfin.androidtv.util.apiclient
 
-import androidx.lifecycle.LifecycleOwner
-import androidx.lifecycle.lifecycleScope
-import kotlinx.coroutines.Dispatchers
-import kotlinx.coroutines.NonCancellable
-import kotlinx.coroutines.launch
 import org.jellyfin.androidtv.data.compat.StreamInfo
 import org.jellyfin.androidtv.data.model.DataRefreshService
 import org.jellyfin.androidtv.ui.playback.PlaybackController
-import org.jellyfin.sdk.api.client.ApiClient
-import org.jellyfin.sdk.api.client.extensions.playStateApi
 import org.jellyfin.sdk.model.api.BaseItemDto
 import org.jellyfin.sdk.model.api.BaseItemKind
 import org.jellyfin.sdk.model.api.PlaybackOrder
@@ -20,12 +13,15 @@ import org.jellyfin.sdk.model.api.RepeatMode
 import timber.log.Timber
 import java.time.Instant
 
+/**
+ * Reports the playback state to the server. Start and stop reports are queued in the [ReportOutbox] so they are sent
+ * in order once the server is reachable, progress reports replace previous progress that was not sent yet.
+ */
 class ReportingHelper(
 	private val dataRefreshService: DataRefreshService,
-	private val api: ApiClient,
+	private val reportOutbox: ReportOutbox,
 ) {
 	fun reportStart(
-		lifecycleOwner: LifecycleOwner,
 		playbackController: PlaybackController?,
 		item: BaseItemDto,
 		streamInfo: StreamInfo,
@@ -48,16 +44,11 @@ class ReportingHelper(
 			mediaSourceId = streamInfo.mediaSourceId,
 		)
 
-		lifecycleOwner.lifecycleScope.launch(Dispatchers.IO + NonCancellable) {
-			Timber.i("Reporting ${item.name} playback started at $position")
-			runCatching {
-				api.playStateApi.reportPlaybackStart(info)
-			}.onFailure { error -> Timber.e(error, "Failed to report started playback!") }
-		}
+		Timber.i("Reporting ${item.name} playback started at $position")
+		reportOutbox.enqueue(Report.PlaybackStart(info))
 	}
 
 	fun reportProgress(
-		lifecycleOwner: LifecycleOwner,
 		playbackController: PlaybackController?,
 		item: BaseItemDto,
 		streamInfo: StreamInfo,
@@ -80,15 +71,11 @@ class ReportingHelper(
 			mediaSourceId = streamInfo.mediaSourceId,
 		)
 
-		lifecycleOwner.lifecycleScope.launch(Dispatchers.IO + NonCancellable) {
-			Timber.d("Reporting ${item.name} playback progress at $position")
-			runCatching {
-				api.playStateApi.reportPlaybackProgress(info)
-			}.onFailure { error -> Timber.w(error, "Failed to report playback progress") }
-		}
+		Timber.d("Reporting ${item.name} playback progress at $position")
+		reportOutbox.reportProgress(info)
 	}
 
-	fun reportStopped(lifecycleOwner: LifecycleOwner, item: BaseItemDto, streamInfo: StreamInfo, position: Long?) {
+	fun reportStopped(item: BaseItemDto, streamInfo: StreamInfo, position: Long?) {
 		val info = PlaybackStopInfo(
 			itemId = item.id,
 			positionTicks = position,
@@ -98,12 +85,10 @@ class ReportingHelper(
 			failed = false,
 		)
 
-		lifecycleOwner.lifecycleScope.launch(Dispatchers.IO + NonCancellable) {
-			Timber.i("Reporting ${item.name} playback stopped at $position")
-			runCatching {
-				api.playStateApi.reportPlaybackStopped(info)
-			}.onFailure { error -> Timber.e(error, "Failed to report stopped playback!") }
-		}
+		Timber.i("Reporting ${item.name} playback stopped at $position")
+		// The stop report contains the final position
+		reportOutbox.clearProgress()
+		reportOutbox.enqueue(Report.PlaybackStop(info))
 
 		// Update dataRefreshService
 		dataRefreshService.lastPlayback = Instant.now()
@@ -0,0 +1,121 @@
+package org.jellyfin.androidtv.util.profile
+
+import android.content.Context
+import android.os.Build
+import kotlinx.serialization.Serializable
+import kotlinx.serialization.SerializationException
+import kotlinx.serialization.json.Json
+import org.jellyfin.androidtv.BuildConfig
+import org.jellyfin.androidtv.preference.UserPreferences
+import org.jellyfin.androidtv.preference.constant.AudioBehavior
+import org.jellyfin.sdk.model.api.DeviceProfile
+import timber.log.Timber
+import java.io.IOException
+import kotlin.time.measureTimedValue
+
+/**
+ * Provides the device profile sent to the server for playback. The codec capabilities are probed once and stored
+ * together with a fingerprint of the system and app build, so they are only probed again after an update. Created
+ * profiles are reused until one of the preferences used in the profile changes.
+ */
+class DeviceProfileProvider(
+	private val context: Context,
+	private val userPreferences: UserPreferences,
+) {
+	companion object {
+		private const val STORE_VERSION = 1
+		private const val MAX_PROFILES = 4
+	}
+
+	@Serializable
+	private data class Store(
+		val version: Int,
+		val fingerprint: String,
+		val capabilities: MediaCodecCapabilities,
+	)
+
+	private data class ProfileKey(
+		val maxBitrate: Int,
+		val disableDirectPlay: Boolean,
+		val isAC3Enabled: Boolean,
+		val downMixAudio: Boolean,
+		val assDirectPlay: Boolean,
+		val pgsDirectPlay: Boolean,
+	)
+
+	private val json = Json {
+		ignoreUnknownKeys = true
+	}
+
+	private val storePath
+		get() = context.cacheDir.resolve("codec_capabilities.json")
+
+	// Codecs only change with a system update, the probing logic with an app update
+	private val fingerprint = "${Build.FINGERPRINT}/${BuildConfig.VERSION_CODE}"
+
+	private val capabilities by lazy { readCapabilities() ?: probeCapabilities() }
+
+	private val profiles = object : LinkedHashMap<ProfileKey, DeviceProfile>() {
+		override fun removeEldestEntry(eldest: MutableMap.MutableEntry<ProfileKey, DeviceProfile>) = size > MAX_PROFILES
+	}
+
+	@Synchronized
+	fun getProfile(disableDirectPlay: Boolean = false): DeviceProfile {
+		val key = ProfileKey(
+			maxBitrate = userPreferences.getMaxBitrate(),
+			disableDirectPlay = disableDirectPlay,
+			isAC3Enabled = userPreferences[UserPreferences.ac3Enabled],
+			downMixAudio = userPreferences[UserPreferences.audioBehaviour] == AudioBehavior.DOWNMIX_TO_STEREO,
+			assDirectPlay = userPreferences[UserPreferences.assDirectPlay],
+			pgsDirectPlay = userPreferences[UserPreferences.pgsDirectPlay],
+		)
+
+		return profiles.getOrPut(key) {
+			val (profile, duration) = measureTimedValue {
+				createDeviceProfile(
+					capabilities = capabilities,
+					maxBitrate = key.maxBitrate,
+					disableDirectPlay = key.disableDirectPlay,
+					isAC3Enabled = key.isAC3Enabled,
+					downMixAudio = key.downMixAudio,
+					assDirectPlay = key.assDirectPlay,
+					pgsDirectPlay = key.pgsDirectPlay,
+				)
+			}
+			Timber.d("Created device profile in $duration")
+			profile
+		}
+	}
+
+	private fun readCapabilities(): MediaCodecCapabilities? {
+		if (!storePath.exists()) return null
+
+		return try {
+			val store = json.decodeFromString<Store>(storePath.readText())
+			if (store.version == STORE_VERSION && store.fingerprint == fingerprint) store.capabilities
+			else null
+		} catch (err: IOException) {
+			Timber.w(err, "Unable to read codec capabilities")
+			null
+		} catch (err: SerializationException) {
+			Timber.w(err, "Unable to read codec capabilities")
+			null
+		} catch (err: IllegalArgumentException) {
+			Timber.w(err, "Unable to read codec capabilities")
+			null
+		}
+	}
+
+	private fun probeCapabilities(): MediaCodecCapabilities {
+		val (capabilities, duration) = measureTimedValue { MediaCodecCapabilitiesTest().getCapabilities() }
+		Timber.i("Probed codec capabilities in $duration")
+
+		try {
+			storePath.writeText(json.encodeToString(Store.serializer(), Store(STORE_VERSION, fingerprint, capabilities)))
+		} catch (err: IOException) {
+			Timber.w(err, "Unable to write codec capabilities")
+		}
+
+		return capabilities
+	}
+}
@@ -0,0 +1,53 @@
+package org.jellyfin.androidtv.util.profile
+
+import androidx.media3.common.MimeTypes
+import kotlinx.serialization.Serializable
+
+/**
+ * Snapshot of the decoder capabilities used to create the device profile. Probing the codecs is slow so the result is
+ * stored by the [DeviceProfileProvider].
+ */
+@Serializable
+data class MediaCodecCapabilities(
+	val supportsHevc: Boolean,
+	val supportsHevcMain10: Boolean,
+	val hevcMainLevel: Int,
+	val hevcMain10Level: Int,
+	val supportsAVC: Boolean,
+	val supportsAVCHigh10: Boolean,
+	val avcMainLevel: Int,
+	val avcHigh10Level: Int,
+	val supportsAV1: Boolean,
+	val supportsAV1Main10: Boolean,
+	val maxResolutionAVC: Resolution,
+	val maxResolutionHevc: Resolution,
+	val maxResolutionAV1: Resolution,
+) {
+	@Serializable
+	data class Resolution(
+		val width: Int,
+		val height: Int,
+	)
+}
+
+fun MediaCodecCapabilitiesTest.getCapabilities(): MediaCodecCapabilities {
+	fun getMaxResolution(mime: String) = getMaxResolution(mime).let { size ->
+		MediaCodecCapabilities.Resolution(size.width, size.height)
+	}
+
+	return MediaCodecCapabilities(
+		supportsHevc = supportsHevc(),
+		supportsHevcMain10 = supportsHevcMain10(),
+		hevcMainLevel = getHevcMainLevel(),
+		hevcMain10Level = getHevcMain10Level(),
+		supportsAVC = supportsAVC(),
+		supportsAVCHigh10 = supportsAVCHigh10(),
+		avcMainLevel = getAVCMainLevel(),
+		avcHigh10Level = getAVCHigh10Level(),
+		supportsAV1 = supportsAV1(),
+		supportsAV1Main10 = supportsAV1Main10(),
+		maxResolutionAVC = getMaxResolution(MimeTypes.VIDEO_H264),
+		maxResolutionHevc = getMaxResolution(MimeTypes.VIDEO_H265),
+		maxResolutionAV1 = getMaxResolution(MimeTypes.VIDEO_AV1),
+	)
+}
@@ -1,9 +1,7 @@
 package org.jellyfin.androidtv.util.profile
 
-import androidx.media3.common.MimeTypes
 import org.jellyfin.androidtv.constant.Codec
 import org.jellyfin.androidtv.preference.UserPreferences
-import org.jellyfin.androidtv.preference.constant.AudioBehavior
 import org.jellyfin.sdk.model.api.CodecType
 import org.jellyfin.sdk.model.api.DlnaProfileType
 import org.jellyfin.sdk.model.api.EncodingContext
@@ -41,7 +39,7 @@ private val supportedAudioCodecs = arrayOf(
 	Codec.Audio.VORBIS,
 )
 
-private fun UserPreferences.getMaxBitrate(): Int {
+internal fun UserPreferences.getMaxBitrate(): Int {
 	var maxBitrate = this[UserPreferences.maxBitrate].toIntOrNull()
 
 	// The value "0" was used in an older release, make sure we prevent that from being used to avoid video not playing
@@ -51,16 +49,8 @@ private fun UserPreferences.getMaxBitrate(): Int {
 	return maxBitrate * 1_000_000
 }
 
-fun createDeviceProfile(userPreferences: UserPreferences, disableDirectPlay: Boolean) = createDeviceProfile(
-	maxBitrate = userPreferences.getMaxBitrate(),
-	disableDirectPlay = disableDirectPlay,
-	isAC3Enabled = userPreferences[UserPreferences.ac3Enabled],
-	downMixAudio = userPreferences[UserPreferences.audioBehaviour] == AudioBehavior.DOWNMIX_TO_STEREO,
-	assDirectPlay = userPreferences[UserPreferences.assDirectPlay],
-	pgsDirectPlay = userPreferences[UserPreferences.pgsDirectPlay],
-)
-
 fun createDeviceProfile(
+	capabilities: MediaCodecCapabilities,
 	maxBitrate: Int,
 	disableDirectPlay: Boolean,
 	isAC3Enabled: Boolean,
@@ -74,20 +64,19 @@ fun createDeviceProfile(
 		else -> supportedAudioCodecs
 	}
 
-	val mediaTest = MediaCodecCapabilitiesTest()
-	val supportsHevc = mediaTest.supportsHevc()
-	val supportsHevcMain10 = mediaTest.supportsHevcMain10()
-	val hevcMainLevel = mediaTest.getHevcMainLevel()
-	val hevcMain10Level = mediaTest.getHevcMain10Level()
-	val supportsAVC = mediaTest.supportsAVC()
-	val supportsAVCHigh10 = mediaTest.supportsAVCHigh10()
-	val avcMainLevel = mediaTest.getAVCMainLevel()
-	val avcHigh10Level = mediaTest.getAVCHigh10Level()
-	val supportsAV1 = mediaTest.supportsAV1()
-	val supportsAV1Main10 = mediaTest.supportsAV1Main10()
-	val maxResolutionAVC = mediaTest.getMaxResolution(MimeTypes.VIDEO_H264)
-	val maxResolutionHevc = mediaTest.getMaxResolution(MimeTypes.VIDEO_H265)
-	val maxResolutionAV1 = mediaTest.getMaxResolution(MimeTypes.VIDEO_AV1)
+	val supportsHevc = capabilities.supportsHevc
+	val supportsHevcMain10 = capabilities.supportsHevcMain10
+	val hevcMainLevel = capabilities.hevcMainLevel
+	val hevcMain10Level = capabilities.hevcMain10Level
+	val supportsAVC = capabilities.supportsAVC
+	val supportsAVCHigh10 = capabilities.supportsAVCHigh10
+	val avcMainLevel = capabilities.avcMainLevel
+	val avcHigh10Level = capabilities.avcHigh10Level
+	val supportsAV1 = capabilities.supportsAV1
+	val supportsAV1Main10 = capabilities.supportsAV1Main10
+	val maxResolutionAVC = capabilities.maxResolutionAVC
+	val maxResolutionHevc = capabilities.maxResolutionHevc
+	val maxResolutionAV1 = capabilities.maxResolutionAV1
 
 	name = "AndroidTV-Default"
 
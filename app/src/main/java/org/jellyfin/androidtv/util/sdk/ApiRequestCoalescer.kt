@@ -0,0 +1,124 @@
+package org.jellyfin.androidtv.util.sdk
+
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Deferred
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.async
+import org.jellyfin.androidtv.auth.repository.UserRepository
+import org.jellyfin.androidtv.data.model.DataRefreshService
+import timber.log.Timber
+import java.time.Instant
+import java.util.concurrent.atomic.AtomicLong
+import kotlin.time.Duration
+import kotlin.time.Duration.Companion.seconds
+import kotlin.time.toJavaDuration
+
+/**
+ * Shares the responses of identical API requests. Requests for the same key that are made while one is in flight wait
+ * for the same response, completed responses are reused for a short time. Responses older than the last change known
+ * to the [DataRefreshService] are never reused.
+ */
+class ApiRequestCoalescer(
+	private val userRepository: UserRepository,
+	private val dataRefreshService: DataRefreshService,
+) {
+	companion object {
+		val DEFAULT_TTL = 10.seconds
+		private const val MAX_ENTRIES = 50
+		private const val STATS_LOG_INTERVAL = 50L
+	}
+
+	data class Stats(
+		val requests: Long,
+		val hits: Long,
+		val coalesced: Long,
+	) {
+		val hitRate get() = if (requests == 0L) 0f else hits.toFloat() / requests
+		val coalesceRate get() = if (requests == 0L) 0f else coalesced.toFloat() / requests
+	}
+
+	private class Entry(
+		val response: Deferred<Any?>,
+		val created: Instant,
+	)
+
+	// Requests are not bound to the caller so a cancelled caller doesn't fail the others waiting for the response
+	private val scope = CoroutineScope(SupervisorJob() + Dispatchers.IO)
+	private val entries = mutableMapOf<Any, Entry>()
+
+	private val requests = AtomicLong()
+	private val hits = AtomicLong()
+	private val coalesced = AtomicLong()
+
+	val stats get() = Stats(requests.get(), hits.get(), coalesced.get())
+
+	private val lastChange: Instant?
+		get() = with(dataRefreshService) {
+			listOfNotNull(lastPlayback, lastMoviePlayback, lastTvPlayback, lastLibraryChange, lastFavoriteUpdate).maxOrNull()
+		}
+
+	/**
+	 * Get the response for the request identified by [key], running [request] only when there is no in flight or
+	 * recent response for the same key. The key must implement equals, the request classes of the SDK do.
+	 */
+	suspend fun <T> load(
+		key: Any,
+		ttl: Duration = DEFAULT_TTL,
+		request: suspend () -> T,
+	): T {
+		val entryKey = userRepository.currentUser.value?.id to key
+		val response = getOrCreateEntry(entryKey, ttl, request).response
+
+		return try {
+			@Suppress("UNCHECKED_CAST")
+			response.await() as T
+		} catch (err: Exception) {
+			// Allow the next caller to retry when the request itself failed
+			if (response.isCompleted) synchronized(entries) {
+				if (entries[entryKey]?.response === response) entries.remove(entryKey)
+			}
+			throw err
+		}
+	}
+
+	private fun <T> getOrCreateEntry(
+		entryKey: Any,
+		ttl: Duration,
+		request: suspend () -> T,
+	): Entry = synchronized(entries) {
+		val count = requests.incrementAndGet()
+		if (count % STATS_LOG_INTERVAL == 0L) Timber.d("API request coalescing: $stats")
+
+		val now = Instant.now()
+		val lastChange = lastChange
+		val expired = now.minus(ttl.toJavaDuration())
+		val existing = entries[entryKey]
+
+		when {
+			existing != null && existing.response.isActive -> {
+				coalesced.incrementAndGet()
+				existing
+			}
+
+			existing != null && existing.created.isAfter(expired) && (lastChange == null || existing.created.isAfter(lastChange)) -> {
+				hits.incrementAndGet()
+				existing
+			}
+
+			else -> {
+				// Drop finished responses to keep the map small
+				if (entries.size >= MAX_ENTRIES) entries.values.removeAll { !it.response.isActive }
+
+				Entry(
+					response = scope.async { request() },
+					created = now,
+				).also { entries[entryKey] = it }
+			}
+		}
+	}
+
+	fun clear() = synchronized(entries) {
+		entries.clear()
+	}
+}
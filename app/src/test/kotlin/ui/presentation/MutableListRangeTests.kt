@@ -0,0 +1,115 @@
+package org.jellyfin.androidtv.ui.presentation
+
+import androidx.recyclerview.widget.ListUpdateCallback
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.collections.shouldBeEmpty
+import io.kotest.matchers.shouldBe
+import kotlin.math.max
+import kotlin.math.min
+
+private const val TOTAL_ITEMS = 10_000
+private const val PAGE_SIZE = 100
+
+private sealed interface Update {
+	data class Inserted(val position: Int, val count: Int) : Update
+	data class Removed(val position: Int, val count: Int) : Update
+	data class Moved(val fromPosition: Int, val toPosition: Int) : Update
+	data class Changed(val position: Int, val count: Int) : Update
+}
+
+private class RecordingCallback : ListUpdateCallback {
+	val updates = mutableListOf<Update>()
+
+	override fun onInserted(position: Int, count: Int) {
+		updates.add(Update.Inserted(position, count))
+	}
+
+	override fun onRemoved(position: Int, count: Int) {
+		updates.add(Update.Removed(position, count))
+	}
+
+	override fun onMoved(fromPosition: Int, toPosition: Int) {
+		updates.add(Update.Moved(fromPosition, toPosition))
+	}
+
+	override fun onChanged(position: Int, count: Int, payload: Any?) {
+		updates.add(Update.Changed(position, count))
+	}
+}
+
+private fun page(startIndex: Int, count: Int = PAGE_SIZE) = List(count) { "item ${startIndex + it}" }
+
+/**
+ * Load a page the same way the item row adapter does, keeping the current items after it up to [totalItems].
+ */
+private fun MutableList<String>.loadPage(
+	startIndex: Int,
+	items: List<String>,
+	totalItems: Int,
+	callback: ListUpdateCallback,
+) = setRange(
+	index = startIndex,
+	items = items,
+	size = max(startIndex + items.size, min(totalItems, size)),
+	areContentsTheSame = { old, new -> old == new },
+	callback = callback,
+)
+
+private fun loadAllPages(): MutableList<String> {
+	val items = mutableListOf<String>()
+	for (startIndex in 0 until TOTAL_ITEMS step PAGE_SIZE) {
+		items.loadPage(startIndex, page(startIndex), TOTAL_ITEMS, RecordingCallback())
+	}
+	return items
+}
+
+class MutableListRangeTests : FunSpec({
+	test("Loading pages only inserts the new page") {
+		val items = mutableListOf<String>()
+		val callback = RecordingCallback()
+
+		for (startIndex in 0 until TOTAL_ITEMS step PAGE_SIZE) {
+			callback.updates.clear()
+			items.loadPage(startIndex, page(startIndex), TOTAL_ITEMS, callback)
+
+			callback.updates shouldBe listOf(Update.Inserted(startIndex, PAGE_SIZE))
+		}
+
+		items shouldBe page(0, TOTAL_ITEMS)
+	}
+
+	test("Reloading an unchanged page notifies nothing") {
+		val items = loadAllPages()
+		val callback = RecordingCallback()
+
+		items.loadPage(5_000, page(5_000), TOTAL_ITEMS, callback)
+
+		callback.updates.shouldBeEmpty()
+	}
+
+	test("Reloading a page only notifies the changed items") {
+		val items = loadAllPages()
+		val callback = RecordingCallback()
+
+		val reloaded = page(5_000).toMutableList()
+		reloaded[10] = "changed 5010"
+		reloaded[11] = "changed 5011"
+		reloaded[50] = "changed 5050"
+		items.loadPage(5_000, reloaded, TOTAL_ITEMS, callback)
+
+		callback.updates shouldBe listOf(Update.Changed(5_010, 2), Update.Changed(5_050, 1))
+		items[5_011] shouldBe "changed 5011"
+		items.size shouldBe TOTAL_ITEMS
+	}
+
+	test("Reloading the last page with fewer items removes the rest") {
+		val items = loadAllPages()
+		val callback = RecordingCallback()
+
+		val lastPage = TOTAL_ITEMS - PAGE_SIZE
+		items.loadPage(lastPage, page(lastPage, PAGE_SIZE / 2), TOTAL_ITEMS - PAGE_SIZE / 2, callback)
+
+		callback.updates shouldBe listOf(Update.Removed(TOTAL_ITEMS - PAGE_SIZE / 2, PAGE_SIZE / 2))
+		items shouldBe page(0, TOTAL_ITEMS - PAGE_SIZE / 2)
+	}
+})
@@ -20,6 +20,7 @@ class PlaybackManagerBuilder(context: Context) {
 	// Options
 	var defaultRewindAmount: (() -> Duration)? = null
 	var defaultFastForwardAmount: (() -> Duration)? = null
+	var prefetchWindowSize: Int = 2
 
 	fun install(pluginFactory: PlaybackPlugin) {
 		factories.add(pluginFactory)
@@ -57,6 +58,7 @@ class PlaybackManagerBuilder(context: Context) {
 			playerVolumeState = volumeState,
 			defaultRewindAmount = defaultRewindAmount ?: { 10.seconds },
 			defaultFastForwardAmount = defaultFastForwardAmount ?: { 10.seconds },
+			prefetchWindowSize = prefetchWindowSize,
 		)
 		return PlaybackManager(backends.first(), services, options)
 	}
@@ -7,4 +7,10 @@ class PlaybackManagerOptions(
 
 	val defaultRewindAmount: () -> Duration,
 	val defaultFastForwardAmount: () -> Duration,
+
+	/**
+	 * The amount of upcoming queue entries to resolve a media stream for while the current entry is playing. The
+	 * first of these is also prepared in the backend so it can start without delay. Set to 0 to disable.
+	 */
+	val prefetchWindowSize: Int,
 )
@@ -1,44 +1,37 @@
 package org.jellyfin.playback.core.element
 
-import kotlinx.coroutines.channels.BufferOverflow
-import kotlinx.coroutines.flow.Flow
-import kotlinx.coroutines.flow.MutableSharedFlow
-import kotlinx.coroutines.flow.distinctUntilChanged
-import kotlinx.coroutines.flow.map
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.asStateFlow
 import java.util.concurrent.ConcurrentHashMap
 
 /**
- * Container to hold elements identified with an [ElementKey].
+ * Container to hold elements identified with an [ElementKey]. Each element is stored in its own state flow, so
+ * collectors of an element are only notified about changes to that element and always receive the latest value.
  */
 open class ElementsContainer {
-	private val elements = ConcurrentHashMap<ElementKey<*>, Any?>()
-	private val updateFlow = MutableSharedFlow<ElementKey<*>>(
-		replay = 1,
-		extraBufferCapacity = 1,
-		onBufferOverflow = BufferOverflow.DROP_OLDEST,
-	)
+	// Holders are kept after removing an element so existing collectors keep receiving updates
+	private val elements = ConcurrentHashMap<ElementKey<*>, MutableStateFlow<Any?>>()
+
+	@Suppress("UNCHECKED_CAST")
+	private fun <T : Any> getState(key: ElementKey<T>): MutableStateFlow<T?> =
+		elements.computeIfAbsent(key) { MutableStateFlow(null) } as MutableStateFlow<T?>
 
 	fun <T : Any> get(key: ElementKey<T>): T = getOrNull(key)
 		?: error("No element found for key $key.")
 
 	@Suppress("UNCHECKED_CAST")
-	fun <T : Any> getOrNull(key: ElementKey<T>): T? = elements[key] as T?
+	fun <T : Any> getOrNull(key: ElementKey<T>): T? = elements[key]?.value as T?
 
-	operator fun <T : Any> contains(key: ElementKey<T>): Boolean = elements.containsKey(key)
+	operator fun <T : Any> contains(key: ElementKey<T>): Boolean = elements[key]?.value != null
 
 	fun <T : Any> put(key: ElementKey<T>, value: T) {
-		elements[key] = value
-		updateFlow.tryEmit(key)
+		getState(key).value = value
 	}
 
 	fun <T : Any> remove(key: ElementKey<T>) {
-		elements.remove(key)
-		updateFlow.tryEmit(key)
+		elements[key]?.value = null
 	}
 
-	fun <T : Any> getFlow(key: ElementKey<T>): Flow<T?> {
-		return updateFlow
-			.map { getOrNull(key) }
-			.distinctUntilChanged()
-	}
+	fun <T : Any> getFlow(key: ElementKey<T>): StateFlow<T?> = getState(key).asStateFlow()
 }
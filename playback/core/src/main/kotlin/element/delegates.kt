@@ -1,6 +1,6 @@
 package org.jellyfin.playback.core.element
 
-import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.StateFlow
 import kotlin.properties.ReadOnlyProperty
 import kotlin.properties.ReadWriteProperty
 import kotlin.reflect.KProperty
@@ -46,4 +46,4 @@ fun <T : Any> requiredElement(
  */
 fun <T : Any> elementFlow(
 	key: ElementKey<T>,
-) = ReadOnlyProperty<ElementsContainer, Flow<T?>> { thisRef, _ -> thisRef.getFlow(key) }
+) = ReadOnlyProperty<ElementsContainer, StateFlow<T?>> { thisRef, _ -> thisRef.getFlow(key) }
@@ -12,6 +12,6 @@ interface MediaStreamResolver {
 	 */
 	suspend fun getStream(
 		queueEntry: QueueEntry,
-		testStream: (stream: MediaStream) -> PlaySupportReport,
+		testStream: suspend (stream: MediaStream) -> PlaySupportReport,
 	): PlayableMediaStream?
 }
@@ -1,59 +1,164 @@
 package org.jellyfin.playback.core.mediastream
 
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.Deferred
 import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.TimeoutCancellationException
+import kotlinx.coroutines.async
+import kotlinx.coroutines.flow.collectLatest
 import kotlinx.coroutines.flow.launchIn
+import kotlinx.coroutines.flow.merge
 import kotlinx.coroutines.flow.onEach
+import kotlinx.coroutines.launch
 import kotlinx.coroutines.plus
+import kotlinx.coroutines.withContext
+import kotlinx.coroutines.withTimeout
 import org.jellyfin.playback.core.backend.PlayerBackend
 import org.jellyfin.playback.core.plugin.PlayerService
 import org.jellyfin.playback.core.queue.QueueEntry
 import org.jellyfin.playback.core.queue.queue
+import org.jellyfin.playback.core.support.PlaySupportReport
 import timber.log.Timber
+import kotlin.time.Duration.Companion.seconds
 
 internal class MediaStreamService(
 	private val mediaStreamResolvers: Collection<MediaStreamResolver>,
 ) : PlayerService() {
+	companion object {
+		private val RESOLVE_TIMEOUT = 30.seconds
+	}
+
+	// Only accessed from the main thread
+	private val pendingMediaStreams = mutableMapOf<QueueEntry, Deferred<PlayableMediaStream?>>()
+	private var prefetchJob: Job? = null
+
 	override suspend fun onInitialize() {
-		manager.queue.entry.onEach { entry ->
-			Timber.d("Queue entry changed to $entry")
-			val backend = requireNotNull(manager.backend)
+		// A newer entry supersedes the entry that is still resolving
+		coroutineScope.launch(Dispatchers.Main) {
+			manager.queue.entry.collectLatest { entry -> onEntryChanged(entry) }
+		}
+
+		// The upcoming entries change with the playback order and repeat mode
+		merge(state.playbackOrder, state.repeatMode).onEach {
+			if (manager.queue.entry.value != null) prefetchNext(requireNotNull(manager.backend))
+		}.launchIn(coroutineScope + Dispatchers.Main)
+	}
+
+	private suspend fun onEntryChanged(entry: QueueEntry?) {
+		Timber.d("Queue entry changed to $entry")
+		val backend = requireNotNull(manager.backend)
+		prefetchJob?.cancel()
+
+		if (entry == null) {
+			backend.setCurrent(null)
+		} else {
+			val hasMediaStream = try {
+				entry.ensureMediaStream(backend)
+			} catch (err: CancellationException) {
+				// Skipped to another entry before the stream was resolved
+				pendingMediaStreams.remove(entry)?.cancel()
+				throw err
+			}
 
-			if (entry == null) {
-				backend.setCurrent(null)
+			if (hasMediaStream) {
+				backend.setCurrent(entry)
+				prefetchNext(backend)
 			} else {
-				val hasMediaStream = entry.ensureMediaStream(backend)
+				Timber.e("Unable to resolve stream for entry $entry")
 
-				if (hasMediaStream) {
-					backend.setCurrent(entry)
+				// TODO: Somehow notify the user that we skipped an unplayable entry
+				if (manager.queue.peekNext() != null) {
+					manager.queue.next(usePlaybackOrder = true, useRepeatMode = false)
 				} else {
-					Timber.e("Unable to resolve stream for entry $entry")
-
-					// TODO: Somehow notify the user that we skipped an unplayable entry
-					if (manager.queue.peekNext() != null) {
-						manager.queue.next(usePlaybackOrder = true, useRepeatMode = false)
-					} else {
-						backend.setCurrent(null)
-					}
+					backend.setCurrent(null)
 				}
 			}
-		}.launchIn(coroutineScope + Dispatchers.Main)
-		// TODO Register some kind of event when $current item is at -30 seconds to setNext()
+		}
+	}
+
+	/**
+	 * Resolve the media streams for the upcoming queue entries so they can start without waiting for the resolvers.
+	 * The entry that plays next is prepared in the backend to allow it to buffer ahead of time.
+	 */
+	private fun prefetchNext(backend: PlayerBackend) {
+		prefetchJob?.cancel()
+
+		val windowSize = manager.options.prefetchWindowSize
+		if (windowSize <= 0) return
+
+		prefetchJob = coroutineScope.launch(Dispatchers.Main) {
+			val current = manager.queue.entry.value
+			val entries = manager.queue.peekNext(windowSize, usePlaybackOrder = true, useRepeatMode = true)
+
+			// Repeating the current entry does not need a new stream
+			val next = entries.firstOrNull()?.takeIf { it != current }
+			if (next != null && next.ensureMediaStream(backend)) {
+				Timber.d("Preparing next entry $next")
+				backend.prepareItem(next)
+			}
+
+			for (entry in entries.distinct()) {
+				if (entry != current && entry != next) entry.ensureMediaStream(backend)
+			}
+		}
 	}
 
 	private suspend fun QueueEntry.ensureMediaStream(
 		backend: PlayerBackend,
 	): Boolean {
-		mediaStream = mediaStream ?: mediaStreamResolvers.firstNotNullOfOrNull { resolver ->
-			runCatching {
-				resolver.getStream(this, backend::supportsStream)
-			}.onFailure {
-				Timber.e(it, "Media stream resolver failed for $this")
-			}.getOrNull()
+		if (mediaStream == null) {
+			// Share the request with a prefetch that is already resolving this entry
+			val pending = pendingMediaStreams.getOrPut(this) {
+				coroutineScope.async(Dispatchers.Main) {
+					try {
+						resolveMediaStream(backend).also { mediaStream = it }
+					} finally {
+						pendingMediaStreams.remove(this@ensureMediaStream)
+					}
+				}
+			}
+
+			pending.await()
 		}
 
 		return mediaStream != null
 	}
 
+	/**
+	 * Ask all resolvers for a stream at the same time on a background thread, the first resolver that returns a stream
+	 * is used.
+	 */
+	private suspend fun QueueEntry.resolveMediaStream(
+		backend: PlayerBackend,
+	): PlayableMediaStream? = withContext(Dispatchers.Default) {
+		// The backend may only be used from the main thread
+		val testStream: suspend (MediaStream) -> PlaySupportReport = { stream ->
+			withContext(Dispatchers.Main) { backend.supportsStream(stream) }
+		}
+
+		val streams = mediaStreamResolvers.map { resolver ->
+			async {
+				try {
+					withTimeout(RESOLVE_TIMEOUT) { resolver.getStream(this@resolveMediaStream, testStream) }
+				} catch (err: TimeoutCancellationException) {
+					Timber.e(err, "Media stream resolver timed out for ${this@resolveMediaStream}")
+					null
+				} catch (err: CancellationException) {
+					throw err
+				} catch (err: Exception) {
+					Timber.e(err, "Media stream resolver failed for ${this@resolveMediaStream}")
+					null
+				}
+			}
+		}
+
+		// Keep the order of the resolvers when more than one returns a stream
+		streams.firstNotNullOfOrNull { it.await() }.also {
+			streams.forEach { stream -> stream.cancel() }
+		}
+	}
+
 	private fun PlayerBackend.setCurrent(item: QueueEntry?) {
 		Timber.d("Current item changed to $item")
 
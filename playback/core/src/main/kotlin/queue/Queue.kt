@@ -23,6 +23,12 @@ interface Queue {
 	 */
 	val entry: StateFlow<QueueEntry?>
 
+	/**
+	 * Snapshot of the previous, current and upcoming entries. Updated in the background when the queue changes so it can be
+	 * read without fetching entries.
+	 */
+	val snapshot: StateFlow<QueueSnapshot>
+
 	/**
 	 * Add a supplier of queue items to the end of the queue. Will automatically fetch the first item if there is no current entry.
 	 */
@@ -1,11 +1,17 @@
 package org.jellyfin.playback.core.queue
 
+import kotlinx.coroutines.channels.BufferOverflow
+import kotlinx.coroutines.flow.MutableSharedFlow
 import kotlinx.coroutines.flow.MutableStateFlow
 import kotlinx.coroutines.flow.StateFlow
 import kotlinx.coroutines.flow.asStateFlow
+import kotlinx.coroutines.flow.collectLatest
 import kotlinx.coroutines.flow.launchIn
 import kotlinx.coroutines.flow.onEach
+import kotlinx.coroutines.flow.onSubscription
 import kotlinx.coroutines.launch
+import kotlinx.coroutines.sync.Mutex
+import kotlinx.coroutines.sync.withLock
 import org.jellyfin.playback.core.PlaybackManager
 import org.jellyfin.playback.core.backend.PlayerBackendEventListener
 import org.jellyfin.playback.core.mediastream.PlayableMediaStream
@@ -21,16 +27,26 @@ import org.jellyfin.playback.core.queue.supplier.QueueSupplier
 import kotlin.math.max
 
 class QueueService internal constructor() : PlayerService(), Queue {
-	private val suppliers = mutableListOf<QueueSupplier>()
-	private var currentSupplierIndex = 0
-	private var currentSupplierItemIndex = 0
-	private val fetchedItems: MutableList<QueueEntry> = mutableListOf()
+	companion object {
+		private const val MAX_CACHED_ENTRIES = 100
+		private const val SNAPSHOT_NEXT_ENTRIES = 15
+	}
 
+	private val suppliers = mutableListOf<QueueSupplier>()
+	// Window of recently used entries by queue index, entries outside of it are supplied again when needed
+	private val fetchedItems = LinkedHashMap<Int, QueueEntry>(16, 0.75f, true)
+	// Entries used since the current entry changed, other services may hold on to them so they are never dropped
+	private val pinnedIndices = mutableSetOf<Int>()
+	// Entries are supplied both for playback and for looking ahead, make sure they don't fetch at the same time
+	private val supplyMutex = Mutex()
+
+	// The order providers and played indices are used by playback and the snapshot collector on different threads
+	private val orderLock = Any()
 	private var defaultOrderIndexProvider = DefaultOrderIndexProvider()
 	private var orderIndexProvider: OrderIndexProvider = defaultOrderIndexProvider
 	private var currentQueueIndicesPlayed = mutableListOf<Int>()
 
-	override val estimatedSize get() = max(fetchedItems.size, suppliers.sumOf { it.size })
+	override val estimatedSize get() = max(_entryIndex.value + 1, suppliers.sumOf { it.size })
 
 	private val _entryIndex = MutableStateFlow(Queue.INDEX_NONE)
 	override val entryIndex: StateFlow<Int> get() = _entryIndex.asStateFlow()
@@ -38,16 +54,40 @@ class QueueService internal constructor() : PlayerService(), Queue {
 	private val _entry = MutableStateFlow<QueueEntry?>(null)
 	override val entry: StateFlow<QueueEntry?> get() = _entry.asStateFlow()
 
+	private val _snapshot = MutableStateFlow(QueueSnapshot.EMPTY)
+	override val snapshot: StateFlow<QueueSnapshot> get() = _snapshot.asStateFlow()
+	private val snapshotInvalidations = MutableSharedFlow<Unit>(
+		extraBufferCapacity = 1,
+		onBufferOverflow = BufferOverflow.DROP_OLDEST,
+	)
+
 	override suspend fun onInitialize() {
 		// Reset calculated next-up indices when playback order changes
 		state.playbackOrder.onEach { playbackOrder ->
-			orderIndexProvider = when (playbackOrder) {
-				PlaybackOrder.DEFAULT -> defaultOrderIndexProvider
-				PlaybackOrder.RANDOM -> RandomOrderIndexProvider()
-				PlaybackOrder.SHUFFLE -> ShuffleOrderIndexProvider()
+			synchronized(orderLock) {
+				orderIndexProvider = when (playbackOrder) {
+					PlaybackOrder.DEFAULT -> defaultOrderIndexProvider
+					PlaybackOrder.RANDOM -> RandomOrderIndexProvider()
+					PlaybackOrder.SHUFFLE -> ShuffleOrderIndexProvider()
+				}
 			}
+			invalidateSnapshot()
 		}.launchIn(coroutineScope)
 
+		// The upcoming entries depend on the repeat mode
+		state.repeatMode.onEach { invalidateSnapshot() }.launchIn(coroutineScope)
+
+		// Create the snapshot in the background, fetching entries may require network requests
+		coroutineScope.launch {
+			snapshotInvalidations.onSubscription { emit(Unit) }.collectLatest {
+				// Show a changed entry right away, the surrounding entries follow when they are fetched
+				val current = _entry.value
+				if (_snapshot.value.current != current) _snapshot.value = QueueSnapshot(null, current, emptyList())
+
+				_snapshot.value = createSnapshot()
+			}
+		}
+
 		// Automatically advance when current stream ends
 		manager.backendService.addListener(object : PlayerBackendEventListener {
 			override fun onPlayStateChange(state: PlayState) = Unit
@@ -68,51 +108,96 @@ class QueueService internal constructor() : PlayerService(), Queue {
 
 		if (_entryIndex.value == Queue.INDEX_NONE) {
 			coroutineScope.launch { setIndex(0) }
+		} else {
+			invalidateSnapshot()
 		}
 	}
 
-	private suspend fun getOrSupplyItem(index: Int): QueueEntry? {
-		// Fetch additional items from suppliers until we reach the desired index
-		while (index >= fetchedItems.size) {
-			// No more suppliers to try
-			if (currentSupplierIndex >= suppliers.size) break
-
-			val supplier = suppliers[currentSupplierIndex]
-			val nextItem = supplier.getItem(currentSupplierItemIndex)
-
-			if (nextItem != null) {
-				// Add item to cache and icnrease item index
-				fetchedItems.add(nextItem)
-				currentSupplierItemIndex++
-			} else {
-				// Move to the next supplier if current one is exhausted
-				currentSupplierIndex++
-				currentSupplierItemIndex = 0
-			}
+	private suspend fun getOrSupplyItem(index: Int, resetPinned: Boolean = false): QueueEntry? = supplyMutex.withLock {
+		if (resetPinned) pinnedIndices.clear()
+
+		val entry = when {
+			index < 0 -> null
+			// Keep the playing entry even when it left the window
+			index == _entryIndex.value && _entry.value != null -> _entry.value
+			else -> fetchedItems[index] ?: supplyItem(index)?.also { fetchedItems[index] = it }
+		}
+
+		if (entry != null) {
+			pinnedIndices.add(index)
+			trimFetchedItems()
+		}
+
+		entry
+	}
+
+	/**
+	 * Drop the least recently used entries that are not pinned until the window fits [MAX_CACHED_ENTRIES]. A dropped
+	 * entry is supplied as a new [QueueEntry] when it is used again, so entries in use keep their identity and state.
+	 */
+	private fun trimFetchedItems() {
+		val indices = fetchedItems.keys.iterator()
+		while (fetchedItems.size > MAX_CACHED_ENTRIES && indices.hasNext()) {
+			if (indices.next() !in pinnedIndices) indices.remove()
+		}
+	}
+
+	private suspend fun supplyItem(index: Int): QueueEntry? {
+		// Find the supplier containing the index, suppliers only know their size after supplying the first item
+		var supplierOffset = 0
+		for (supplier in suppliers) {
+			if (supplier.size == 0 && supplier.getItem(0) == null) continue
+
+			val supplierIndex = index - supplierOffset
+			if (supplierIndex < supplier.size) return supplier.getItem(supplierIndex)
+
+			supplierOffset += supplier.size
 		}
 
-		// Return item or null if not found
-		return if (index >= 0 && index < fetchedItems.size) fetchedItems[index]
-		else null
+		return null
 	}
 
 	override fun clear() {
 		suppliers.clear()
-		currentSupplierIndex = 0
-		currentSupplierItemIndex = 0
 		fetchedItems.clear()
+		pinnedIndices.clear()
 		_entry.value = null
 		_entryIndex.value = Queue.INDEX_NONE
-		currentQueueIndicesPlayed.clear()
+		synchronized(orderLock) {
+			currentQueueIndicesPlayed.clear()
+			orderIndexProvider.reset()
+		}
+		_snapshot.value = QueueSnapshot.EMPTY
+		invalidateSnapshot()
+	}
+
+	// Snapshot
+
+	private fun invalidateSnapshot() {
+		snapshotInvalidations.tryEmit(Unit)
+	}
+
+	private suspend fun createSnapshot(): QueueSnapshot {
+		val current = _entry.value ?: return QueueSnapshot.EMPTY
+
+		return QueueSnapshot(
+			previous = peekPrevious(),
+			current = current,
+			next = peekNext(SNAPSHOT_NEXT_ENTRIES).toList(),
+		)
 	}
 
 	// Preloading
 
-	private fun getNextIndices(amount: Int, usePlaybackOrder: Boolean, useRepeatMode: Boolean): Collection<Int> {
+	private fun getNextIndices(
+		amount: Int,
+		usePlaybackOrder: Boolean,
+		useRepeatMode: Boolean,
+	): Collection<Int> = synchronized(orderLock) {
 		val provider = if (usePlaybackOrder) orderIndexProvider else defaultOrderIndexProvider
 		val repeatMode = if (useRepeatMode) state.repeatMode.value else RepeatMode.NONE
 
-		return when (repeatMode) {
+		when (repeatMode) {
 			RepeatMode.NONE -> provider.provideIndices(amount, estimatedSize, currentQueueIndicesPlayed, _entryIndex.value)
 
 			RepeatMode.REPEAT_ENTRY_ONCE -> buildList(amount) {
@@ -126,21 +211,32 @@ class QueueService internal constructor() : PlayerService(), Queue {
 
 	// Jumping
 
-	override suspend fun previous(): QueueEntry? = currentQueueIndicesPlayed.removeLastOrNull()?.let {
-		setIndex(it)
+	override suspend fun previous(): QueueEntry? {
+		val index = synchronized(orderLock) {
+			currentQueueIndicesPlayed.removeLastOrNull()?.also {
+				if (_entryIndex.value != Queue.INDEX_NONE) orderIndexProvider.usePreviousIndex(_entryIndex.value)
+			}
+		} ?: return null
+
+		return setIndex(index)
 	}
 
 	override suspend fun next(usePlaybackOrder: Boolean, useRepeatMode: Boolean): QueueEntry? {
-		val index = getNextIndices(1, usePlaybackOrder, useRepeatMode).firstOrNull() ?: return null
-
-		val provider = if (usePlaybackOrder) orderIndexProvider else defaultOrderIndexProvider
-		val repeatMode = if (useRepeatMode) state.repeatMode.value else RepeatMode.NONE
+		// Select and consume the index at once so a snapshot can't observe or change the provider in between
+		val index = synchronized(orderLock) {
+			val index = getNextIndices(1, usePlaybackOrder, useRepeatMode).firstOrNull() ?: return null
+
+			val provider = if (usePlaybackOrder) orderIndexProvider else defaultOrderIndexProvider
+			val repeatMode = if (useRepeatMode) state.repeatMode.value else RepeatMode.NONE
+
+			// Automatically set repeat mode back to none when using the ONCE option
+			if (repeatMode == RepeatMode.REPEAT_ENTRY_ONCE && index == this._entryIndex.value) {
+				state.setRepeatMode(RepeatMode.NONE)
+			} else if (repeatMode == RepeatMode.NONE) {
+				provider.useNextIndex()
+			}
 
-		// Automatically set repeat mode back to none when using the ONCE option
-		if (repeatMode == RepeatMode.REPEAT_ENTRY_ONCE && index == this._entryIndex.value) {
-			state.setRepeatMode(RepeatMode.NONE)
-		} else if (repeatMode == RepeatMode.NONE) {
-			provider.useNextIndex()
+			index
 		}
 
 		return setIndex(index, true)
@@ -151,22 +247,23 @@ class QueueService internal constructor() : PlayerService(), Queue {
 
 		// Save previous index
 		if (saveHistory && _entryIndex.value != Queue.INDEX_NONE) {
-			currentQueueIndicesPlayed.add(_entryIndex.value)
+			synchronized(orderLock) { currentQueueIndicesPlayed.add(_entryIndex.value) }
 		}
 
-		// Set new index
-		val currentEntry = getOrSupplyItem(index)
+		// Set new index, entries used for the previous entry are no longer needed
+		val currentEntry = getOrSupplyItem(index, resetPinned = true)
 		_entryIndex.value = if (currentEntry == null) Queue.INDEX_NONE else index
 		_entry.value = currentEntry
+		invalidateSnapshot()
 
 		return currentEntry
 	}
 
 	// Peeking
 
-	override suspend fun peekPrevious(): QueueEntry? = currentQueueIndicesPlayed.lastOrNull()?.let {
-		getOrSupplyItem(it)
-	}
+	override suspend fun peekPrevious(): QueueEntry? = synchronized(orderLock) {
+		currentQueueIndicesPlayed.lastOrNull()
+	}?.let { getOrSupplyItem(it) }
 
 	override suspend fun peekNext(
 		usePlaybackOrder: Boolean,
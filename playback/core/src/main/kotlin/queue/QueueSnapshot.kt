@@ -0,0 +1,23 @@
+package org.jellyfin.playback.core.queue
+
+/**
+ * Immutable view of the entries around the current entry of the [Queue].
+ */
+data class QueueSnapshot(
+	/**
+	 * The previously playing entry or null if none.
+	 */
+	val previous: QueueEntry?,
+	/**
+	 * The currently playing entry or null if none.
+	 */
+	val current: QueueEntry?,
+	/**
+	 * The upcoming entries in playback order, limited to a small window.
+	 */
+	val next: List<QueueEntry>,
+) {
+	companion object {
+		val EMPTY = QueueSnapshot(null, null, emptyList())
+	}
+}
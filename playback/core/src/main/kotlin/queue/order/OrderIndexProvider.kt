@@ -30,4 +30,10 @@ internal interface OrderIndexProvider {
 	 * modify internal state for the provider.
 	 */
 	fun useNextIndex() = Unit
+
+	/**
+	 * Called when returning to the previously played index, [index] is the index that was playing before. Used to
+	 * modify internal state for the provider.
+	 */
+	fun usePreviousIndex(index: Int) = Unit
 }
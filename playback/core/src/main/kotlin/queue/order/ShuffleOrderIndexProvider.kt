@@ -1,11 +1,33 @@
 package org.jellyfin.playback.core.queue.order
 
-import kotlin.math.min
+import java.util.BitSet
+import kotlin.random.Random
 
-internal class ShuffleOrderIndexProvider : OrderIndexProvider {
-	private val nextIndices = mutableListOf<Int>()
+/**
+ * Plays all indices once in a random order. The order is a Fisher–Yates permutation of the queue that is only
+ * materialized for the indices that were drawn, so each step takes constant time regardless of the queue size.
+ */
+internal class ShuffleOrderIndexProvider(
+	private val random: Random = Random.Default,
+) : OrderIndexProvider {
+	// Indices drawn ahead of time, reused so looking ahead doesn't change the order
+	private val nextIndices = ArrayDeque<Int>()
 
-	override fun reset() = nextIndices.clear()
+	// Positions of the permutation that were swapped, all other positions contain their own index
+	private val permutation = mutableMapOf<Int, Int>()
+	private var drawnCount = 0
+
+	// Indices that were played, these are never drawn
+	private val played = BitSet()
+	private var syncedPlayedCount = 0
+
+	override fun reset() {
+		nextIndices.clear()
+		permutation.clear()
+		drawnCount = 0
+		played.clear()
+		syncedPlayedCount = 0
+	}
 
 	override fun provideIndices(
 		amount: Int,
@@ -13,27 +35,60 @@ internal class ShuffleOrderIndexProvider : OrderIndexProvider {
 		playedIndices: Collection<Int>,
 		currentIndex: Int,
 	): Collection<Int> {
-		val remainingItemsSize = size - playedIndices.size
-		return if (remainingItemsSize <= 0) {
-			emptyList()
-		} else {
-			val remainingIndices = (0..size).filterNot {
-				it in playedIndices || it in nextIndices
-			}
-
-			List(min(amount, remainingItemsSize)) { i ->
-				if (i < nextIndices.lastIndex) {
-					nextIndices[i]
-				} else {
-					val index = remainingIndices.random()
-					nextIndices.add(index)
-					index
-				}
-			}
+		syncPlayedIndices(playedIndices, currentIndex)
+
+		while (nextIndices.size < amount) {
+			val index = draw(size, currentIndex) ?: break
+			nextIndices.addLast(index)
 		}
+
+		return nextIndices.take(amount)
 	}
 
 	override fun useNextIndex() {
-		nextIndices.removeAt(0)
+		nextIndices.removeFirstOrNull()
+	}
+
+	override fun usePreviousIndex(index: Int) {
+		// Return to the same index when skipping forward again
+		played.clear(index)
+		nextIndices.addFirst(index)
+	}
+
+	/**
+	 * Mark the indices added to [playedIndices] since the last call as played. The played indices only change at the
+	 * end, so only the new indices are read.
+	 */
+	private fun syncPlayedIndices(playedIndices: Collection<Int>, currentIndex: Int) {
+		if (playedIndices.size < syncedPlayedCount) syncedPlayedCount = playedIndices.size
+		if (playedIndices.size == syncedPlayedCount) return
+
+		val newIndices = when (playedIndices) {
+			is List<Int> -> playedIndices.subList(syncedPlayedCount, playedIndices.size)
+			else -> playedIndices.drop(syncedPlayedCount)
+		}
+		for (index in newIndices) if (index >= 0) played.set(index)
+		syncedPlayedCount = playedIndices.size
+
+		// Indices that were selected manually are no longer up next
+		nextIndices.removeAll { played[it] || it == currentIndex }
+	}
+
+	/**
+	 * Draw the next index of the permutation that was not played yet.
+	 */
+	private fun draw(size: Int, currentIndex: Int): Int? {
+		while (drawnCount < size) {
+			val position = random.nextInt(drawnCount, size)
+			// Swap the drawn position with the first undrawn position
+			val index = permutation.remove(position) ?: position
+			if (position != drawnCount) permutation[position] = permutation.remove(drawnCount) ?: drawnCount
+			drawnCount++
+
+			// The queue may have become smaller since the permutation was created
+			if (index < size && !played[index] && index != currentIndex) return index
+		}
+
+		return null
 	}
 }
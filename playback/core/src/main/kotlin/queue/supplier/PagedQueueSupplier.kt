@@ -2,29 +2,26 @@ package org.jellyfin.playback.core.queue.supplier
 
 import org.jellyfin.playback.core.queue.QueueEntry
 
+/**
+ * A [QueueSupplier] that loads its entries in pages. Any index can be requested, only the page containing it is
+ * loaded. At most [maxPages] pages are kept in memory, the least recently used page is dropped when more are loaded.
+ * Implementations should set [size] to the total amount of entries reported by the server when loading a page.
+ */
 abstract class PagedQueueSupplier(
 	private val pageSize: Int = 10,
+	private val maxPages: Int = 10,
 ) : QueueSupplier {
-	companion object {
-		const val MAX_SIZE = 100
+	private val pages = object : LinkedHashMap<Int, List<QueueEntry>>(16, 0.75f, true) {
+		override fun removeEldestEntry(eldest: MutableMap.MutableEntry<Int, List<QueueEntry>>) = size > maxPages
 	}
 
-	private val buffer: MutableList<QueueEntry> = mutableListOf()
-
 	override suspend fun getItem(index: Int): QueueEntry? {
-		require(index in 0 until MAX_SIZE)
-
-		var page: Collection<QueueEntry>
-		var pageOffset = buffer.size
-		do {
-			if (buffer.size > index) return buffer[index]
-			page = loadPage(pageOffset, pageSize)
-			pageOffset += page.size
+		require(index >= 0)
 
-			for (item in page) buffer.add(item)
-		} while (page.isNotEmpty())
+		val pageIndex = index / pageSize
+		val page = pages[pageIndex] ?: loadPage(pageIndex * pageSize, pageSize).toList().also { pages[pageIndex] = it }
 
-		return null
+		return page.getOrNull(index % pageSize)
 	}
 
 	abstract suspend fun loadPage(offset: Int, size: Int): Collection<QueueEntry>
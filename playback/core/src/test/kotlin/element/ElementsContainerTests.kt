@@ -0,0 +1,86 @@
+package org.jellyfin.playback.core.element
+
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.shouldBe
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.async
+import kotlinx.coroutines.awaitAll
+import kotlinx.coroutines.flow.first
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.withTimeout
+import kotlin.time.Duration.Companion.seconds
+
+class ElementsContainerTests : FunSpec({
+	test("Elements can be added and removed") {
+		val key = ElementKey<String>("test")
+		val container = ElementsContainer()
+
+		container.getOrNull(key) shouldBe null
+		(key in container) shouldBe false
+
+		container.put(key, "value")
+		container.get(key) shouldBe "value"
+		(key in container) shouldBe true
+
+		container.remove(key)
+		container.getOrNull(key) shouldBe null
+		(key in container) shouldBe false
+	}
+
+	test("Element flow only emits changes of its own key") {
+		val key = ElementKey<Int>("key")
+		val otherKey = ElementKey<Int>("other")
+		val container = ElementsContainer()
+
+		val values = mutableListOf<Int?>()
+		val job = launch(Dispatchers.Unconfined) {
+			container.getFlow(key).collect { values.add(it) }
+		}
+
+		container.put(otherKey, 1)
+		container.put(otherKey, 2)
+		container.put(key, 1)
+		container.remove(otherKey)
+		container.remove(key)
+		container.put(key, 2)
+		job.cancel()
+
+		values shouldBe listOf(null, 1, null, 2)
+	}
+
+	test("Element flow keeps emitting after the element was removed") {
+		val key = ElementKey<String>("test")
+		val container = ElementsContainer()
+		val flow = container.getFlow(key)
+
+		container.put(key, "first")
+		container.remove(key)
+		container.put(key, "second")
+
+		flow.value shouldBe "second"
+	}
+
+	test("Concurrent updates to different keys are not lost") {
+		val keyCount = 16
+		val updateCount = 10_000
+		val keys = List(keyCount) { ElementKey<Int>("key $it") }
+		val container = ElementsContainer()
+
+		withTimeout(10.seconds) {
+			// Wait for the last value of each key while all keys are updated at the same time
+			val collectors = keys.map { key ->
+				async(Dispatchers.Default) { container.getFlow(key).first { it == updateCount } }
+			}
+
+			keys.map { key ->
+				launch(Dispatchers.Default) {
+					for (i in 1..updateCount) container.put(key, i)
+				}
+			}.forEach { it.join() }
+
+			collectors.awaitAll()
+		}
+
+		for (key in keys) container.get(key) shouldBe updateCount
+	}
+})
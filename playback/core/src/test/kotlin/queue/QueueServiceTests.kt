@@ -0,0 +1,71 @@
+package org.jellyfin.playback.core.queue
+
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.nulls.shouldNotBeNull
+import io.kotest.matchers.shouldBe
+import io.mockk.mockk
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.cancelAndJoin
+import kotlinx.coroutines.flow.first
+import kotlinx.coroutines.isActive
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.withContext
+import kotlinx.coroutines.yield
+import org.jellyfin.playback.core.PlaybackManager
+import org.jellyfin.playback.core.PlaybackManagerOptions
+import org.jellyfin.playback.core.model.PlaybackOrder
+import org.jellyfin.playback.core.queue.supplier.QueueSupplier
+import kotlin.time.Duration.Companion.seconds
+
+private class TestQueueSupplier(override val size: Int) : QueueSupplier {
+	override suspend fun getItem(index: Int): QueueEntry? = if (index in 0 until size) QueueEntry() else null
+}
+
+private fun createQueueService(): QueueService {
+	val queueService = QueueService()
+	PlaybackManager(
+		backend = mockk(relaxed = true),
+		services = mutableListOf(queueService),
+		options = PlaybackManagerOptions(
+			playerVolumeState = mockk(relaxed = true),
+			defaultRewindAmount = { 10.seconds },
+			defaultFastForwardAmount = { 10.seconds },
+			prefetchWindowSize = 0,
+		),
+	)
+	return queueService
+}
+
+class QueueServiceTests : FunSpec({
+	test("Skipping while snapshots are created plays every entry once") {
+		val size = 2_000
+		val queueService = createQueueService()
+		queueService.state.setPlaybackOrder(PlaybackOrder.SHUFFLE)
+		queueService.addSupplier(TestQueueSupplier(size))
+		queueService.entryIndex.first { it != Queue.INDEX_NONE }
+
+		val played = mutableListOf(queueService.entryIndex.value)
+		withContext(Dispatchers.Default) {
+			// Look ahead from other threads the same way the snapshot collector does
+			val peekers = List(4) {
+				launch {
+					while (isActive) {
+						queueService.peekPrevious()
+						queueService.peekNext(15)
+						yield()
+					}
+				}
+			}
+
+			repeat(size - 1) {
+				queueService.next().shouldNotBeNull()
+				played.add(queueService.entryIndex.value)
+			}
+
+			peekers.forEach { it.cancelAndJoin() }
+		}
+
+		played.sorted() shouldBe List(size) { it }
+		queueService.next() shouldBe null
+	}
+})
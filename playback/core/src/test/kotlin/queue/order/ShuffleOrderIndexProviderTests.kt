@@ -0,0 +1,82 @@
+package org.jellyfin.playback.core.queue.order
+
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.collections.shouldContainExactlyInAnyOrder
+import io.kotest.matchers.collections.shouldNotContain
+import io.kotest.matchers.shouldBe
+import kotlin.random.Random
+import kotlin.time.Duration.Companion.seconds
+
+/**
+ * Play the queue like the QueueService does, looking ahead [peekAmount] entries before each step.
+ */
+private fun ShuffleOrderIndexProvider.playAll(size: Int, peekAmount: Int = 15): List<Int> {
+	val played = mutableListOf<Int>()
+	var current = 0
+
+	while (true) {
+		provideIndices(peekAmount, size, played, current)
+		val next = provideIndices(1, size, played, current).firstOrNull() ?: break
+		useNextIndex()
+		played.add(current)
+		current = next
+	}
+
+	return played + current
+}
+
+class ShuffleOrderIndexProviderTests : FunSpec({
+	test("Shuffle plays every index once") {
+		val order = ShuffleOrderIndexProvider(Random(1)).playAll(1_000)
+
+		order shouldContainExactlyInAnyOrder (0 until 1_000).toList()
+	}
+
+	test("Shuffle order is deterministic with a seed") {
+		val first = ShuffleOrderIndexProvider(Random(42)).playAll(1_000)
+		val second = ShuffleOrderIndexProvider(Random(42)).playAll(1_000)
+
+		first shouldBe second
+	}
+
+	test("Looking ahead does not change the order") {
+		val provider = ShuffleOrderIndexProvider(Random(7))
+		val peeked = provider.provideIndices(15, 100, emptyList(), 0).toList()
+
+		provider.provideIndices(5, 100, emptyList(), 0) shouldBe peeked.take(5)
+		provider.provideIndices(15, 100, emptyList(), 0) shouldBe peeked
+	}
+
+	test("Returning to the previous index keeps the order") {
+		val provider = ShuffleOrderIndexProvider(Random(7))
+		val (first, second) = provider.provideIndices(2, 100, emptyList(), 0).toList()
+
+		// Play the first index, then go back to the start
+		provider.useNextIndex()
+		provider.usePreviousIndex(first)
+
+		provider.provideIndices(2, 100, emptyList(), 0) shouldBe listOf(first, second)
+	}
+
+	test("Manually played indices are skipped") {
+		val provider = ShuffleOrderIndexProvider(Random(3))
+		val peeked = provider.provideIndices(15, 100, emptyList(), 0).toList()
+		val notPeeked = (1 until 100).first { it !in peeked }
+		val played = listOf(0, notPeeked, peeked[3])
+
+		val next = provider.provideIndices(100, 100, played, peeked[5])
+		next shouldNotContain notPeeked
+		next shouldNotContain peeked[3]
+		next shouldNotContain peeked[5]
+		next.size shouldBe 96
+	}
+
+	for (size in listOf(1_000, 100_000)) {
+		test("Shuffle plays $size entries in linear time").config(timeout = 10.seconds) {
+			val order = ShuffleOrderIndexProvider(Random(size)).playAll(size)
+
+			// Every index is played exactly once, sorting keeps the check fast for large queues
+			order.sorted() shouldBe (0 until size).toList()
+		}
+	}
+})
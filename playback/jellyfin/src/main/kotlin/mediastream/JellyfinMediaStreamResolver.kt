@@ -25,7 +25,7 @@ class JellyfinMediaStreamResolver(
 		private val supportedMediaTypes = arrayOf(MediaType.VIDEO, MediaType.AUDIO)
 	}
 
-	override suspend fun getStream(queueEntry: QueueEntry, testStream: (stream: MediaStream) -> PlaySupportReport): PlayableMediaStream? {
+	override suspend fun getStream(queueEntry: QueueEntry, testStream: suspend (stream: MediaStream) -> PlaySupportReport): PlayableMediaStream? {
 		val baseItem = queueEntry.baseItem
 		if (baseItem == null || !supportedMediaTypes.contains(baseItem.mediaType)) return null
 
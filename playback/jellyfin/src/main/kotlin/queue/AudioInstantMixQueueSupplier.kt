@@ -40,7 +40,8 @@ class AudioInstantMixQueueSupplier(
 			// Pagination
 			limit = size,
 		)
-		this.size = result.totalRecordCount
+		// Only the first page is available so the total record count can't be used as size
+		this.size = result.items.size
 		return result.items.map { createBaseItemQueueEntry(api, it) }
 	}
 }
@@ -33,6 +33,7 @@ class EpisodeQueueSupplier(
 			// Pagination
 			startIndex = offset,
 			limit = size,
+			enableTotalRecordCount = true,
 		)
 		this.size = result.totalRecordCount
 		return result.items.map { createBaseItemQueueEntry(api, it) }
@@ -11,6 +11,7 @@ import androidx.media3.common.MediaItem
 import androidx.media3.common.PlaybackException
 import androidx.media3.common.Player
 import androidx.media3.common.TrackSelectionParameters
+import androidx.media3.common.Tracks
 import androidx.media3.common.VideoSize
 import androidx.media3.common.text.CueGroup
 import androidx.media3.common.util.UnstableApi
@@ -19,6 +20,7 @@ import androidx.media3.exoplayer.DefaultRenderersFactory
 import androidx.media3.exoplayer.ExoPlayer
 import androidx.media3.exoplayer.source.DefaultMediaSourceFactory
 import androidx.media3.exoplayer.trackselection.DefaultTrackSelector
+import androidx.media3.exoplayer.upstream.DefaultBandwidthMeter
 import androidx.media3.exoplayer.util.EventLogger
 import androidx.media3.extractor.DefaultExtractorsFactory
 import androidx.media3.extractor.ts.TsExtractor
@@ -30,17 +32,23 @@ import io.github.peerless2012.ass.media.parser.AssSubtitleParserFactory
 import io.github.peerless2012.ass.media.type.AssRenderType
 import io.github.peerless2012.ass.media.widget.AssSubtitleView
 import org.jellyfin.playback.core.backend.BasePlayerBackend
+import org.jellyfin.playback.core.mediastream.MediaConversionMethod
 import org.jellyfin.playback.core.mediastream.MediaStream
+import org.jellyfin.playback.core.mediastream.MediaStreamVideoTrack
 import org.jellyfin.playback.core.mediastream.PlayableMediaStream
 import org.jellyfin.playback.core.mediastream.mediaStream
 import org.jellyfin.playback.core.mediastream.normalizationGain
 import org.jellyfin.playback.core.model.PlayState
 import org.jellyfin.playback.core.model.PositionInfo
 import org.jellyfin.playback.core.queue.QueueEntry
+import org.jellyfin.playback.core.queue.metadata
 import org.jellyfin.playback.core.support.PlaySupportReport
 import org.jellyfin.playback.core.ui.PlayerSubtitleView
 import org.jellyfin.playback.core.ui.PlayerSurfaceView
+import org.jellyfin.playback.media3.exoplayer.buffer.AdaptiveLoadControl
+import org.jellyfin.playback.media3.exoplayer.buffer.getSelectedBitrate
 import org.jellyfin.playback.media3.exoplayer.support.getPlaySupportReport
+import org.jellyfin.playback.media3.exoplayer.telemetry.PlaybackSessionTracker
 import org.jellyfin.playback.media3.exoplayer.support.toFormats
 import timber.log.Timber
 import kotlin.time.Duration
@@ -64,6 +72,18 @@ class ExoPlayerBackend(
 		AssHandler(AssRenderType.OVERLAY)
 	}
 
+	private val bandwidthMeter by lazy {
+		DefaultBandwidthMeter.getSingletonInstance(context)
+	}
+
+	private val loadControl by lazy {
+		AdaptiveLoadControl.create(bandwidthMeter, exoPlayerOptions.bufferProfile, exoPlayerOptions.isLowMemoryDevice)
+	}
+
+	private val sessionTracker = PlaybackSessionTracker(loadControl.metrics) { record ->
+		exoPlayerOptions.onPlaybackSessionFinished?.invoke(record)
+	}
+
 	private val exoPlayer by lazy {
 		val dataSourceFactory = DefaultDataSource.Factory(
 			context,
@@ -115,6 +135,8 @@ class ExoPlayerBackend(
 				})
 			})
 			.setMediaSourceFactory(mediaSourceFactory)
+			.setBandwidthMeter(bandwidthMeter)
+			.setLoadControl(loadControl)
 			.setAudioAttributes(AudioAttributes.Builder().apply {
 				setUsage(C.USAGE_MEDIA)
 			}.build(), true)
@@ -122,6 +144,7 @@ class ExoPlayerBackend(
 			.build()
 			.also { player ->
 				player.addListener(PlayerListener())
+				player.addAnalyticsListener(sessionTracker)
 
 				if (exoPlayerOptions.enableDebugLogging) {
 					player.addAnalyticsListener(EventLogger())
@@ -165,6 +188,10 @@ class ExoPlayerBackend(
 			}
 		}
 
+		override fun onTracksChanged(tracks: Tracks) {
+			loadControl.setStreamBitrate(tracks.getSelectedBitrate())
+		}
+
 		override fun onAudioSessionIdChanged(audioSessionId: Int) {
 			audioPipeline.setAudioSessionId(audioSessionId)
 		}
@@ -172,6 +199,15 @@ class ExoPlayerBackend(
 		override fun onMediaItemTransition(mediaItem: MediaItem?, reason: Int) {
 			val queueEntry = mediaItem?.localConfiguration?.tag as? QueueEntry
 			audioPipeline.normalizationGain = queueEntry?.normalizationGain
+
+			// A gapless transition continued into the prepared item without pausing, let the queue catch up
+			if (reason == Player.MEDIA_ITEM_TRANSITION_REASON_AUTO) {
+				val previousStream = currentStream
+				currentStream = queueEntry?.mediaStream
+				currentStream?.let(::startSession)
+				updatePauseAtEndOfMediaItems()
+				if (previousStream != null) listener?.onMediaStreamEnd(previousStream)
+			}
 		}
 	}
 
@@ -200,18 +236,55 @@ class ExoPlayerBackend(
 		}
 	}
 
+	private fun startSession(stream: PlayableMediaStream) = sessionTracker.startSession(
+		title = stream.queueEntry.metadata.title,
+		playMethod = when (stream.conversionMethod) {
+			MediaConversionMethod.None -> "DirectPlay"
+			MediaConversionMethod.Remux -> "DirectStream"
+			MediaConversionMethod.Transcode -> "Transcode"
+		},
+	)
+
+	private val PlayableMediaStream.isAudio get() = tracks.none { it is MediaStreamVideoTrack }
+
+	private fun getNextMediaItem(): MediaItem? {
+		val nextIndex = exoPlayer.currentMediaItemIndex + 1
+		return if (nextIndex < exoPlayer.mediaItemCount) exoPlayer.getMediaItemAt(nextIndex) else null
+	}
+
+	private fun updatePauseAtEndOfMediaItems() {
+		val nextStream = (getNextMediaItem()?.localConfiguration?.tag as? QueueEntry)?.mediaStream
+		val isGapless = exoPlayerOptions.enableGaplessAudio &&
+			currentStream?.isAudio == true &&
+			nextStream?.isAudio == true
+
+		// Pausing at the end of each item lets the queue decide what to play next, gapless audio continues into the
+		// prepared item instead
+		exoPlayer.pauseAtEndOfMediaItems = !isGapless
+	}
+
 	override fun prepareItem(item: QueueEntry) {
 		val stream = requireNotNull(item.mediaStream)
+		val mediaId = stream.hashCode().toString()
+
+		// Already preloaded
+		if (getNextMediaItem()?.mediaId == mediaId) return
+
 		val mediaItem = MediaItem.Builder().apply {
 			setTag(item)
-			setMediaId(stream.hashCode().toString())
+			setMediaId(mediaId)
 			setUri(stream.url)
 		}.build()
 
-		// Remove any old preloaded items (skips the first which is the playing item)
-		while (exoPlayer.mediaItemCount > 1) exoPlayer.removeMediaItem(0)
+		// Remove any played and old preloaded items, keeping the current item
+		if (exoPlayer.mediaItemCount > 0) {
+			val currentIndex = exoPlayer.currentMediaItemIndex
+			if (currentIndex + 1 < exoPlayer.mediaItemCount) exoPlayer.removeMediaItems(currentIndex + 1, exoPlayer.mediaItemCount)
+			if (currentIndex > 0) exoPlayer.removeMediaItems(0, currentIndex)
+		}
 		// Add new item
 		exoPlayer.addMediaItem(mediaItem)
+		updatePauseAtEndOfMediaItems()
 
 		exoPlayer.prepare()
 	}
@@ -220,18 +293,13 @@ class ExoPlayerBackend(
 		val stream = requireNotNull(item.mediaStream)
 		if (currentStream == stream) return
 
+		// Makes sure the item is the next item in the playlist, does nothing when it was already preloaded
+		prepareItem(item)
 		currentStream = stream
-
-		var streamIsPrepared = false
-		repeat(exoPlayer.mediaItemCount) { index ->
-			streamIsPrepared =
-				streamIsPrepared || exoPlayer.getMediaItemAt(index).mediaId == stream.hashCode()
-					.toString()
-		}
-
-		if (!streamIsPrepared) prepareItem(item)
+		startSession(stream)
 
 		exoPlayer.seekToNextMediaItem()
+		updatePauseAtEndOfMediaItems()
 		exoPlayer.play()
 	}
 
@@ -246,6 +314,7 @@ class ExoPlayerBackend(
 	}
 
 	override fun stop() {
+		sessionTracker.finishSession()
 		exoPlayer.stop()
 		currentStream = null
 	}
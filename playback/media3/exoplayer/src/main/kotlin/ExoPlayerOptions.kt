@@ -2,10 +2,25 @@ package org.jellyfin.playback.media3.exoplayer
 
 import androidx.media3.datasource.DataSource
 import androidx.media3.datasource.DefaultHttpDataSource
+import org.jellyfin.playback.media3.exoplayer.buffer.BufferProfile
+import org.jellyfin.playback.media3.exoplayer.telemetry.PlaybackSessionRecord
 
 data class ExoPlayerOptions(
 	val preferFfmpeg: Boolean = false,
 	val enableDebugLogging: Boolean = false,
 	val enableLibass: Boolean = false,
+	val enableGaplessAudio: Boolean = true,
+	/**
+	 * The buffer profile to use, or null to select one automatically.
+	 */
+	val bufferProfile: BufferProfile? = null,
+	/**
+	 * Whether the device has little memory, limits the buffer size and selects the low memory buffer profile.
+	 */
+	val isLowMemoryDevice: Boolean = false,
 	val baseDataSourceFactory: DataSource.Factory = DefaultHttpDataSource.Factory(),
+	/**
+	 * Called with the quality of experience metrics of each finished playback session.
+	 */
+	val onPlaybackSessionFinished: ((record: PlaybackSessionRecord) -> Unit)? = null,
 )
@@ -0,0 +1,215 @@
+package org.jellyfin.playback.media3.exoplayer.buffer
+
+import android.os.SystemClock
+import androidx.annotation.OptIn
+import androidx.media3.common.Format
+import androidx.media3.common.Tracks
+import androidx.media3.common.util.UnstableApi
+import androidx.media3.common.util.Util
+import androidx.media3.exoplayer.DefaultLoadControl
+import androidx.media3.exoplayer.LoadControl
+import androidx.media3.exoplayer.analytics.PlayerId
+import androidx.media3.exoplayer.upstream.BandwidthMeter
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.asStateFlow
+import kotlinx.coroutines.flow.update
+import timber.log.Timber
+import kotlin.time.Duration
+import kotlin.time.Duration.Companion.microseconds
+import kotlin.time.Duration.Companion.milliseconds
+
+/**
+ * Buffer state of the current playback, used to compare the [BufferProfile]s.
+ */
+data class BufferMetrics(
+	val profile: BufferProfile,
+	val startupTime: Duration? = null,
+	val rebufferCount: Int = 0,
+	val rebufferTime: Duration = Duration.ZERO,
+	val bufferedDuration: Duration = Duration.ZERO,
+)
+
+/**
+ * A [LoadControl] that uses the buffer durations of a [BufferProfile]. When no [fixedProfile] is set the profile is
+ * selected from the device memory, the measured network throughput and the bitrate of the playing stream. The amount
+ * of memory used for the buffer is limited for all profiles, based on the device memory and the heap size.
+ */
+@OptIn(UnstableApi::class)
+class AdaptiveLoadControl private constructor(
+	private val fixedProfile: BufferProfile?,
+	private val bandwidthMeter: BandwidthMeter,
+	private val isLowMemoryDevice: Boolean,
+	private val targetBufferBytes: Int,
+	private val delegate: DefaultLoadControl,
+) : LoadControl by delegate {
+	companion object {
+		private const val LOW_MEMORY_BUFFER_BYTES = 48L * 1024 * 1024
+		private const val MIN_BUFFER_BYTES = 128L * 1024 * 1024
+		private const val MAX_BUFFER_BYTES = 256L * 1024 * 1024
+
+		// Streams from this bitrate benefit from a short buffer that refills quickly
+		private const val HIGH_BITRATE_THRESHOLD = 40_000_000L
+
+		// The network needs to be this much faster than the stream to keep up with throughput changes
+		private const val THROUGHPUT_HEADROOM = 1.5
+
+		/**
+		 * Create a load control, [isLowMemoryDevice] is decided by the app so the player treats the same devices as
+		 * low-end as the rest of the app does.
+		 */
+		fun create(
+			bandwidthMeter: BandwidthMeter,
+			fixedProfile: BufferProfile? = null,
+			isLowMemoryDevice: Boolean = false,
+		): AdaptiveLoadControl {
+			// The buffer is allocated on the heap, allow up to half of it on devices with more memory
+			val targetBufferBytes = when {
+				isLowMemoryDevice -> LOW_MEMORY_BUFFER_BYTES
+				else -> (Runtime.getRuntime().maxMemory() / 2).coerceIn(MIN_BUFFER_BYTES, MAX_BUFFER_BYTES)
+			}.toInt()
+
+			// The delegate allows the buffers of all profiles and limits the memory, the active profile decides when to
+			// load and when to start playback within those limits
+			val profiles = BufferProfile.entries
+			val delegate = DefaultLoadControl.Builder()
+				.setBufferDurationsMs(
+					profiles.maxOf { it.minBuffer }.inWholeMilliseconds.toInt(),
+					profiles.maxOf { it.maxBuffer }.inWholeMilliseconds.toInt(),
+					profiles.minOf { it.bufferForPlayback }.inWholeMilliseconds.toInt(),
+					profiles.minOf { it.bufferForPlaybackAfterRebuffer }.inWholeMilliseconds.toInt(),
+				)
+				.setTargetBufferBytes(targetBufferBytes)
+				.setPrioritizeTimeOverSizeThresholds(false)
+				.build()
+
+			return AdaptiveLoadControl(fixedProfile, bandwidthMeter, isLowMemoryDevice, targetBufferBytes, delegate)
+		}
+	}
+
+	@Volatile
+	private var streamBitrate = 0L
+
+	@Volatile
+	private var profile = selectProfile()
+
+	private var isLoading = false
+	private var prepareTime: Long? = null
+	private var rebufferStartTime: Long? = null
+
+	private val _metrics = MutableStateFlow(BufferMetrics(profile))
+	val metrics: StateFlow<BufferMetrics> get() = _metrics.asStateFlow()
+
+	/**
+	 * Set the bitrate of the playing stream in bits per second, or 0 when unknown.
+	 */
+	fun setStreamBitrate(bitrate: Long) {
+		if (bitrate == streamBitrate) return
+		streamBitrate = bitrate
+		updateProfile()
+	}
+
+	private fun selectProfile(): BufferProfile {
+		if (fixedProfile != null) return fixedProfile
+
+		val throughput = bandwidthMeter.bitrateEstimate
+		return when {
+			isLowMemoryDevice -> BufferProfile.LOW_MEMORY
+			streamBitrate > 0 && throughput < streamBitrate * THROUGHPUT_HEADROOM -> BufferProfile.HIGH_LATENCY_WAN
+			streamBitrate >= HIGH_BITRATE_THRESHOLD -> BufferProfile.HIGH_BITRATE_LAN
+			else -> BufferProfile.DEFAULT
+		}
+	}
+
+	private fun updateProfile() {
+		val newProfile = selectProfile()
+		if (newProfile == profile) return
+
+		Timber.i("Changing buffer profile from $profile to $newProfile (stream bitrate $streamBitrate, throughput ${bandwidthMeter.bitrateEstimate})")
+		profile = newProfile
+		_metrics.update { it.copy(profile = newProfile) }
+	}
+
+	override fun onPrepared(playerId: PlayerId) {
+		delegate.onPrepared(playerId)
+
+		updateProfile()
+		isLoading = false
+		prepareTime = SystemClock.elapsedRealtime()
+		rebufferStartTime = null
+		_metrics.value = BufferMetrics(profile)
+	}
+
+	override fun onStopped(playerId: PlayerId) {
+		delegate.onStopped(playerId)
+
+		isLoading = false
+		Timber.i("Buffer metrics: ${_metrics.value}")
+	}
+
+	override fun shouldContinueLoading(parameters: LoadControl.Parameters): Boolean {
+		val bufferedDuration = parameters.bufferedDurationUs.microseconds
+		_metrics.update { it.copy(bufferedDuration = bufferedDuration) }
+
+		// Fill the buffer up to the maximum, then wait until it drained to the minimum before loading again
+		val profile = profile
+		isLoading = when {
+			bufferedDuration < profile.minBuffer -> true
+			bufferedDuration >= profile.maxBuffer -> false
+			else -> isLoading
+		}
+
+		return isLoading && delegate.shouldContinueLoading(parameters)
+	}
+
+	override fun shouldStartPlayback(parameters: LoadControl.Parameters): Boolean {
+		val now = SystemClock.elapsedRealtime()
+		if (parameters.rebuffering && rebufferStartTime == null) {
+			rebufferStartTime = now
+			// Running out of buffer can mean the network got slower
+			updateProfile()
+		}
+
+		val bufferedDuration = Util.getPlayoutDurationForMediaDuration(parameters.bufferedDurationUs, parameters.playbackSpeed).microseconds
+		val requiredDuration = if (parameters.rebuffering) profile.bufferForPlaybackAfterRebuffer else profile.bufferForPlayback
+		// Start anyway when the buffer is full before reaching the required duration, loading will not continue
+		val isBufferFull = delegate.allocator.totalBytesAllocated >= targetBufferBytes
+		val shouldStart = bufferedDuration >= requiredDuration || isBufferFull
+
+		if (shouldStart) onPlaybackStart(now)
+		return shouldStart
+	}
+
+	private fun onPlaybackStart(now: Long) {
+		val prepareTime = prepareTime
+		val rebufferStartTime = rebufferStartTime
+
+		when {
+			prepareTime != null -> _metrics.update { it.copy(startupTime = (now - prepareTime).milliseconds) }
+
+			rebufferStartTime != null -> _metrics.update {
+				it.copy(
+					rebufferCount = it.rebufferCount + 1,
+					rebufferTime = it.rebufferTime + (now - rebufferStartTime).milliseconds,
+				)
+			}
+		}
+
+		this.prepareTime = null
+		this.rebufferStartTime = null
+	}
+}
+
+/**
+ * Get the combined bitrate of the selected tracks in bits per second, or 0 when unknown.
+ */
+@OptIn(UnstableApi::class)
+fun Tracks.getSelectedBitrate(): Long = groups.sumOf { group ->
+	(0 until group.length)
+		.filter { group.isTrackSelected(it) }
+		.map { group.getTrackFormat(it) }
+		.sumOf { format ->
+			val bitrate = if (format.averageBitrate != Format.NO_VALUE) format.averageBitrate else format.bitrate
+			if (bitrate == Format.NO_VALUE) 0L else bitrate.toLong()
+		}
+}
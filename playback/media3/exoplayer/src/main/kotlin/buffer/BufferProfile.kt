@@ -0,0 +1,67 @@
+package org.jellyfin.playback.media3.exoplayer.buffer
+
+import kotlin.time.Duration
+import kotlin.time.Duration.Companion.seconds
+
+/**
+ * Buffer durations used by the [AdaptiveLoadControl].
+ */
+enum class BufferProfile(
+	/**
+	 * Buffer to keep at least, loading continues below this duration as long as the memory limit allows. After filling
+	 * the buffer to [maxBuffer] loading resumes once it drained below this duration.
+	 */
+	val minBuffer: Duration,
+	/**
+	 * Buffer to keep at most, loading stops above this duration.
+	 */
+	val maxBuffer: Duration,
+	/**
+	 * Buffer required to start playback.
+	 */
+	val bufferForPlayback: Duration,
+	/**
+	 * Buffer required to resume playback after the buffer ran out.
+	 */
+	val bufferForPlaybackAfterRebuffer: Duration,
+) {
+	/**
+	 * Small buffers for devices with little memory.
+	 */
+	LOW_MEMORY(
+		minBuffer = 15.seconds,
+		maxBuffer = 30.seconds,
+		bufferForPlayback = 1.5.seconds,
+		bufferForPlaybackAfterRebuffer = 3.seconds,
+	),
+
+	/**
+	 * The ExoPlayer defaults.
+	 */
+	DEFAULT(
+		minBuffer = 50.seconds,
+		maxBuffer = 50.seconds,
+		bufferForPlayback = 2.5.seconds,
+		bufferForPlaybackAfterRebuffer = 5.seconds,
+	),
+
+	/**
+	 * High bitrate streams on a fast network, the buffer refills quickly so less time needs to be buffered.
+	 */
+	HIGH_BITRATE_LAN(
+		minBuffer = 20.seconds,
+		maxBuffer = 40.seconds,
+		bufferForPlayback = 1.seconds,
+		bufferForPlaybackAfterRebuffer = 2.seconds,
+	),
+
+	/**
+	 * Slow or distant servers, a large buffer rides out throughput drops.
+	 */
+	HIGH_LATENCY_WAN(
+		minBuffer = 60.seconds,
+		maxBuffer = 120.seconds,
+		bufferForPlayback = 5.seconds,
+		bufferForPlaybackAfterRebuffer = 10.seconds,
+	),
+}
@@ -0,0 +1,45 @@
+package org.jellyfin.playback.media3.exoplayer.telemetry
+
+import org.jellyfin.playback.media3.exoplayer.buffer.BufferProfile
+import java.time.Instant
+import kotlin.time.Duration
+
+/**
+ * Quality of experience of a single playback session, from starting an item until it stopped or was replaced.
+ */
+data class PlaybackSessionRecord(
+	val startTime: Instant,
+	val title: String?,
+	val playMethod: String,
+	/**
+	 * Time from starting the session until the first frame was rendered, or null when playback never started.
+	 */
+	val timeToFirstFrame: Duration?,
+	val playTime: Duration,
+	/**
+	 * Number of times playback stalled to buffer, excluding startup and seeking.
+	 */
+	val rebufferCount: Int,
+	val rebufferTime: Duration,
+	val bitrateSwitches: Int,
+	val droppedFrames: Int,
+	val videoDecoder: String?,
+	/**
+	 * Number of times a different decoder was used after the first decoder for a track type.
+	 */
+	val decoderFallbacks: Int,
+	val error: String?,
+	/**
+	 * Buffer profile that was active when the session finished, or null when unknown.
+	 */
+	val bufferProfile: BufferProfile?,
+) {
+	/**
+	 * Part of the session spent rebuffering instead of playing, between 0 and 1.
+	 */
+	val rebufferRatio: Double
+		get() {
+			val total = playTime + rebufferTime
+			return if (total.isPositive()) rebufferTime / total else 0.0
+		}
+}
@@ -0,0 +1,177 @@
+package org.jellyfin.playback.media3.exoplayer.telemetry
+
+import android.os.SystemClock
+import androidx.annotation.OptIn
+import androidx.media3.common.C
+import androidx.media3.common.PlaybackException
+import androidx.media3.common.Player
+import androidx.media3.common.util.UnstableApi
+import androidx.media3.exoplayer.analytics.AnalyticsListener
+import androidx.media3.exoplayer.source.MediaLoadData
+import kotlinx.coroutines.flow.StateFlow
+import org.jellyfin.playback.media3.exoplayer.buffer.BufferMetrics
+import timber.log.Timber
+import java.time.Instant
+import kotlin.time.Duration
+import kotlin.time.Duration.Companion.milliseconds
+
+/**
+ * Collects a [PlaybackSessionRecord] for each playback session. A session starts with [startSession] and ends when the
+ * next session starts, [finishSession] is called or the player is released. All calls are expected on the application
+ * looper of the player, which is the thread analytics events are reported on.
+ */
+@OptIn(UnstableApi::class)
+class PlaybackSessionTracker(
+	private val bufferMetrics: StateFlow<BufferMetrics>,
+	private val onSessionFinished: (record: PlaybackSessionRecord) -> Unit,
+) : AnalyticsListener {
+	private class Session(
+		val title: String?,
+		val playMethod: String,
+	) {
+		val startTime: Instant = Instant.now()
+		val startRealtime = SystemClock.elapsedRealtime()
+		var firstFrameRealtime: Long? = null
+		var playingSince: Long? = null
+		var playTime = Duration.ZERO
+		var seeking = false
+		var rebufferingSince: Long? = null
+		var rebufferCount = 0
+		var rebufferTime = Duration.ZERO
+		var videoBitrate: Int? = null
+		var bitrateSwitches = 0
+		var droppedFrames = 0
+		val decoders = mutableMapOf<Int, String>()
+		var decoderFallbacks = 0
+		var error: String? = null
+	}
+
+	private var session: Session? = null
+
+	fun startSession(title: String?, playMethod: String) {
+		finishSession()
+		session = Session(title, playMethod)
+	}
+
+	fun finishSession() {
+		val session = session ?: return
+		this.session = null
+
+		val now = SystemClock.elapsedRealtime()
+		session.playingSince?.let { session.playTime += (now - it).milliseconds }
+		session.rebufferingSince?.let { session.rebufferTime += (now - it).milliseconds }
+
+		val record = PlaybackSessionRecord(
+			startTime = session.startTime,
+			title = session.title,
+			playMethod = session.playMethod,
+			timeToFirstFrame = session.firstFrameRealtime?.let { (it - session.startRealtime).milliseconds },
+			playTime = session.playTime,
+			rebufferCount = session.rebufferCount,
+			rebufferTime = session.rebufferTime,
+			bitrateSwitches = session.bitrateSwitches,
+			droppedFrames = session.droppedFrames,
+			videoDecoder = session.decoders[C.TRACK_TYPE_VIDEO],
+			decoderFallbacks = session.decoderFallbacks,
+			error = session.error,
+			bufferProfile = bufferMetrics.value.profile,
+		)
+		Timber.i("Playback session finished: $record")
+		onSessionFinished(record)
+	}
+
+	private fun Session.onFirstFrame(realtime: Long) {
+		if (firstFrameRealtime == null) firstFrameRealtime = realtime
+	}
+
+	override fun onRenderedFirstFrame(eventTime: AnalyticsListener.EventTime, output: Any, renderTimeMs: Long) {
+		session?.onFirstFrame(eventTime.realtimeMs)
+	}
+
+	override fun onIsPlayingChanged(eventTime: AnalyticsListener.EventTime, isPlaying: Boolean) {
+		val session = session ?: return
+
+		if (isPlaying) {
+			// Audio only streams don't render frames, consider the start of playback instead
+			session.onFirstFrame(eventTime.realtimeMs)
+			if (session.playingSince == null) session.playingSince = eventTime.realtimeMs
+		} else {
+			session.playingSince?.let { session.playTime += (eventTime.realtimeMs - it).milliseconds }
+			session.playingSince = null
+		}
+	}
+
+	override fun onPositionDiscontinuity(
+		eventTime: AnalyticsListener.EventTime,
+		oldPosition: Player.PositionInfo,
+		newPosition: Player.PositionInfo,
+		reason: Int,
+	) {
+		if (reason == Player.DISCONTINUITY_REASON_SEEK) session?.seeking = true
+	}
+
+	override fun onPlaybackStateChanged(eventTime: AnalyticsListener.EventTime, state: Int) {
+		val session = session ?: return
+
+		when (state) {
+			Player.STATE_BUFFERING -> {
+				// Buffering during startup or after seeking is expected and not a stall
+				if (session.firstFrameRealtime != null && !session.seeking && session.rebufferingSince == null) {
+					session.rebufferingSince = eventTime.realtimeMs
+					session.rebufferCount++
+				}
+			}
+
+			else -> {
+				session.rebufferingSince?.let { session.rebufferTime += (eventTime.realtimeMs - it).milliseconds }
+				session.rebufferingSince = null
+				session.seeking = false
+			}
+		}
+	}
+
+	override fun onDownstreamFormatChanged(eventTime: AnalyticsListener.EventTime, mediaLoadData: MediaLoadData) {
+		val session = session ?: return
+		if (mediaLoadData.trackType != C.TRACK_TYPE_VIDEO) return
+		val bitrate = mediaLoadData.trackFormat?.bitrate ?: return
+
+		if (session.videoBitrate != null && session.videoBitrate != bitrate) session.bitrateSwitches++
+		session.videoBitrate = bitrate
+	}
+
+	override fun onDroppedVideoFrames(eventTime: AnalyticsListener.EventTime, droppedFrames: Int, elapsedMs: Long) {
+		session?.let { it.droppedFrames += droppedFrames }
+	}
+
+	private fun onDecoderInitialized(trackType: Int, decoderName: String) {
+		val session = session ?: return
+
+		val previousDecoder = session.decoders.put(trackType, decoderName)
+		if (previousDecoder != null && previousDecoder != decoderName) {
+			Timber.w("Decoder changed from $previousDecoder to $decoderName")
+			session.decoderFallbacks++
+		}
+	}
+
+	override fun onVideoDecoderInitialized(
+		eventTime: AnalyticsListener.EventTime,
+		decoderName: String,
+		initializedTimestampMs: Long,
+		initializationDurationMs: Long,
+	) = onDecoderInitialized(C.TRACK_TYPE_VIDEO, decoderName)
+
+	override fun onAudioDecoderInitialized(
+		eventTime: AnalyticsListener.EventTime,
+		decoderName: String,
+		initializedTimestampMs: Long,
+		initializationDurationMs: Long,
+	) = onDecoderInitialized(C.TRACK_TYPE_AUDIO, decoderName)
+
+	override fun onPlayerError(eventTime: AnalyticsListener.EventTime, error: PlaybackException) {
+		session?.error = error.errorCodeName
+	}
+
+	override fun onPlayerReleased(eventTime: AnalyticsListener.EventTime) {
+		finishSession()
+	}
+}
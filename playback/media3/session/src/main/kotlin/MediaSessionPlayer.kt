@@ -16,12 +16,12 @@ import kotlinx.coroutines.flow.StateFlow
 import kotlinx.coroutines.flow.launchIn
 import kotlinx.coroutines.flow.onEach
 import kotlinx.coroutines.guava.future
-import kotlinx.coroutines.runBlocking
 import kotlinx.coroutines.withContext
 import org.jellyfin.playback.core.PlaybackManager
 import org.jellyfin.playback.core.model.PlayState
 import org.jellyfin.playback.core.model.PlaybackOrder
 import org.jellyfin.playback.core.model.RepeatMode
+import org.jellyfin.playback.core.queue.QueueSnapshot
 import org.jellyfin.playback.core.queue.metadata
 import org.jellyfin.playback.core.queue.queue
 import timber.log.Timber
@@ -37,7 +37,7 @@ internal class MediaSessionPlayer(
 ) : SimpleBasePlayer(looper) {
 	init {
 		// Invalidate mediasession state when certain player state changes
-		manager.queue.entry.invalidateStateOnEach(scope)
+		manager.queue.snapshot.invalidateStateOnEach(scope)
 		state.playState.invalidateStateOnEach(scope)
 		state.videoSize.invalidateStateOnEach(scope)
 		state.speed.invalidateStateOnEach(scope)
@@ -51,17 +51,40 @@ internal class MediaSessionPlayer(
 		withContext(Dispatchers.Main) { invalidateState() }
 	}.launchIn(scope)
 
+	// Playlist of the last used queue snapshot, only accessed from the looper thread
+	private var playlistSnapshot: QueueSnapshot? = null
+	private var playlist: List<MediaItemData> = emptyList()
+
+	private fun getPlaylist(snapshot: QueueSnapshot): List<MediaItemData> {
+		if (snapshot !== playlistSnapshot) {
+			playlist = listOfNotNull(snapshot.previous, snapshot.current)
+				.plus(snapshot.next)
+				.distinctBy { it.metadata.mediaId }
+				.map {
+					MediaItemData.Builder(requireNotNull(it.metadata.mediaId)).apply {
+						setMediaItem(it.metadata.toMediaItem())
+						setDurationUs(it.metadata.duration?.inWholeMicroseconds ?: C.TIME_UNSET)
+					}.build()
+				}
+			playlistSnapshot = snapshot
+		}
+
+		return playlist
+	}
+
 	override fun getState(): State = State.Builder().apply {
+		val snapshot = manager.queue.snapshot.value
+
 		setAvailableCommands(Commands.Builder().apply {
 			add(COMMAND_PLAY_PAUSE)
 			add(COMMAND_PREPARE)
 			add(COMMAND_STOP)
 			add(COMMAND_SEEK_TO_DEFAULT_POSITION)
 			add(COMMAND_SEEK_IN_CURRENT_MEDIA_ITEM)
-			val allowPrevious = manager.queue.entryIndex.value > 0
+			val allowPrevious = snapshot.previous != null
 			addIf(COMMAND_SEEK_TO_PREVIOUS_MEDIA_ITEM, allowPrevious)
 			addIf(COMMAND_SEEK_TO_PREVIOUS, allowPrevious)
-			val allowNext = manager.queue.entryIndex.value < (manager.queue.estimatedSize - 1)
+			val allowNext = snapshot.next.isNotEmpty()
 			addIf(COMMAND_SEEK_TO_NEXT_MEDIA_ITEM, allowNext)
 			addIf(COMMAND_SEEK_TO_NEXT, allowNext)
 			// add(COMMAND_SEEK_TO_MEDIA_ITEM)
@@ -88,35 +111,22 @@ internal class MediaSessionPlayer(
 			// add(COMMAND_GET_TRACKS)
 		}.build())
 
-		runBlocking {
-			val current = manager.queue.entry.value
-
-			if (current != null) {
-				val previous = manager.queue.peekPrevious()
-				val next = manager.queue.peekNext()
-
-				val playlist = listOfNotNull(previous, current, next)
-					.distinctBy { it.metadata.mediaId }
-					.map {
-						MediaItemData.Builder(requireNotNull(it.metadata.mediaId)).apply {
-							setMediaItem(it.metadata.toMediaItem())
-							setDurationUs(it.metadata.duration?.inWholeMicroseconds ?: C.TIME_UNSET)
-						}.build()
-					}
-				setPlaylist(playlist)
-
-				setPlaybackState(when (state.playState.value) {
-					PlayState.STOPPED -> STATE_IDLE
-					PlayState.PLAYING -> STATE_READY
-					PlayState.PAUSED -> STATE_READY
-					PlayState.ERROR -> STATE_ENDED
-				})
-
-				setCurrentMediaItemIndex(if (previous == null || playlist.size <= 1) 0 else 1)
-			} else {
-				setPlaybackState(STATE_IDLE)
-				setCurrentMediaItemIndex(C.INDEX_UNSET)
-			}
+		val current = snapshot.current
+		if (current != null) {
+			val playlist = getPlaylist(snapshot)
+			setPlaylist(playlist)
+
+			setPlaybackState(when (state.playState.value) {
+				PlayState.STOPPED -> STATE_IDLE
+				PlayState.PLAYING -> STATE_READY
+				PlayState.PAUSED -> STATE_READY
+				PlayState.ERROR -> STATE_ENDED
+			})
+
+			setCurrentMediaItemIndex(playlist.indexOfFirst { it.uid == current.metadata.mediaId }.coerceAtLeast(0))
+		} else {
+			setPlaybackState(STATE_IDLE)
+			setCurrentMediaItemIndex(C.INDEX_UNSET)
 		}
 
 		setContentPositionMs { state.positionInfo.active.inWholeMilliseconds }